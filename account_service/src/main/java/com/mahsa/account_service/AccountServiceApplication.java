@@ -3,7 +3,8 @@ package com.mahsa.account_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+// com.mahsa.common: read replica routing (ReadReplicaDataSourceConfig, ReadYourWritesFilter) and FileSpanExporter
+@SpringBootApplication(scanBasePackages = {"com.mahsa.account_service", "com.mahsa.common"})
 public class AccountServiceApplication {
 
 	public static void main(String[] args) {
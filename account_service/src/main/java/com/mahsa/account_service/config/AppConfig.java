@@ -1,14 +1,19 @@
 package com.mahsa.account_service.config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
-    @Bean 
-    public RestTemplate restTemplate(){
-        return new RestTemplate();
+    // Calls go through the shared pooled (or HTTP/2) client of common's PeerHttpClientConfig, see http.client.*.
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory peerServicesRequestFactory){
+        return restTemplateBuilder.requestFactory(() -> peerServicesRequestFactory).build();
     }
 }
@@ -0,0 +1,71 @@
+package com.mahsa.account_service.config;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * The caches behind Hibernate's second-level cache (enabled in application.properties): Account entities by id,
+ * and the ids returned by AccountRepository.findByUserId. Both are bounded by account.cache.max-size entries and
+ * expire account.cache.ttl after being written. Hibernate keeps them consistent with writes made through JPA;
+ * see AccountRepository.addToBalance for the balance updates.
+ * Hit and miss counts are published as hibernate.second.level.cache.requests and hibernate.cache.query.requests.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String ACCOUNT_REGION = "account";
+    public static final String ACCOUNTS_BY_USER_REGION = "accountsByUser";
+
+    // Hibernate's own regions: query results without an explicit region, and the last change of every table
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${account.cache.max-size}")
+    private long maxSize;
+
+    @Value("${account.cache.ttl}")
+    private Duration ttl;
+
+    // The provider's default manager, shared within the JVM, so it is not closed with the context.
+    @Bean(destroyMethod = "")
+    public CacheManager secondLevelCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        createCache(cacheManager, ACCOUNT_REGION, true);
+        createCache(cacheManager, ACCOUNTS_BY_USER_REGION, true);
+        createCache(cacheManager, DEFAULT_QUERY_REGION, true);
+        // One entry per table; evicting one would make Hibernate treat cached query results as current.
+        createCache(cacheManager, TIMESTAMPS_REGION, false);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private void createCache(CacheManager cacheManager, String name, boolean bounded) {
+        if (cacheManager.getCache(name) != null) {
+            return; // created by an earlier application context in this JVM (e.g. in tests)
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate only stores immutable disassembled state, so there is no need to copy it on every get and put.
+        configuration.setStoreByValue(false);
+        if (bounded) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -5,9 +5,13 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
 
 import com.mahsa.account_service.dto.AccountResponseDTO;
+import com.mahsa.account_service.dto.BalanceDeltaDTO;
 import com.mahsa.account_service.dto.CreateAccountRequestDTO;
 import com.mahsa.account_service.entity.Account;
 import com.mahsa.account_service.repository.AccountRepository;
+import com.mahsa.account_service.service.BalanceReconciliationJob;
+import com.mahsa.account_service.service.BalanceService;
+import com.mahsa.common.config.ReadYourWrites;
 
 import jakarta.validation.Valid;
 
@@ -35,14 +39,21 @@ public class AccountController {
 
     private final RestTemplate restTemplate;
     private final AccountRepository accountRepository;
+    private final BalanceService balanceService;
+    private final BalanceReconciliationJob balanceReconciliationJob;
+    private final ReadYourWrites readYourWrites;
 
     //Read user-service URL from application.properties
     @Value("${user.service.url}")
     private String userServiceBaseUrl;
     
-    public AccountController(RestTemplate restTemplate, AccountRepository accountRepository) {
+    public AccountController(RestTemplate restTemplate, AccountRepository accountRepository,
+        BalanceService balanceService, BalanceReconciliationJob balanceReconciliationJob, ReadYourWrites readYourWrites) {
         this.restTemplate = restTemplate;
         this.accountRepository = accountRepository;
+        this.balanceService = balanceService;
+        this.balanceReconciliationJob = balanceReconciliationJob;
+        this.readYourWrites = readYourWrites;
     }
 
     @PostMapping
@@ -55,8 +66,9 @@ public class AccountController {
                 .body(Map.of("message", "Error: X-User-ID header is required."));
         }
         try {
-            String validationUrl = userServiceBaseUrl + "/validate/" + userId;
-            ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(validationUrl, Boolean.class);
+            // A URI template, so the http.client.requests metrics are not tagged per user id
+            ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(userServiceBaseUrl + "/validate/{userId}",
+                Boolean.class, userId);
             Boolean userExists = responseEntity.getBody();
             if(userExists == null || !userExists){
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -71,6 +83,7 @@ public class AccountController {
 
         Account newAccount = new Account();
         newAccount.setBalance(requestDTO.getBalance());
+        newAccount.setOpeningBalance(requestDTO.getBalance()); //transactions are added on top of this by balance deltas
         newAccount.setName(requestDTO.getName());
         newAccount.setType(requestDTO.getType());
         newAccount.setUserId(userId);
@@ -115,6 +128,10 @@ public class AccountController {
         @RequestParam Long userId) {
 
             Optional<Account> accountOptional = accountRepository.findById(accountId);
+                if (accountOptional.isEmpty()) {
+                // A replica may not have an account created a moment ago yet
+                accountOptional = readYourWrites.onPrimary(() -> accountRepository.findById(accountId));
+                }
                 if (accountOptional.isEmpty()) {
                 // Account with the given accountId does not exist at all
                 return ResponseEntity.ok(false);
@@ -129,4 +146,19 @@ public class AccountController {
 
     }
     
+
+    //POST http://localhost:8082/api/accounts/balance-deltas
+    //Called by transaction-service's outbox relay; a delta that was already applied is skipped, so redelivery is safe.
+    @PostMapping("/balance-deltas")
+    public ResponseEntity<?> applyBalanceDeltas(@RequestBody List<@Valid BalanceDeltaDTO> deltas) {
+        return ResponseEntity.ok(balanceService.applyDeltas(deltas));
+    }
+
+    //POST http://localhost:8082/api/accounts/reconciliation
+    //Runs the balance reconciliation now instead of waiting for account.reconciliation.cron
+    @PostMapping("/reconciliation")
+    public ResponseEntity<?> reconcileBalances() {
+        return ResponseEntity.ok(balanceReconciliationJob.reconcile());
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.mahsa.account_service.dto;
+
+public class ApplyBalanceDeltasResponseDTO {
+    private int applied;
+    private int duplicates;
+    private int unknownAccount;
+
+    public ApplyBalanceDeltasResponseDTO() {
+    }
+
+    public ApplyBalanceDeltasResponseDTO(int applied, int duplicates, int unknownAccount) {
+        this.applied = applied;
+        this.duplicates = duplicates;
+        this.unknownAccount = unknownAccount;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+    public int getDuplicates() {
+        return duplicates;
+    }
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+    public int getUnknownAccount() {
+        return unknownAccount;
+    }
+    public void setUnknownAccount(int unknownAccount) {
+        this.unknownAccount = unknownAccount;
+    }
+
+}
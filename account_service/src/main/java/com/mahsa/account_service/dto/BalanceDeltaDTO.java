@@ -0,0 +1,43 @@
+package com.mahsa.account_service.dto;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.NotNull;
+
+public class BalanceDeltaDTO {
+    @NotNull(message = "transactionId cannot be null")
+    private Long transactionId;
+
+    @NotNull(message = "accountId cannot be null")
+    private Long accountId;
+
+    @NotNull(message = "amount cannot be null")
+    private BigDecimal amount; // signed: positive for INCOME, negative for EXPENSE
+
+    public BalanceDeltaDTO() {}
+    public BalanceDeltaDTO(Long transactionId, Long accountId, BigDecimal amount) {
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    public Long getAccountId() {
+        return accountId;
+    }
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+}
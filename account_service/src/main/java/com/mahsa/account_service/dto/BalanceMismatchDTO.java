@@ -0,0 +1,49 @@
+package com.mahsa.account_service.dto;
+
+import java.math.BigDecimal;
+
+public class BalanceMismatchDTO {
+    // LEDGER: balance (actual) differs from openingBalance + SUM(applied deltas) (expected).
+    // TRANSACTIONS: SUM(applied deltas) (actual) differs from the signed SUM(amount) in transaction-service (expected),
+    // i.e. deltas are still in flight or were never delivered.
+    private String kind;
+    private Long accountId;
+    private BigDecimal actual;
+    private BigDecimal expected;
+
+    public BalanceMismatchDTO() {
+    }
+
+    public BalanceMismatchDTO(String kind, Long accountId, BigDecimal actual, BigDecimal expected) {
+        this.kind = kind;
+        this.accountId = accountId;
+        this.actual = actual;
+        this.expected = expected;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+    public Long getAccountId() {
+        return accountId;
+    }
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    public BigDecimal getActual() {
+        return actual;
+    }
+    public void setActual(BigDecimal actual) {
+        this.actual = actual;
+    }
+    public BigDecimal getExpected() {
+        return expected;
+    }
+    public void setExpected(BigDecimal expected) {
+        this.expected = expected;
+    }
+
+}
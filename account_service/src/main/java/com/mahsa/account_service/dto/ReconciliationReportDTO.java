@@ -0,0 +1,63 @@
+package com.mahsa.account_service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReconciliationReportDTO {
+    // At most this many mismatches are listed; the counters still cover all of them.
+    public static final int MAX_LISTED_MISMATCHES = 100;
+
+    private int checked;
+    private int ledgerMismatches;
+    private int repaired;
+    private int transactionMismatches;
+    private boolean transactionSumsUnavailable;
+    private List<BalanceMismatchDTO> mismatches = new ArrayList<>();
+
+    public ReconciliationReportDTO() {
+    }
+
+    public void addMismatch(BalanceMismatchDTO mismatch) {
+        if (mismatches.size() < MAX_LISTED_MISMATCHES) {
+            mismatches.add(mismatch);
+        }
+    }
+
+    public int getChecked() {
+        return checked;
+    }
+    public void setChecked(int checked) {
+        this.checked = checked;
+    }
+    public int getLedgerMismatches() {
+        return ledgerMismatches;
+    }
+    public void setLedgerMismatches(int ledgerMismatches) {
+        this.ledgerMismatches = ledgerMismatches;
+    }
+    public int getRepaired() {
+        return repaired;
+    }
+    public void setRepaired(int repaired) {
+        this.repaired = repaired;
+    }
+    public int getTransactionMismatches() {
+        return transactionMismatches;
+    }
+    public void setTransactionMismatches(int transactionMismatches) {
+        this.transactionMismatches = transactionMismatches;
+    }
+    public boolean isTransactionSumsUnavailable() {
+        return transactionSumsUnavailable;
+    }
+    public void setTransactionSumsUnavailable(boolean transactionSumsUnavailable) {
+        this.transactionSumsUnavailable = transactionSumsUnavailable;
+    }
+    public List<BalanceMismatchDTO> getMismatches() {
+        return mismatches;
+    }
+    public void setMismatches(List<BalanceMismatchDTO> mismatches) {
+        this.mismatches = mismatches;
+    }
+
+}
@@ -2,8 +2,13 @@ package com.mahsa.account_service.entity;
 
 import java.math.BigDecimal;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.mahsa.account_service.config.SecondLevelCacheConfig;
 import com.mahsa.account_service.enums.AccountType;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -12,7 +17,10 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 
+// Read by id on every transaction-service request (/validate), so kept in the second-level cache.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ACCOUNT_REGION)
 public class Account {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,7 +35,12 @@ public class Account {
     private AccountType type;
 
     @Column(nullable = false)
-    private BigDecimal balance;
+    private BigDecimal balance; // kept up to date by the balance deltas of new transactions
+
+    // Balance at creation. balance == openingBalance + SUM(applied balance deltas) for every account.
+    // Accounts created before balances were maintained have null here until their first delta is applied.
+    @Column(nullable = true)
+    private BigDecimal openingBalance;
 
     @Column(nullable = false)
     private Long userId;
@@ -77,6 +90,14 @@ public class Account {
         this.balance = balance;
     }
 
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -0,0 +1,72 @@
+package com.mahsa.account_service.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// Ledger of the balance deltas already added to Account.balance, one row per transaction of transaction-service.
+// The primary key makes applying a delta idempotent: a redelivered delta finds its row and is ignored.
+@Entity
+@Table(name = "applied_balance_deltas", indexes = @Index(name = "idx_applied_balance_deltas_account_id", columnList = "accountId"))
+public class AppliedBalanceDelta {
+    @Id
+    private Long transactionId; // assigned by transaction-service, not generated here
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private BigDecimal amount; // signed
+
+    @Column(nullable = false)
+    private Instant appliedAt;
+
+    // No-argument constructor (required by JPA)
+    public AppliedBalanceDelta() {
+    }
+
+    public AppliedBalanceDelta(Long transactionId, Long accountId, BigDecimal amount, Instant appliedAt) {
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.appliedAt = appliedAt;
+    }
+
+    //Getter and Setters
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(Instant appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -1,13 +1,49 @@
 package com.mahsa.account_service.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.mahsa.account_service.config.SecondLevelCacheConfig;
 import com.mahsa.account_service.entity.Account;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long>{
+ // Read-only, so it is served by a read replica when there is one (inherited finders like findById already are).
+ // The ids of the result are kept in the query cache until an account is inserted, updated or deleted through JPA;
+ // the accounts themselves come from the entity cache.
+ @Transactional(readOnly = true)
+ @QueryHints({
+  @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+  @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.ACCOUNTS_BY_USER_REGION)
+ })
  List<Account> findByUserId(Long userId);
+
+ // Adds a signed delta to the balance in the database (no read-modify-write race).
+ // The SET expressions see the old row, so an account without openingBalance gets its pre-delta balance.
+ // Native, with its own query space: a JPQL bulk update would make Hibernate drop every cached Account and
+ // query result on each delta. The caller evicts the changed accounts instead (BalanceService).
+ @Modifying
+ @Query(value = "UPDATE account SET opening_balance = COALESCE(opening_balance, balance), balance = balance + :delta WHERE id = :accountId",
+  nativeQuery = true)
+ @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_balance"))
+ int addToBalance(@Param("accountId") Long accountId, @Param("delta") BigDecimal delta);
+
+ // Next chunk of accounts in id order, locked so no delta is applied while the chunk is being reconciled.
+ @Lock(LockModeType.PESSIMISTIC_WRITE)
+ @Query("SELECT a FROM Account a WHERE a.id > :afterId ORDER BY a.id")
+ List<Account> lockChunkAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package com.mahsa.account_service.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.mahsa.account_service.entity.AppliedBalanceDelta;
+
+@Repository
+public interface AppliedBalanceDeltaRepository extends JpaRepository<AppliedBalanceDelta, Long> {
+
+    @Query("SELECT d.transactionId FROM AppliedBalanceDelta d WHERE d.transactionId IN :transactionIds")
+    List<Long> findAppliedTransactionIds(@Param("transactionIds") Collection<Long> transactionIds);
+
+    // [accountId, SUM(amount)] for the given accounts; accounts without applied deltas are not returned.
+    @Query("SELECT d.accountId, SUM(d.amount) FROM AppliedBalanceDelta d WHERE d.accountId IN :accountIds GROUP BY d.accountId")
+    List<Object[]> sumAmountsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+}
@@ -0,0 +1,63 @@
+package com.mahsa.account_service.security;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.mahsa.common.security.ServiceTokens;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Only lets other services call the service-to-service endpoints (SERVICE_PATHS): balance deltas from
+ * transaction-service's outbox relay, and the on-demand reconciliation. Those requests need a valid service token
+ * addressed to account_service in the X-Service-Token header (see ServiceTokens) and get 401 without one.
+ * account-service has no Spring Security, so this is a plain servlet filter.
+ */
+@Component
+public class ServiceTokenFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenFilter.class);
+
+    public static final Set<String> SERVICE_PATHS = Set.of("/api/accounts/balance-deltas", "/api/accounts/reconciliation");
+
+    private final ServiceTokens serviceTokens;
+
+    public ServiceTokenFilter(ServiceTokens serviceTokens) {
+        this.serviceTokens = serviceTokens;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !SERVICE_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ServiceTokens.HEADER);
+        if (token == null) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "X-Service-Token header is required.");
+            return;
+        }
+        try {
+            serviceTokens.verify(token);
+        } catch (JwtException e) {
+            logger.warn("Rejected service token on {}: {}", request.getRequestURI(), e.getMessage());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid service token.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,111 @@
+package com.mahsa.account_service.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.mahsa.account_service.dto.BalanceMismatchDTO;
+import com.mahsa.account_service.dto.ReconciliationReportDTO;
+import com.mahsa.common.Money;
+import com.mahsa.common.security.ServiceTokens;
+
+/**
+ * Periodically verifies the incrementally maintained balances, chunk by chunk:
+ * first against the local ledger of applied deltas (and optionally repairs them), then the ledger totals
+ * against the signed SUM(amount) that transaction-service computes for the same accounts in one call.
+ * Differences of the second kind are normal for a few seconds while deltas are in flight; persistent
+ * ones point at transactions whose deltas were never delivered (for example transactions created
+ * before balances were maintained).
+ */
+@Component
+public class BalanceReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceReconciliationJob.class);
+
+    // spring.application.name of transaction-service, the audience of its service tokens
+    private static final String TRANSACTION_SERVICE = "transaction_service";
+
+    private final BalanceService balanceService;
+    private final RestTemplate restTemplate;
+    private final ServiceTokens serviceTokens;
+
+    @Value("${transaction.service.url}")
+    private String transactionServiceBaseUrl;
+
+    @Value("${account.reconciliation.chunk-size}")
+    private int chunkSize;
+
+    @Value("${account.reconciliation.repair}")
+    private boolean repair;
+
+    public BalanceReconciliationJob(BalanceService balanceService, RestTemplate restTemplate,
+                                    ServiceTokens serviceTokens) {
+        this.balanceService = balanceService;
+        this.restTemplate = restTemplate;
+        this.serviceTokens = serviceTokens;
+    }
+
+    @Scheduled(cron = "${account.reconciliation.cron}")
+    public void scheduledRun() {
+        ReconciliationReportDTO report = reconcile();
+        logger.info("Balance reconciliation checked {} accounts: {} ledger mismatches ({} repaired), {} transaction mismatches",
+            report.getChecked(), report.getLedgerMismatches(), report.getRepaired(), report.getTransactionMismatches());
+    }
+
+    public ReconciliationReportDTO reconcile() {
+        ReconciliationReportDTO report = new ReconciliationReportDTO();
+        Long afterId = 0L;
+        while (true) {
+            Map<Long, Long> ledgerSums = balanceService.reconcileLedgerChunk(afterId, chunkSize, repair, report);
+            if (ledgerSums.isEmpty()) {
+                return report;
+            }
+            // Called outside the chunk's DB transaction, so account rows are not locked during the HTTP call.
+            compareWithTransactionSums(ledgerSums, report);
+            List<Long> ids = new ArrayList<>(ledgerSums.keySet());
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    private void compareWithTransactionSums(Map<Long, Long> ledgerSums, ReconciliationReportDTO report) {
+        Map<Long, BigDecimal> transactionSums;
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(ServiceTokens.HEADER, serviceTokens.issue(TRANSACTION_SERVICE));
+            transactionSums = restTemplate.exchange(
+                transactionServiceBaseUrl + "/balance-sums",
+                HttpMethod.POST,
+                new HttpEntity<>(new ArrayList<>(ledgerSums.keySet()), headers),
+                new ParameterizedTypeReference<Map<Long, BigDecimal>>() {}).getBody();
+        } catch (Exception e) {
+            logger.warn("Could not get transaction sums from transaction service: {}", e.getMessage());
+            report.setTransactionSumsUnavailable(true);
+            return;
+        }
+        if (transactionSums == null) {
+            report.setTransactionSumsUnavailable(true);
+            return;
+        }
+        for (Map.Entry<Long, Long> ledgerSum : ledgerSums.entrySet()) {
+            BigDecimal transactionSum = transactionSums.get(ledgerSum.getKey());
+            long expected = transactionSum == null ? 0 : Money.of(transactionSum);
+            if (ledgerSum.getValue() != expected) {
+                report.setTransactionMismatches(report.getTransactionMismatches() + 1);
+                report.addMismatch(new BalanceMismatchDTO("TRANSACTIONS", ledgerSum.getKey(),
+                    Money.toBigDecimal(ledgerSum.getValue()), Money.toBigDecimal(expected)));
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.mahsa.account_service.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.mahsa.account_service.dto.ApplyBalanceDeltasResponseDTO;
+import com.mahsa.account_service.dto.BalanceDeltaDTO;
+import com.mahsa.account_service.dto.BalanceMismatchDTO;
+import com.mahsa.account_service.dto.ReconciliationReportDTO;
+import com.mahsa.account_service.entity.Account;
+import com.mahsa.account_service.entity.AppliedBalanceDelta;
+import com.mahsa.account_service.repository.AccountRepository;
+import com.mahsa.account_service.repository.AppliedBalanceDeltaRepository;
+import com.mahsa.common.Money;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@Service
+public class BalanceService {
+
+    private final AccountRepository accountRepository;
+    private final AppliedBalanceDeltaRepository appliedBalanceDeltaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BalanceService(AccountRepository accountRepository, AppliedBalanceDeltaRepository appliedBalanceDeltaRepository) {
+        this.accountRepository = accountRepository;
+        this.appliedBalanceDeltaRepository = appliedBalanceDeltaRepository;
+    }
+
+    /**
+     * Adds the deltas of new transactions to the account balances, exactly once per transaction.
+     * Deltas already in the ledger (redeliveries) are skipped. The ledger rows and the balance
+     * updates are written in one DB transaction, so a delta is either fully applied or not at all.
+     *
+     * @param deltas Signed balance deltas, one per transaction.
+     * @return How many deltas were applied, skipped as duplicates, or referenced an unknown account.
+     */
+    @Transactional
+    public ApplyBalanceDeltasResponseDTO applyDeltas(List<BalanceDeltaDTO> deltas) {
+        Map<Long, BalanceDeltaDTO> newDeltas = new LinkedHashMap<>();
+        for (BalanceDeltaDTO delta : deltas) {
+            newDeltas.putIfAbsent(delta.getTransactionId(), delta);
+        }
+        if (!newDeltas.isEmpty()) {
+            newDeltas.keySet().removeAll(appliedBalanceDeltaRepository.findAppliedTransactionIds(newDeltas.keySet()));
+        }
+        int duplicates = deltas.size() - newDeltas.size();
+
+        // One UPDATE per account, in id order so concurrent requests lock account rows in the same order.
+        // Summed in minor units (see Money).
+        Map<Long, long[]> totals = new TreeMap<>();
+        for (BalanceDeltaDTO delta : newDeltas.values()) {
+            long[] total = totals.computeIfAbsent(delta.getAccountId(), k -> new long[1]);
+            total[0] = Money.add(total[0], Money.of(delta.getAmount()));
+        }
+        Set<Long> unknownAccounts = new HashSet<>();
+        for (Map.Entry<Long, long[]> total : totals.entrySet()) {
+            if (accountRepository.addToBalance(total.getKey(), Money.toBigDecimal(total.getValue()[0])) == 0) {
+                unknownAccounts.add(total.getKey());
+            }
+        }
+        evictFromCache(totals.keySet());
+
+        // Deltas of unknown accounts are recorded too, so they are not redelivered forever.
+        Instant now = Instant.now();
+        int unknownAccount = 0;
+        for (BalanceDeltaDTO delta : newDeltas.values()) {
+            entityManager.persist(new AppliedBalanceDelta(delta.getTransactionId(), delta.getAccountId(), delta.getAmount(), now));
+            if (unknownAccounts.contains(delta.getAccountId())) {
+                unknownAccount++;
+            }
+        }
+        return new ApplyBalanceDeltasResponseDTO(newDeltas.size() - unknownAccount, duplicates, unknownAccount);
+    }
+
+    // addToBalance bypasses the second-level cache. The accounts are evicted now and again after commit, so a
+    // reader that cached the old balance in between does not keep it.
+    private void evictFromCache(Set<Long> accountIds) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        Set<Long> evicted = new HashSet<>(accountIds);
+        evicted.forEach(accountId -> cache.evict(Account.class, accountId));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evicted.forEach(accountId -> cache.evict(Account.class, accountId));
+            }
+        });
+    }
+
+    /**
+     * Checks the next chunk of accounts (ids after afterId) against their ledger:
+     * balance must equal openingBalance + SUM(applied deltas). The chunk is locked while it is checked.
+     *
+     * @param afterId   Last account id of the previous chunk (0 for the first chunk).
+     * @param chunkSize Maximum number of accounts to check.
+     * @param repair    Whether to reset mismatching balances to openingBalance + SUM(applied deltas).
+     * @param report    Receives the counters and mismatches.
+     * @return SUM(applied deltas) per checked account in minor units (see Money), in id order; empty when there
+     *         are no more accounts.
+     */
+    @Transactional
+    public Map<Long, Long> reconcileLedgerChunk(Long afterId, int chunkSize, boolean repair, ReconciliationReportDTO report) {
+        List<Account> accounts = accountRepository.lockChunkAfter(afterId, PageRequest.of(0, chunkSize));
+        Map<Long, Long> ledgerSums = new LinkedHashMap<>();
+        for (Account account : accounts) {
+            ledgerSums.put(account.getId(), 0L);
+        }
+        if (accounts.isEmpty()) {
+            return ledgerSums;
+        }
+        for (Object[] row : appliedBalanceDeltaRepository.sumAmountsByAccountIds(ledgerSums.keySet())) {
+            ledgerSums.put((Long) row[0], Money.of((BigDecimal) row[1]));
+        }
+
+        for (Account account : accounts) {
+            if (account.getOpeningBalance() == null) {
+                continue; // no delta applied yet, nothing to compare against
+            }
+            long balance = Money.of(account.getBalance());
+            long expected = Money.add(Money.of(account.getOpeningBalance()), ledgerSums.get(account.getId()));
+            if (balance != expected) {
+                report.setLedgerMismatches(report.getLedgerMismatches() + 1);
+                report.addMismatch(new BalanceMismatchDTO("LEDGER", account.getId(), account.getBalance(), Money.toBigDecimal(expected)));
+                if (repair) {
+                    account.setBalance(Money.toBigDecimal(expected));
+                    report.setRepaired(report.getRepaired() + 1);
+                }
+            }
+        }
+        report.setChecked(report.getChecked() + accounts.size());
+        return ledgerSums;
+    }
+}
@@ -0,0 +1,155 @@
+package com.mahsa.account_service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.mahsa.account_service.controller.AccountController;
+import com.mahsa.account_service.dto.AccountResponseDTO;
+import com.mahsa.account_service.dto.BalanceDeltaDTO;
+import com.mahsa.account_service.dto.CreateAccountRequestDTO;
+import com.mahsa.account_service.entity.Account;
+import com.mahsa.account_service.enums.AccountType;
+import com.mahsa.account_service.service.BalanceService;
+
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Compares /validate served from the second-level cache against the same lookup sent to the database, and
+ * checks that account writes show up through the caches (PostgreSQL required; uses the configured schema):
+ *
+ *   mvn test -Dtest=AccountCacheBenchmark -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=... [-Dbenchmark.calls=100000]
+ *
+ * Prints calls per second of both paths and the SQL statements sent during the cached run (expected: none).
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class AccountCacheBenchmark {
+
+	private static final long USER_ID = 987654321L;
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> System.getProperty("benchmark.jdbc.url"));
+		registry.add("spring.datasource.username", () -> System.getProperty("benchmark.jdbc.user", "postgres"));
+		registry.add("spring.datasource.password", () -> System.getProperty("benchmark.jdbc.password", ""));
+		registry.add("spring.jpa.show-sql", () -> "false");
+	}
+
+	// addAccount asks user-service whether the user exists
+	@MockitoBean
+	private RestTemplate restTemplate;
+
+	@Autowired
+	private AccountController accountController;
+
+	@Autowired
+	private BalanceService balanceService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	void validateIsServedFromCache() {
+		when(restTemplate.getForEntity(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(ResponseEntity.ok(true));
+		Long accountId = addAccount("Checking");
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		int calls = Integer.getInteger("benchmark.calls", 100_000);
+
+		for (int i = 0; i < 1000; i++) { // warm up both paths
+			accountController.validateAccountExistsAndBelongsToUser(accountId, USER_ID);
+			findBypassingCache(accountId);
+		}
+
+		long statements = statistics.getPrepareStatementCount();
+		long hits = statistics.getSecondLevelCacheHitCount();
+		long start = System.nanoTime();
+		for (int i = 0; i < calls; i++) {
+			assertTrue(accountController.validateAccountExistsAndBelongsToUser(accountId, USER_ID).getBody());
+		}
+		double cachedSeconds = (System.nanoTime() - start) / 1e9;
+		long cachedStatements = statistics.getPrepareStatementCount() - statements;
+		long cachedHits = statistics.getSecondLevelCacheHitCount() - hits;
+
+		start = System.nanoTime();
+		for (int i = 0; i < calls; i++) {
+			findBypassingCache(accountId);
+		}
+		double databaseSeconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("validate from cache:    %,.0f calls/s (%d SQL statements, %d cache hits)%n",
+			calls / cachedSeconds, cachedStatements, cachedHits);
+		System.out.printf("validate from database: %,.0f calls/s%n", calls / databaseSeconds);
+		assertEquals(0, cachedStatements);
+		assertEquals(calls, cachedHits);
+	}
+
+	@Test
+	void writesAreVisibleThroughTheCaches() {
+		when(restTemplate.getForEntity(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(ResponseEntity.ok(true));
+		Long first = addAccount("First");
+		List<Long> before = accountIds(); // now cached, with the first account's balance
+		assertTrue(before.contains(first));
+
+		balanceService.applyDeltas(List.of(new BalanceDeltaDTO(System.nanoTime(), first, new BigDecimal("12.50"))));
+		AccountResponseDTO updated = listAccounts().stream().filter(account -> account.getId().equals(first)).findFirst().orElseThrow();
+		assertEquals(0, new BigDecimal("112.50").compareTo(updated.getBalance()));
+
+		Long second = addAccount("Second");
+		assertTrue(accountIds().contains(second));
+	}
+
+	private Long addAccount(String name) {
+		CreateAccountRequestDTO request = new CreateAccountRequestDTO(name, AccountType.CHECKING, new BigDecimal("100.00"));
+		Object body = accountController.addAccount(USER_ID, request).getBody();
+		return ((AccountResponseDTO) body).getId();
+	}
+
+	private List<AccountResponseDTO> listAccounts() {
+		return accountController.listAccountsForUser(USER_ID).getBody();
+	}
+
+	private List<Long> accountIds() {
+		return listAccounts().stream().map(AccountResponseDTO::getId).toList();
+	}
+
+	// The same read-only transaction and lookup as findById, but skipping the second-level cache.
+	private Account findBypassingCache(Long accountId) {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		return readOnly.execute(status -> entityManager.find(Account.class, accountId,
+			Map.of("jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS)));
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.mahsa.account_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.mahsa.common.security.ServiceTokens;
+
+class ServiceTokenFilterTest {
+
+	private static final String SECRET = "ThisIsTheServiceToServiceSecretItMustDifferFromJwtSecretAndBeLongerThan32Chars";
+	private static final String USER_SECRET = "ThisIsASecretKeyItShouldBeLongerThan32CharsAndMoreComplexThanThis";
+
+	private final ServiceTokenFilter filter = new ServiceTokenFilter(
+		new ServiceTokens(SECRET, "account_service", Duration.ofMinutes(1)));
+	// What transaction-service's outbox relay sends
+	private final ServiceTokens transactionService = new ServiceTokens(SECRET, "transaction_service", Duration.ofMinutes(1));
+
+	private MockFilterChain chain;
+
+	private MockHttpServletResponse post(String uri, String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+		if (token != null) {
+			request.addHeader(ServiceTokens.HEADER, token);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		chain = new MockFilterChain();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	@Test
+	void validTokenReachesTheServiceEndpoints() throws Exception {
+		for (String path : ServiceTokenFilter.SERVICE_PATHS) {
+			assertEquals(200, post(path, transactionService.issue("account_service")).getStatus(), path);
+			assertNotNull(chain.getRequest(), path);
+		}
+	}
+
+	@Test
+	void rejectsMissingForeignExpiredAndMisaddressedTokens() throws Exception {
+		String[] tokens = {
+			null,
+			"not-a-jwt",
+			// A user JWT is signed with jwt.secret, not the service secret
+			new ServiceTokens(USER_SECRET, "user-service", Duration.ofMinutes(1)).issue("account_service"),
+			new ServiceTokens(SECRET, "transaction_service", Duration.ofSeconds(-1)).issue("account_service"),
+			transactionService.issue("transaction_service"),
+		};
+		for (String path : ServiceTokenFilter.SERVICE_PATHS) {
+			for (String token : tokens) {
+				assertEquals(401, post(path, token).getStatus(), path + " " + token);
+				assertNull(chain.getRequest(), "balance deltas and reconciliation are not reached");
+			}
+		}
+	}
+
+	@Test
+	void userEndpointsDoNotNeedIt() throws Exception {
+		assertEquals(200, post("/api/accounts", null).getStatus());
+		assertNotNull(chain.getRequest());
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.mahsa.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.AnalyticsPeriod;
+import com.mahsa.transaction_service.enums.TransactionType;
+import com.mahsa.transaction_service.service.AnalyticsService;
+import com.mahsa.transaction_service.service.ColumnarTransactions;
+
+/**
+ * The analytics queries of transaction_service on ColumnarTransactions against the same report computed from the
+ * entity list a JPA query returns (List<Transaction>, BigDecimal sums), over ten years of one account.
+ * The database round trip of the JPA path is not included; both sides start from rows already in memory.
+ * gc.alloc.rate.norm is the number of bytes allocated per report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int rows;
+
+	private List<Transaction> entities;
+	private List<ColumnarTransactions> columns;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		LocalDate start = LocalDate.of(2015, 1, 1);
+		int days = 3652;
+		entities = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			boolean income = random.nextInt(10) == 0;
+			Transaction transaction = new Transaction("t",
+				BigDecimal.valueOf(1 + random.nextInt(income ? 500000 : 20000), 2),
+				income ? TransactionType.INCOME : TransactionType.EXPENSE,
+				start.plusDays((long) i * days / rows), 1L);
+			transaction.setId((long) i);
+			entities.add(transaction);
+		}
+		ColumnarTransactions.Builder builder = new ColumnarTransactions.Builder();
+		entities.forEach(builder::add);
+		columns = List.of(builder.build());
+	}
+
+	@Benchmark
+	public Map<YearMonth, BigDecimal[]> entityMonthlyTotals() {
+		Map<YearMonth, BigDecimal[]> months = new TreeMap<>();
+		for (Transaction transaction : entities) {
+			BigDecimal[] totals = months.computeIfAbsent(YearMonth.from(transaction.getDate()),
+				month -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+			int index = transaction.getType() == TransactionType.INCOME ? 0 : 1;
+			totals[index] = totals[index].add(transaction.getAmount());
+		}
+		return months;
+	}
+
+	@Benchmark
+	public AnalyticsService.PeriodTotals columnarMonthlyTotals() {
+		return AnalyticsService.totals(columns, AnalyticsPeriod.MONTH, ColumnarTransactions.UNDATED + 1, Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public BigDecimal entityExpenseP90() {
+		List<BigDecimal> amounts = entities.stream()
+			.filter(transaction -> transaction.getType() == TransactionType.EXPENSE)
+			.map(Transaction::getAmount)
+			.sorted(Comparator.naturalOrder())
+			.toList();
+		return amounts.get(nearestRank(90, amounts.size()));
+	}
+
+	@Benchmark
+	public long columnarExpenseP90() {
+		long[] amounts = AnalyticsService.amounts(columns, ColumnarTransactions.EXPENSE, ColumnarTransactions.UNDATED, Integer.MAX_VALUE);
+		Arrays.sort(amounts);
+		return amounts[nearestRank(90, amounts.length)];
+	}
+
+	// As AnalyticsService.nearestRank: index of the nearest-rank percentile in a sorted list
+	private static int nearestRank(double percentile, int count) {
+		int rank = (int) Math.ceil(percentile / 100 * count);
+		return Math.min(Math.max(rank, 1), count) - 1;
+	}
+
+}
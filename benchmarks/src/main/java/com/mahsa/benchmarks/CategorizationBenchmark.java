@@ -0,0 +1,109 @@
+package com.mahsa.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mahsa.transaction_service.entity.CategoryRule;
+import com.mahsa.transaction_service.service.CategorizationEngine;
+
+/**
+ * CategorizationEngine (transaction_service) with up to 10,000 rules (5% of them regex rules), against checking
+ * the rules one by one as a baseline, and compiling the rules.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CategorizationBenchmark {
+
+	private static final int DESCRIPTIONS = 1024;
+
+	@Param({"100", "10000"})
+	public int rules;
+
+	private List<CategoryRule> ruleSet;
+	private CategorizationEngine engine;
+	private Pattern[] naivePatterns;
+	private String[] naiveCategories;
+	private String[] descriptions;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		ruleSet = new ArrayList<>(rules);
+		for (int i = 0; i < rules; i++) {
+			String merchant = word(random) + " " + word(random);
+			boolean regex = i % 20 == 0;
+			ruleSet.add(new CategoryRule(1L, "category" + (i % 50), regex ? merchant + " #?\\d+" : merchant, regex, i));
+		}
+		engine = CategorizationEngine.compile(ruleSet);
+		naivePatterns = new Pattern[rules];
+		naiveCategories = new String[rules];
+		for (int i = 0; i < rules; i++) {
+			CategoryRule rule = ruleSet.get(i);
+			naivePatterns[i] = rule.isRegex() ? CategorizationEngine.compileRegex(rule.getPattern()) : null;
+			naiveCategories[i] = rule.getCategory();
+		}
+		// Half of the descriptions mention a merchant that has a rule, the rest match nothing.
+		descriptions = new String[DESCRIPTIONS];
+		for (int i = 0; i < DESCRIPTIONS; i++) {
+			String merchant = i % 2 == 0
+				? ruleSet.get(random.nextInt(rules)).getPattern().replace(" #?\\d+", " 1234")
+				: word(random) + " " + word(random);
+			descriptions[i] = "CARD PAYMENT " + merchant.toUpperCase(Locale.ROOT) + " AMSTERDAM NL " + random.nextInt(100000);
+		}
+	}
+
+	@Benchmark
+	public String ahoCorasick() {
+		return engine.categorize(descriptions[next++ & (DESCRIPTIONS - 1)]);
+	}
+
+	@Benchmark
+	public String ruleByRule() {
+		String description = descriptions[next++ & (DESCRIPTIONS - 1)];
+		String lower = description.toLowerCase(Locale.ROOT);
+		for (int i = 0; i < naiveCategories.length; i++) {
+			boolean matches = naivePatterns[i] != null
+				? naivePatterns[i].matcher(description).find()
+				: lower.contains(ruleSet.get(i).getPattern());
+			if (matches) {
+				return naiveCategories[i];
+			}
+		}
+		return null;
+	}
+
+	@Benchmark
+	public CategorizationEngine compile() {
+		return CategorizationEngine.compile(ruleSet);
+	}
+
+	private static String word(Random random) {
+		char[] letters = new char[4 + random.nextInt(6)];
+		for (int i = 0; i < letters.length; i++) {
+			letters[i] = (char) ('a' + random.nextInt(26));
+		}
+		return new String(letters);
+	}
+
+}
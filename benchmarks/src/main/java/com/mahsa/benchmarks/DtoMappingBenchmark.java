@@ -0,0 +1,114 @@
+package com.mahsa.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mahsa.account_service.dto.AccountResponseDTO;
+import com.mahsa.account_service.entity.Account;
+import com.mahsa.account_service.enums.AccountType;
+import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+/**
+ * Entity to DTO mapping of the listing endpoints, on its own and followed by the JSON serialization of the list:
+ * Transaction to ListedTransactionDTO (as TransactionController.toListedTransactionDTO) and Account to
+ * AccountResponseDTO (as AccountController.listAccountsForUser). The ObjectMapper is configured like
+ * Spring Boot's (ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+	private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+
+	// A page of the transaction listing, and a large export-sized list
+	@Param({"100", "10000"})
+	private int size;
+
+	private List<Transaction> transactions;
+	private List<Account> accounts;
+	private ObjectMapper objectMapper;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		transactions = new ArrayList<>(size);
+		accounts = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Transaction transaction = new Transaction("Card payment " + i, BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2),
+				random.nextInt(10) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+				LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)), (long) random.nextInt(10));
+			transaction.setId((long) i);
+			transaction.setCategory(random.nextBoolean() ? "Groceries" : null);
+			transactions.add(transaction);
+			accounts.add(new Account((long) i, "Account " + i, ACCOUNT_TYPES[i % ACCOUNT_TYPES.length],
+				BigDecimal.valueOf(random.nextInt(10_000_000), 2), 42L));
+		}
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.build();
+	}
+
+	@Benchmark
+	public List<ListedTransactionDTO> listedTransactionDTOs() {
+		return transactions.stream().map(DtoMappingBenchmark::toListedTransactionDTO).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public byte[] listedTransactionJson() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(listedTransactionDTOs());
+	}
+
+	@Benchmark
+	public List<AccountResponseDTO> accountResponseDTOs() {
+		return accounts.stream().map(account -> new AccountResponseDTO(
+			account.getId(),
+			account.getName(),
+			account.getType(),
+			account.getBalance(),
+			account.getUserId())).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public byte[] accountResponseJson() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(accountResponseDTOs());
+	}
+
+	private static ListedTransactionDTO toListedTransactionDTO(Transaction transaction) {
+		return new ListedTransactionDTO(
+			transaction.getId(),
+			transaction.getDescription(),
+			transaction.getAmount(),
+			transaction.getType(),
+			transaction.getDate(),
+			transaction.getAccountId(),
+			transaction.getCategory());
+	}
+
+}
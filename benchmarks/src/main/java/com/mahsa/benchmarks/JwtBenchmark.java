@@ -0,0 +1,96 @@
+package com.mahsa.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import com.mahsa.transaction_service.security.VerifiedToken;
+import com.mahsa.user_service.entity.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Issuing a token at login (user-service JwtUtil.generateToken) and checking it on every request
+ * (transaction_service JwtUtil): validateToken and extractUserId each verify the signature, verifyToken is the
+ * cached check the JWT filter uses, here always a hit.
+ * Both JwtUtils are created by Spring, with the secret and settings of application.properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+	private static final String SECRET = "ThisIsASecretKeyItShouldBeLongerThan32CharsAndMoreComplexThanThis";
+
+	private AnnotationConfigApplicationContext context;
+	private com.mahsa.user_service.security.JwtUtil issuer;
+	private com.mahsa.transaction_service.security.JwtUtil verifier;
+	private User user;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+			"jwt.secret", SECRET,
+			"jwt.expiration.ms", "3600000",
+			"jwt.cache.max-size", "10000")));
+		context.registerBean(SimpleMeterRegistry.class);
+		context.registerBean(ObservationRegistry.class, ObservationRegistry::create);
+		context.registerBean("issuer", com.mahsa.user_service.security.JwtUtil.class);
+		context.registerBean("verifier", com.mahsa.transaction_service.security.JwtUtil.class);
+		context.refresh();
+		issuer = context.getBean(com.mahsa.user_service.security.JwtUtil.class);
+		verifier = context.getBean(com.mahsa.transaction_service.security.JwtUtil.class);
+
+		user = new User("benchmark.user", "{bcrypt}unused");
+		user.setId(42L);
+		token = issuer.generateToken(user);
+		if (!verifier.validateToken(token) || !Long.valueOf(42L).equals(verifier.extractUserId(token))) {
+			throw new IllegalStateException("transaction_service does not accept tokens of user-service");
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return issuer.generateToken(user);
+	}
+
+	@Benchmark
+	public Boolean validateToken() {
+		return verifier.validateToken(token);
+	}
+
+	@Benchmark
+	public Long extractUserId() {
+		return verifier.extractUserId(token);
+	}
+
+	@Benchmark
+	public VerifiedToken verifyTokenCached() {
+		return verifier.verifyToken(token);
+	}
+
+}
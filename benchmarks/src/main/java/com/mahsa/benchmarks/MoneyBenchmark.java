@@ -0,0 +1,72 @@
+package com.mahsa.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mahsa.common.Money;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+/**
+ * The signed sum per account in transaction_service (what /balance-sums, the archive index and the monthly summary
+ * upserts compute) over 1M loaded transactions: BigDecimal sums against Money sums in minor units.
+ * gc.alloc.rate.norm is the number of bytes allocated per pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+	private List<Transaction> transactions;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		transactions = new ArrayList<>();
+		for (int i = 0; i < 1_000_000; i++) {
+			transactions.add(new Transaction("t", BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2),
+				random.nextInt(10) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+				LocalDate.of(2024, 1, 1), (long) random.nextInt(1000)));
+		}
+	}
+
+	@Benchmark
+	public Map<Long, BigDecimal> bigDecimalSums() {
+		Map<Long, BigDecimal> sums = new HashMap<>();
+		for (Transaction transaction : transactions) {
+			sums.merge(transaction.getAccountId(), transaction.getType().signed(transaction.getAmount()), BigDecimal::add);
+		}
+		return sums;
+	}
+
+	@Benchmark
+	public Map<Long, long[]> moneySums() {
+		Map<Long, long[]> sums = new HashMap<>();
+		for (Transaction transaction : transactions) {
+			long[] sum = sums.computeIfAbsent(transaction.getAccountId(), k -> new long[1]);
+			sum[0] = Money.add(sum[0], transaction.getType().signed(Money.of(transaction.getAmount())));
+		}
+		return sums;
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.mahsa.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money: an amount is a long of minor units (cents), so sums in the aggregation paths are plain
+ * long additions instead of a new BigDecimal per step. All arithmetic throws ArithmeticException on overflow
+ * (about ±92 quadrillion), it never wraps. Convert with of/toBigDecimal where amounts enter or leave a
+ * service (entities, JDBC results, DTOs).
+ */
+public final class Money {
+
+    // Decimal places of the balance and amount columns (numeric(38,2)).
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @return The amount in minor units, rounded half away from zero to SCALE decimals, which is what a
+     *         numeric(38,2) column stores for it.
+     * @throws ArithmeticException If it does not fit in a long.
+     */
+    public static long of(BigDecimal amount) {
+        int scale = amount.scale();
+        // Fast path without allocating: for at most SCALE decimals and |amount| < 10^13, doubleValue() is
+        // within half an ulp and amount * 100 stays below 2^50, so the error is far below 0.5 and rounding to
+        // the nearest long gives the exact minor units. The amounts the services handle almost always qualify.
+        if (scale >= 0 && scale <= SCALE && amount.precision() - scale <= 13) {
+            return Math.round(amount.doubleValue() * 100);
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).scaleByPowerOfTen(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long negate(long a) {
+        return Math.negateExact(a);
+    }
+}
@@ -0,0 +1,92 @@
+package com.mahsa.common.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Extra tags on the HTTP timers Spring Boot records (histograms enabled in application.properties):
+ * http.server.requests gets handler (e.g. TransactionController.addTransaction), and http.client.requests, the
+ * RestTemplate calls, gets target.service: the name under http.client.targets whose base URL the call starts with
+ * (e.g. http.client.targets.user-service=${user.service.url}), or other. Both keep their default tags, including
+ * outcome (SUCCESS, CLIENT_ERROR, SERVER_ERROR, UNKNOWN for calls that got no response).
+ * The dataSource bean is wrapped in a TracedDataSource, for JDBC spans in recorded traces.
+ */
+@Configuration
+public class ObservationConfig {
+
+    @Bean
+    public ServerRequestObservationConvention handlerServerRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                String name = handler instanceof HandlerMethod method
+                    ? method.getBeanType().getSimpleName() + "." + method.getMethod().getName()
+                    : "none";
+                return super.getLowCardinalityKeyValues(context).and("handler", name);
+            }
+        };
+    }
+
+    @Bean
+    public ClientRequestObservationConvention targetServiceClientRequestObservationConvention(Environment environment) {
+        // base URL -> service name
+        Map<String, String> targets = new HashMap<>();
+        Binder.get(environment).bind("http.client.targets", Bindable.mapOf(String.class, String.class))
+            .orElse(Map.of())
+            .forEach((service, baseUrl) -> targets.put(baseUrl, service));
+        return new DefaultClientRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+                String uri = context.getUriTemplate() != null ? context.getUriTemplate()
+                    : context.getCarrier() != null ? context.getCarrier().getURI().toString() : "";
+                String target = targets.entrySet().stream()
+                    .filter(baseUrl -> uri.startsWith(baseUrl.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse("other");
+                return super.getLowCardinalityKeyValues(context).and("target.service", target);
+            }
+        };
+    }
+
+    // JDBC spans in recorded traces, see TracedDataSource. primaryDataSource, when it is a separate bean, sits inside
+    // dataSource and is not wrapped again.
+    @Bean
+    public static BeanPostProcessor tracedDataSourcePostProcessor(ObjectProvider<ObservationRegistry> observationRegistry,
+        ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new TracedDataSource(dataSource, beanName,
+                    observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                    tracer.getIfAvailable(() -> Tracer.NOOP));
+            }
+        };
+    }
+}
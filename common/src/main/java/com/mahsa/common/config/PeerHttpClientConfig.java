@@ -0,0 +1,97 @@
+package com.mahsa.common.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * The request factory behind the RestTemplate a service calls the other services with (http.client.*): a pooled
+ * Apache HttpClient, or with http.client.http2 the JDK HttpClient over HTTP/2. Only services that set
+ * http.client.max-total get it.
+ */
+@Configuration
+@ConditionalOnProperty("http.client.max-total")
+public class PeerHttpClientConfig {
+
+    @Value("${http.client.max-total}")
+    private int maxTotal;
+
+    @Value("${http.client.max-per-route}")
+    private int maxPerRoute;
+
+    @Value("${http.client.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${http.client.read-timeout}")
+    private Duration readTimeout;
+
+    @Value("${http.client.connection-request-timeout}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${http.client.keep-alive}")
+    private Duration keepAlive;
+
+    @Value("${http.client.http2}")
+    private boolean http2;
+
+    @Bean
+    public ClientHttpRequestFactory peerServicesRequestFactory(MeterRegistry meterRegistry) {
+        return http2 ? http2RequestFactory() : pooledRequestFactory(meterRegistry);
+    }
+
+    // Apache HttpClient with a shared connection pool: connections to the peer services are kept alive and reused
+    // instead of opening a new socket per call. The pool is published as the httpcomponents.httpclient.pool.* metrics
+    // (leased / available / pending connections, per-route and total limits).
+    private ClientHttpRequestFactory pooledRequestFactory(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxTotal)
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .build())
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "peer-services").bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout)) // wait for a free pooled connection
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build())
+            .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(keepAlive))
+            .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    // JDK HttpClient negotiating HTTP/2 (h2c upgrade or ALPN), which multiplexes calls over a single connection per peer.
+    private ClientHttpRequestFactory http2RequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+}
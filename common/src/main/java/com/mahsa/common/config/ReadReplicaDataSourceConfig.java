@@ -0,0 +1,85 @@
+package com.mahsa.common.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sends read-only transactions (@Transactional(readOnly = true), and Spring Data's inherited finders such as
+ * findById) to the read replicas in datasource.replicas.urls, and everything else to spring.datasource.url.
+ * The connection is only taken on the first statement (LazyConnectionDataSourceProxy), once the transaction
+ * manager has marked it read-only, which is what selects the replica side. Statements outside a transaction
+ * always use the primary. With no replica URLs the primary pool is used directly.
+ * Replica pools copy the settings of the primary pool (spring.datasource.hikari.*).
+ */
+@Configuration
+public class ReadReplicaDataSourceConfig {
+
+    // JDBC URLs of read replicas of the primary database, comma-separated
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replicas.username}")
+    private String replicaUsername;
+
+    @Value("${datasource.replicas.password}")
+    private String replicaPassword;
+
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadYourWrites readYourWrites,
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        List<String> urls = replicaUrls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        if (urls.isEmpty()) {
+            return primaryDataSource;
+        }
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url);
+            config.setUsername(replicaUsername);
+            config.setPassword(replicaPassword);
+            config.setInitializationFailTimeout(-1); // start even while a replica is down
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null && config.getMetricsTrackerFactory() == null && config.getMetricRegistry() == null) {
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            }
+            replicas.add(new HikariDataSource(config));
+        }
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites));
+        return dataSource;
+    }
+
+    // The primary pool is a bean and is closed by Spring; the replica pools are not.
+    @PreDestroy
+    public void closeReplicas() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mahsa.common.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when reads must go to the primary instead of a replica (see ReplicaRoutingDataSource):
+ * while the current thread is inside onPrimary (ReadYourWritesFilter uses it for write requests, and for the
+ * requests of a user who wrote within datasource.replicas.sticky-window), so a user sees their own writes even
+ * when the replicas lag behind. The window is per instance; a zero window turns the stickiness off.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final ThreadLocal<Boolean> primaryRequired = ThreadLocal.withInitial(() -> false);
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>(); // key -> System.nanoTime() of the write
+    private final long windowNanos;
+
+    public ReadYourWrites(@Value("${datasource.replicas.sticky-window}") Duration stickyWindow) {
+        this.windowNanos = stickyWindow.toNanos();
+    }
+
+    public boolean isPrimaryRequired() {
+        return primaryRequired.get();
+    }
+
+    /**
+     * Runs the reads with every connection taken from the primary, including in read-only transactions.
+     */
+    public <T> T onPrimary(Supplier<T> reads) {
+        boolean previous = setPrimaryRequired(true);
+        try {
+            return reads.get();
+        } finally {
+            setPrimaryRequired(previous);
+        }
+    }
+
+    /**
+     * For callers that cannot pass a Supplier; restore the returned value in a finally block.
+     *
+     * @return The previous value.
+     */
+    public boolean setPrimaryRequired(boolean required) {
+        boolean previous = primaryRequired.get();
+        primaryRequired.set(required);
+        return previous;
+    }
+
+    // Remembers that the user (or token) identified by key has just written.
+    public void recordWrite(String key) {
+        if (windowNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWrite.put(key, now);
+        if (lastWrite.size() > SWEEP_THRESHOLD) {
+            lastWrite.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    public boolean wroteRecently(String key) {
+        Long writtenAt = lastWrite.get(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt < windowNanos) {
+            return true;
+        }
+        lastWrite.remove(key, writtenAt);
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.mahsa.common.config;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Keeps replica reads to GET-like requests of users who have not written recently: write requests read from
+ * the primary (they often read what they are about to change), and so do the reads of a user within
+ * datasource.replicas.sticky-window after one of their writes. The user is the X-User-ID header, else the
+ * userId request parameter (the /validate calls), else the bearer token.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String key = userKey(request);
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        boolean previous = readYourWrites.setPrimaryRequired(
+            write || (key != null && readYourWrites.wroteRecently(key)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.setPrimaryRequired(previous);
+            if (write && key != null) {
+                readYourWrites.recordWrite(key);
+            }
+        }
+    }
+
+    private static String userKey(HttpServletRequest request) {
+        String userId = request.getHeader("X-User-ID");
+        if (userId == null) {
+            userId = request.getParameter("userId");
+        }
+        if (userId != null && !userId.isBlank()) {
+            return "user:" + userId.trim();
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        // Only a hash of the token is kept; a collision just sends some reads to the primary.
+        return authorization == null ? null : "token:" + authorization.hashCode();
+    }
+}
@@ -0,0 +1,55 @@
+package com.mahsa.common.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import net.ttddyy.observation.tracing.JdbcObservationDocumentation;
+
+/**
+ * Gives JDBC spans to recorded traces. A thread whose current span is sampled gets its connection through
+ * datasource-micrometer's proxy, which observes the connection (jdbc.connection, for as long as it is held) and each
+ * statement on it (jdbc.query, with the SQL but not its parameters). Every other thread gets the connection straight
+ * from the target. The proxy costs tens of microseconds per connection, and most requests are not recorded.
+ * The jdbc.* timers therefore only cover recorded traces; hibernate.* and spring.data.repository.invocations cover all.
+ */
+public class TracedDataSource extends DelegatingDataSource {
+
+    private final DataSource observedDataSource;
+    private final Tracer tracer;
+
+    public TracedDataSource(DataSource targetDataSource, String name, ObservationRegistry observationRegistry, Tracer tracer) {
+        super(targetDataSource);
+        DataSourceObservationListener listener = new DataSourceObservationListener(observationRegistry);
+        listener.setSupportedTypes(Set.of(JdbcObservationDocumentation.CONNECTION, JdbcObservationDocumentation.QUERY));
+        this.observedDataSource = ProxyDataSourceBuilder.create(name, targetDataSource)
+            .listener(listener)
+            .methodListener(listener)
+            .build();
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return isRecorded() ? observedDataSource.getConnection() : super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return isRecorded() ? observedDataSource.getConnection(username, password) : super.getConnection(username, password);
+    }
+
+    private boolean isRecorded() {
+        Span span = tracer.currentSpan();
+        return span != null && Boolean.TRUE.equals(span.context().sampled());
+    }
+}
@@ -0,0 +1,79 @@
+package com.mahsa.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * The short-lived tokens the services send each other on their service-to-service endpoints, in the X-Service-Token
+ * header: HS256 JWTs signed with service.auth.secret, issued by the calling service (sub) to the called one (aud),
+ * both named by spring.application.name, and valid for service.auth.token-ttl. User JWTs are signed with jwt.secret
+ * and never pass as service tokens.
+ */
+@Component
+@ConditionalOnProperty("service.auth.secret")
+public class ServiceTokens {
+
+    public static final String HEADER = "X-Service-Token";
+
+    private final SecretKey key;
+    private final String serviceName;
+    private final Duration ttl;
+    private final JwtParser parser;
+
+    public ServiceTokens(@Value("${service.auth.secret}") String secret,
+                         @Value("${spring.application.name}") String serviceName,
+                         @Value("${service.auth.token-ttl}") Duration ttl) {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.serviceName = serviceName;
+        this.ttl = ttl;
+        this.parser = Jwts.parser().verifyWith(key).requireAudience(serviceName).build();
+    }
+
+    /**
+     * @param audience spring.application.name of the service the token is sent to.
+     */
+    public String issue(String audience) {
+        Date now = new Date();
+        return Jwts.builder()
+            .subject(serviceName)
+            .audience().add(audience).and()
+            .issuedAt(now)
+            .expiration(new Date(now.getTime() + ttl.toMillis()))
+            .signWith(key)
+            .compact();
+    }
+
+    /**
+     * Checks a token sent to this service.
+     *
+     * @return The name of the calling service.
+     * @throws JwtException If the token is malformed, not signed with service.auth.secret, expired, without an
+     *                      expiry, or addressed to another service.
+     */
+    public String verify(String token) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (IllegalArgumentException e) {
+            throw new JwtException(e.getMessage(), e);
+        }
+        // Without an expiry a leaked token would work forever.
+        if (claims.getExpiration() == null) {
+            throw new JwtException("service token has no expiry");
+        }
+        return claims.getSubject();
+    }
+}
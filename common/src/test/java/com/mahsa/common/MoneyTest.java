@@ -0,0 +1,69 @@
+package com.mahsa.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+	@Test
+	void roundsLikeANumericColumn() {
+		assertEquals(1235, Money.of(new BigDecimal("12.345")));
+		assertEquals(-1235, Money.of(new BigDecimal("-12.345")));
+		assertEquals(1234, Money.of(new BigDecimal("12.3449")));
+		assertEquals(1200, Money.of(new BigDecimal("12")));
+		assertEquals(1200, Money.of(new BigDecimal("1.2E+1")));
+		assertEquals(0, Money.of(new BigDecimal("-0.004")));
+	}
+
+	@Test
+	void fastPathIsExactAtItsBounds() {
+		for (String amount : new String[] {"9999999999999.99", "-9999999999999.99", "9999999999999.9", "9999999999999",
+				"10000000000000.00", "0.01", "-0.01", "0", "4503599627370.49", "1234567890123.45"}) {
+			BigDecimal value = new BigDecimal(amount);
+			assertEquals(value.scaleByPowerOfTen(2).longValueExact(), Money.of(value), amount);
+		}
+		Random random = new Random(3);
+		for (int i = 0; i < 1_000_000; i++) {
+			long minorUnits = random.nextLong() % 1_000_000_000_000_000L;
+			assertEquals(minorUnits, Money.of(BigDecimal.valueOf(minorUnits, 2)));
+		}
+	}
+
+	@Test
+	void convertsBackWithTwoDecimals() {
+		assertEquals(new BigDecimal("12.30"), Money.toBigDecimal(1230));
+		assertEquals(new BigDecimal("-0.05"), Money.toBigDecimal(-5));
+	}
+
+	@Test
+	void sumsExactlyLikeBigDecimal() {
+		Random random = new Random(7);
+		BigDecimal expected = BigDecimal.ZERO.setScale(2);
+		long sum = 0;
+		for (int i = 0; i < 100_000; i++) {
+			// Signed deltas with up to four decimals, so half of them need rounding on the way in.
+			BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 10_000_000_000L, random.nextInt(5));
+			BigDecimal rounded = amount.setScale(2, RoundingMode.HALF_UP);
+			assertEquals(rounded, Money.toBigDecimal(Money.of(amount)));
+			expected = expected.add(rounded);
+			sum = Money.add(sum, Money.of(amount));
+		}
+		assertEquals(expected, Money.toBigDecimal(sum));
+	}
+
+	@Test
+	void throwsInsteadOfOverflowing() {
+		assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+		assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+		assertThrows(ArithmeticException.class, () -> Money.negate(Long.MIN_VALUE));
+		assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("92233720368547758.08")));
+		assertEquals(Long.MAX_VALUE, Money.of(new BigDecimal("92233720368547758.07")));
+	}
+
+}
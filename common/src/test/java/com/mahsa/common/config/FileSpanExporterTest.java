@@ -0,0 +1,61 @@
+package com.mahsa.common.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+class FileSpanExporterTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void appendsOneJsonLinePerSpan(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("traces/spans.ndjson");
+		try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+				.setResource(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), "transaction_service")))
+				.addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(objectMapper, file)))
+				.build()) {
+			Tracer tracer = tracerProvider.get("test");
+			Span request = tracer.spanBuilder("http post /api/transactions").setSpanKind(SpanKind.SERVER).startSpan();
+			tracer.spanBuilder("jwt.verification")
+				.setParent(Context.current().with(request))
+				.setAttribute("result", "valid")
+				.startSpan()
+				.end();
+			request.end();
+		}
+
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(2, lines.size());
+		JsonNode child = objectMapper.readTree(lines.get(0));
+		JsonNode parent = objectMapper.readTree(lines.get(1));
+		assertEquals("jwt.verification", child.get("name").asText());
+		assertEquals("valid", child.get("attributes").get("result").asText());
+		assertEquals(parent.get("traceId").asText(), child.get("traceId").asText());
+		assertEquals(parent.get("spanId").asText(), child.get("parentSpanId").asText());
+		assertTrue(parent.get("parentSpanId").isNull());
+		assertEquals("SERVER", parent.get("kind").asText());
+		assertEquals("transaction_service", parent.get("service").asText());
+		assertTrue(parent.get("durationMicros").asLong() >= 0);
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.mahsa.common.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+class ObservationConfigTest {
+
+	private static String targetService(ClientRequestObservationConvention convention, String uriTemplate, String uri) {
+		ClientRequestObservationContext context = new ClientRequestObservationContext(
+			new MockClientHttpRequest(HttpMethod.GET, URI.create(uri)));
+		context.setUriTemplate(uriTemplate);
+		return convention.getLowCardinalityKeyValues(context).stream()
+			.filter(keyValue -> keyValue.getKey().equals("target.service"))
+			.findFirst().orElseThrow().getValue();
+	}
+
+	@Test
+	void tagsCallsWithTheNameOfTheTargetService() {
+		MockEnvironment environment = new MockEnvironment()
+			.withProperty("http.client.targets.user-service", "http://10.0.0.1:8080/api/users")
+			.withProperty("http.client.targets.account-service", "http://10.0.0.2:8082/api/accounts");
+		ClientRequestObservationConvention convention =
+			new ObservationConfig().targetServiceClientRequestObservationConvention(environment);
+
+		assertEquals("user-service", targetService(convention,
+			"http://10.0.0.1:8080/api/users/validate/{userId}", "http://10.0.0.1:8080/api/users/validate/7"));
+		assertEquals("account-service", targetService(convention,
+			null, "http://10.0.0.2:8082/api/accounts/balance-deltas"));
+		assertEquals("other", targetService(convention, null, "http://example.com/"));
+	}
+
+	@Test
+	void everyCallIsOtherWithoutTargets() {
+		ClientRequestObservationConvention convention =
+			new ObservationConfig().targetServiceClientRequestObservationConvention(new MockEnvironment());
+		assertEquals("other", targetService(convention, null, "http://10.0.0.1:8080/api/users"));
+	}
+
+}
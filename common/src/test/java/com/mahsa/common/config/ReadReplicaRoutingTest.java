@@ -0,0 +1,151 @@
+package com.mahsa.common.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+class ReadReplicaRoutingTest {
+
+	private final List<String> used = new ArrayList<>();
+
+	@Test
+	void readOnlyTransactionsUseTheReplicasInTurn() throws SQLException {
+		Routing routing = new Routing(stub("primary"), List.of(stub("replica-1"), stub("replica-2")), Duration.ofSeconds(5));
+		for (int i = 0; i < 3; i++) {
+			routing.readOnly.executeWithoutResult(status -> routing.jdbcTemplate.execute("SELECT 1"));
+		}
+		assertEquals(List.of("replica-1", "replica-2", "replica-1"), used);
+	}
+
+	@Test
+	void writesAndStatementsOutsideTransactionsUsePrimary() throws SQLException {
+		Routing routing = new Routing(stub("primary"), List.of(stub("replica-1")), Duration.ofSeconds(5));
+		routing.readWrite.executeWithoutResult(status -> routing.jdbcTemplate.execute("SELECT 1"));
+		routing.jdbcTemplate.execute("SELECT 1");
+		assertEquals(List.of("primary", "primary"), used);
+	}
+
+	@Test
+	void onPrimaryOverridesReadOnly() throws SQLException {
+		Routing routing = new Routing(stub("primary"), List.of(stub("replica-1")), Duration.ofSeconds(5));
+		routing.readYourWrites.onPrimary(() -> routing.readOnly.execute(status -> {
+			routing.jdbcTemplate.execute("SELECT 1");
+			return null;
+		}));
+		routing.readOnly.executeWithoutResult(status -> routing.jdbcTemplate.execute("SELECT 1"));
+		assertEquals(List.of("primary", "replica-1"), used);
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaIsDown() throws SQLException {
+		DataSource down = mock(DataSource.class);
+		when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+		Routing routing = new Routing(stub("primary"), List.of(down), Duration.ofSeconds(5));
+		routing.readOnly.executeWithoutResult(status -> routing.jdbcTemplate.execute("SELECT 1"));
+		assertEquals(List.of("primary"), used);
+	}
+
+	@Test
+	void writesAreStickyForTheWindow() {
+		ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5));
+		readYourWrites.recordWrite("user:1");
+		assertTrue(readYourWrites.wroteRecently("user:1"));
+		assertFalse(readYourWrites.wroteRecently("user:2"));
+
+		ReadYourWrites off = new ReadYourWrites(Duration.ZERO);
+		off.recordWrite("user:1");
+		assertFalse(off.wroteRecently("user:1"));
+	}
+
+	/**
+	 * Against two local PostgreSQL instances (replication is not needed, only the server each query lands on):
+	 *
+	 *   mvn test -Dtest=ReadReplicaRoutingTest -Dreplica.test.primary-url=jdbc:postgresql://localhost:5432/postgres \
+	 *       -Dreplica.test.replica-url=jdbc:postgresql://localhost:5433/postgres -Dreplica.test.user=postgres -Dreplica.test.password=...
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "replica.test.primary-url", matches = ".+")
+	void routesBetweenTwoDatabases() {
+		try (HikariDataSource primary = pool(System.getProperty("replica.test.primary-url"));
+			HikariDataSource replica = pool(System.getProperty("replica.test.replica-url"))) {
+			Routing routing = new Routing(primary, List.of(replica), Duration.ofSeconds(5));
+			String primaryPort = routing.readWrite.execute(status -> port(routing.jdbcTemplate));
+			String replicaPort = routing.readOnly.execute(status -> port(routing.jdbcTemplate));
+			assertFalse(primaryPort.equals(replicaPort), "both queries ran on port " + primaryPort);
+
+			routing.readYourWrites.recordWrite("user:1");
+			boolean previous = routing.readYourWrites.setPrimaryRequired(routing.readYourWrites.wroteRecently("user:1"));
+			try {
+				assertEquals(primaryPort, routing.readOnly.execute(status -> port(routing.jdbcTemplate)));
+			} finally {
+				routing.readYourWrites.setPrimaryRequired(previous);
+			}
+		}
+	}
+
+	private static String port(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("SELECT current_setting('port')", String.class);
+	}
+
+	private static HikariDataSource pool(String url) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl(url);
+		dataSource.setUsername(System.getProperty("replica.test.user", "postgres"));
+		dataSource.setPassword(System.getProperty("replica.test.password", ""));
+		dataSource.setMaximumPoolSize(2);
+		return dataSource;
+	}
+
+	// A DataSource whose connections record their name in used when a statement is created.
+	private DataSource stub(String name) throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(connection.createStatement()).thenAnswer(invocation -> {
+			used.add(name);
+			return mock(Statement.class);
+		});
+		when(dataSource.getConnection()).thenReturn(connection);
+		return dataSource;
+	}
+
+	// The same wiring as ReadReplicaDataSourceConfig, with a plain JDBC transaction manager.
+	private static final class Routing {
+		final ReadYourWrites readYourWrites;
+		final JdbcTemplate jdbcTemplate;
+		final TransactionTemplate readOnly;
+		final TransactionTemplate readWrite;
+
+		Routing(DataSource primary, List<DataSource> replicas, Duration stickyWindow) {
+			readYourWrites = new ReadYourWrites(stickyWindow);
+			LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+			dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replicas, readYourWrites));
+			jdbcTemplate = new JdbcTemplate(dataSource);
+			DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+			readOnly = new TransactionTemplate(transactionManager);
+			readOnly.setReadOnly(true);
+			readWrite = new TransactionTemplate(transactionManager);
+		}
+	}
+
+}
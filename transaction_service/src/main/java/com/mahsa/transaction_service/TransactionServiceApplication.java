@@ -3,7 +3,8 @@ package com.mahsa.transaction_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+// com.mahsa.common: read replica routing (ReadReplicaDataSourceConfig, ReadYourWritesFilter) and FileSpanExporter
+@SpringBootApplication(scanBasePackages = {"com.mahsa.transaction_service", "com.mahsa.common"})
 public class TransactionServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,64 @@
+package com.mahsa.transaction_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.mahsa.transaction_service.security.JwtRequestFilter;
+import com.mahsa.transaction_service.security.ServiceTokenFilter;
+
+import jakarta.servlet.DispatcherType;
+
+@Configuration
+public class SecurityConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtRequestFilter jwtRequestFilter,
+            ServiceTokenFilter serviceTokenFilter) throws Exception {
+        logger.info("Configuring JWT SecurityFilterChain bean...");
+        http
+            .csrf(AbstractHttpConfigurer::disable)
+            // Every request carries its own JWT, no HTTP session is needed.
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(authz -> authz
+                // Async dispatches finish streamed responses of already authorized requests.
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                // Actuator is only served on management.server.port (internal address); these paths do not exist on server.port
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                // Service-to-service: only callers with a valid X-Service-Token (see ServiceTokenFilter)
+                .requestMatchers(HttpMethod.POST, "/api/transactions/balance-sums").hasRole(ServiceTokenFilter.ROLE)
+                .requestMatchers("/error").permitAll()
+                .anyRequest().authenticated())
+            // JwtRequestFilter puts the userId of a valid "Authorization: Bearer" token in the SecurityContext.
+            .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(serviceTokenFilter, JwtRequestFilter.class);
+        logger.info("JWT SecurityFilterChain configured.");
+        return http.build();
+    }
+
+    // JwtRequestFilter and ServiceTokenFilter are @Components, so Spring Boot would also register them as plain
+    // servlet filters. They must only run inside the security filter chain.
+    @Bean
+    public FilterRegistrationBean<JwtRequestFilter> jwtRequestFilterRegistration(JwtRequestFilter jwtRequestFilter) {
+        FilterRegistrationBean<JwtRequestFilter> registration = new FilterRegistrationBean<>(jwtRequestFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ServiceTokenFilter> serviceTokenFilterRegistration(ServiceTokenFilter serviceTokenFilter) {
+        FilterRegistrationBean<ServiceTokenFilter> registration = new FilterRegistrationBean<>(serviceTokenFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,86 @@
+package com.mahsa.transaction_service.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.mahsa.transaction_service.enums.ValidationOutcome;
+import com.mahsa.transaction_service.security.AuthenticatedUserResolver;
+import com.mahsa.transaction_service.service.ValidationService;
+
+/**
+ * The user and account checks the controllers run before touching an account's transactions. Each returns the
+ * error response to send, or null if the request may go on.
+ */
+@Component
+public class AccountAccess {
+    private final ValidationService validationService;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+
+    public AccountAccess(ValidationService validationService, AuthenticatedUserResolver authenticatedUserResolver) {
+        this.validationService = validationService;
+        this.authenticatedUserResolver = authenticatedUserResolver;
+    }
+
+    // Used before writes: 400 when the user does not exist or the account is not theirs.
+    // With trusted JWT claims the user is already known to exist, only the account is checked.
+    public ResponseEntity<Map<String, String>> validateUserAndAccount(Long userId, Long accountId) {
+        try {
+            ValidationOutcome validationOutcome = authenticatedUserResolver.isTrustedClaims()
+                ? validationService.validateAccount(userId, accountId)
+                : validationService.validateUserAndAccount(userId, accountId);
+            if (validationOutcome == ValidationOutcome.USER_NOT_FOUND) {
+                return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Error: User with ID " + userId + " does not exist."));
+            }
+            if (validationOutcome == ValidationOutcome.ACCOUNT_NOT_OWNED) {
+                return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", accountNotOwnedMessage(accountId)));
+            }
+        } catch (Exception e) {
+            return validationFailed(e);
+        }
+        return null;
+    }
+
+    // Used before reads: 403 when the account does not belong to the user. The user is not looked up again, an
+    // account-service answer of "owned" already implies it exists.
+    public ResponseEntity<Map<String, String>> validateAccountOwnership(Long userId, Long accountId) {
+        try {
+            if (validationService.validateAccount(userId, accountId) == ValidationOutcome.ACCOUNT_NOT_OWNED) {
+                return ResponseEntity
+                    .status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("message", accountNotOwnedMessage(accountId)));
+            }
+        } catch (Exception e) {
+            return validationFailed(e);
+        }
+        return null;
+    }
+
+    // The response when resolveUserId found no user: 401 with trusted claims, otherwise the header is missing.
+    public ResponseEntity<Map<String, String>> unresolvedUser() {
+        if (authenticatedUserResolver.isTrustedClaims()) {
+            return ResponseEntity
+                .status(HttpStatus.UNAUTHORIZED)
+                .body(Map.of("message", "Error: A valid JWT of an active user is required (and X-User-ID, if sent, must match it)."));
+        }
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(Map.of("message", "Error: X-User-ID header is required."));
+    }
+
+    private static String accountNotOwnedMessage(Long accountId) {
+        return "Error: Account with ID " + accountId + " does not exist or does not belong to you.";
+    }
+
+    private static ResponseEntity<Map<String, String>> validationFailed(Exception e) {
+        return ResponseEntity
+            .status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(Map.of("message", "Error: " + e.getMessage()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.mahsa.transaction_service.controller;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mahsa.transaction_service.enums.AnalyticsPeriod;
+import com.mahsa.transaction_service.enums.TransactionType;
+import com.mahsa.transaction_service.security.AuthenticatedUserResolver;
+import com.mahsa.transaction_service.service.AnalyticsService;
+
+// Spending reports over one or several of the user's accounts (see AnalyticsService).
+@RestController
+@RequestMapping("api/analytics")
+public class AnalyticsController {
+    private static final Set<String> ORDER_BY = Set.of("period", "income", "expense", "net");
+
+    private final AnalyticsService analyticsService;
+    private final AccountAccess accountAccess;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+
+    //Upper bound on the number of accounts in one report
+    @Value("${analytics.max-accounts}")
+    private int maxAccounts;
+
+    public AnalyticsController(AnalyticsService analyticsService, AccountAccess accountAccess,
+        AuthenticatedUserResolver authenticatedUserResolver) {
+        this.analyticsService = analyticsService;
+        this.accountAccess = accountAccess;
+        this.authenticatedUserResolver = authenticatedUserResolver;
+    }
+
+    // e.g. top spending months: ?accountIds=1,2&period=month&orderBy=expense&limit=5
+    // income trend over 5 years: ?accountIds=1&period=year&from=2020-01-01
+    @GetMapping("/totals") // Maps to GET /api/analytics/totals
+    public ResponseEntity<?> getTotals(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestParam(name="accountIds") List<Long> accountIds,
+        @RequestParam(name="period", defaultValue="month") String period,
+        @RequestParam(name="from", required=false) String from,
+        @RequestParam(name="to", required=false) String to,
+        @RequestParam(name="orderBy", defaultValue="period") String orderBy,
+        @RequestParam(name="limit", defaultValue="1000") int limit) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        ResponseEntity<?> invalidAccounts = validateAccounts(userId, accountIds);
+        if (invalidAccounts != null) {
+            return invalidAccounts;
+        }
+        AnalyticsPeriod analyticsPeriod;
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            analyticsPeriod = AnalyticsPeriod.valueOf(period.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: period must be month or year."));
+        }
+        try {
+            fromDate = from == null || from.isBlank() ? null : LocalDate.parse(from.trim());
+            toDate = to == null || to.isBlank() ? null : LocalDate.parse(to.trim());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: from and to must be dates like 2024-01-31."));
+        }
+        if (!ORDER_BY.contains(orderBy) || limit < 1) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: orderBy must be period, income, expense or net, and limit at least 1."));
+        }
+        return ResponseEntity.ok(analyticsService.totals(accountIds, analyticsPeriod, fromDate, toDate, orderBy, limit));
+    }
+
+    @GetMapping("/percentiles") // Maps to GET /api/analytics/percentiles?accountIds=1&type=EXPENSE&p=50,90,99
+    public ResponseEntity<?> getPercentiles(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestParam(name="accountIds") List<Long> accountIds,
+        @RequestParam(name="type", required=false) TransactionType type,
+        @RequestParam(name="from", required=false) String from,
+        @RequestParam(name="to", required=false) String to,
+        @RequestParam(name="p", defaultValue="50,90,99") List<Double> percentiles) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        ResponseEntity<?> invalidAccounts = validateAccounts(userId, accountIds);
+        if (invalidAccounts != null) {
+            return invalidAccounts;
+        }
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from == null || from.isBlank() ? null : LocalDate.parse(from.trim());
+            toDate = to == null || to.isBlank() ? null : LocalDate.parse(to.trim());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: from and to must be dates like 2024-01-31."));
+        }
+        if (percentiles.isEmpty() || percentiles.stream().anyMatch(p -> p == null || !(p > 0 && p <= 100))) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: p must be a list of percentiles between 0 (exclusive) and 100."));
+        }
+        double[] values = percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+        return ResponseEntity.ok(analyticsService.percentiles(accountIds, type, fromDate, toDate, values));
+    }
+
+    // Returns the error response when the user cannot be resolved or an account is not theirs (403, as for the
+    // other reads), otherwise null.
+    private ResponseEntity<?> validateAccounts(Long userId, List<Long> accountIds) {
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        if (accountIds.isEmpty() || accountIds.size() > maxAccounts) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: accountIds must list 1 to " + maxAccounts + " accounts."));
+        }
+        for (Long accountId : accountIds) {
+            ResponseEntity<Map<String, String>> notOwned = accountAccess.validateAccountOwnership(userId, accountId);
+            if (notOwned != null) {
+                return notOwned;
+            }
+        }
+        return null;
+    }
+}
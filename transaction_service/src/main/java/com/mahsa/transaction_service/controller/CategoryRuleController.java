@@ -0,0 +1,136 @@
+package com.mahsa.transaction_service.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mahsa.transaction_service.dto.CategoryRuleDTO;
+import com.mahsa.transaction_service.security.AuthenticatedUserResolver;
+import com.mahsa.transaction_service.service.CategorizationService;
+import com.mahsa.transaction_service.service.ValidationService;
+
+import jakarta.validation.Valid;
+
+// The rules that assign categories to the user's new transactions (see CategorizationService).
+@RestController
+@RequestMapping("api/category-rules")
+public class CategoryRuleController {
+    private final CategorizationService categorizationService;
+    private final ValidationService validationService;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+
+    public CategoryRuleController(CategorizationService categorizationService, ValidationService validationService,
+        AuthenticatedUserResolver authenticatedUserResolver) {
+        this.categorizationService = categorizationService;
+        this.validationService = validationService;
+        this.authenticatedUserResolver = authenticatedUserResolver;
+    }
+
+    @GetMapping // Maps to GET /api/category-rules
+    public ResponseEntity<?> getRules(@RequestHeader(name="X-User-ID", required=false) Long headerUserId) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        ResponseEntity<?> invalidUser = validateUser(userId);
+        if (invalidUser != null) {
+            return invalidUser;
+        }
+        return ResponseEntity.ok(categorizationService.findRules(userId));
+    }
+
+    @PostMapping // Maps to POST /api/category-rules
+    public ResponseEntity<?> addRule(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @Valid @RequestBody CategoryRuleDTO requestDTO) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        ResponseEntity<?> invalidUser = validateUser(userId);
+        if (invalidUser != null) {
+            return invalidUser;
+        }
+        try {
+            return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(categorizationService.addRule(userId, requestDTO));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: " + e.getMessage()));
+        }
+    }
+
+    // Replaces the whole rule set at once, e.g. when a client edits the rules as a list.
+    @PutMapping // Maps to PUT /api/category-rules
+    public ResponseEntity<?> replaceRules(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @Valid @RequestBody List<@Valid CategoryRuleDTO> requestDTOs) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        ResponseEntity<?> invalidUser = validateUser(userId);
+        if (invalidUser != null) {
+            return invalidUser;
+        }
+        try {
+            return ResponseEntity.ok(categorizationService.replaceRules(userId, requestDTOs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{ruleId}") // Maps to DELETE /api/category-rules/{ruleId}
+    public ResponseEntity<?> deleteRule(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @PathVariable Long ruleId) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        ResponseEntity<?> invalidUser = validateUser(userId);
+        if (invalidUser != null) {
+            return invalidUser;
+        }
+        if (!categorizationService.deleteRule(userId, ruleId)) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(Map.of("message", "Error: Category rule with ID " + ruleId + " does not exist."));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    // Returns the error response when the user cannot be resolved or does not exist, otherwise null.
+    private ResponseEntity<?> validateUser(Long userId) {
+        if (userId == null) {
+            if (authenticatedUserResolver.isTrustedClaims()) {
+                return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "Error: A valid JWT of an active user is required (and X-User-ID, if sent, must match it)."));
+            }
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: X-User-ID header is required."));
+        }
+        if (authenticatedUserResolver.isTrustedClaims()) {
+            return null;
+        }
+        // // --- VALIDATE userId with user-service (cached) ---
+        try {
+            if (!validationService.userExists(userId)) {
+                return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Error: User with ID " + userId + " does not exist."));
+            }
+        } catch (Exception e) {
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "Error: Could not connect to user service for validation. " + e.getMessage()));
+        }
+        // // --- END USER VALIDATION ---
+        return null;
+    }
+}
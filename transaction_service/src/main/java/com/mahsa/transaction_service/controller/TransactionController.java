@@ -1,89 +1,154 @@
 package com.mahsa.transaction_service.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.mahsa.common.Money;
 import com.mahsa.transaction_service.dto.AddTransactionRequestDTO;
 import com.mahsa.transaction_service.dto.AddTransactionResponseDTO;
+import com.mahsa.transaction_service.dto.BatchRowResultDTO;
+import com.mahsa.transaction_service.dto.BatchTransactionResponseDTO;
 import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.dto.TransactionPageDTO;
 import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.ExportFormat;
+import com.mahsa.transaction_service.enums.StatementFormat;
 import com.mahsa.transaction_service.repository.TransactionRepository;
+import com.mahsa.transaction_service.security.AuthenticatedUserResolver;
+import com.mahsa.transaction_service.service.IdempotencyService;
+import com.mahsa.transaction_service.service.ImportJob;
+import com.mahsa.transaction_service.service.MonthlySummaryService;
+import com.mahsa.transaction_service.service.StatementImportService;
+import com.mahsa.transaction_service.service.TransactionArchive;
+import com.mahsa.transaction_service.service.TransactionCursor;
+import com.mahsa.transaction_service.service.TransactionExportService;
+import com.mahsa.transaction_service.service.TransactionFilter;
+import com.mahsa.transaction_service.service.TransactionQueryService;
+import com.mahsa.transaction_service.service.TransactionSearchService;
+import com.mahsa.transaction_service.service.TransactionWriteService;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
 
 @RestController
 @RequestMapping("api/transactions")
 public class TransactionController {
     private final TransactionRepository transactionRepository;
-    private final RestTemplate restTemplate;
+    private final AccountAccess accountAccess;
+    private final AuthenticatedUserResolver authenticatedUserResolver;
+    private final TransactionWriteService transactionWriteService;
+    private final Validator validator;
+    private final TransactionQueryService transactionQueryService;
+    private final ObjectMapper objectMapper;
+    private final MonthlySummaryService monthlySummaryService;
+    private final StatementImportService statementImportService;
+    private final TransactionExportService transactionExportService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionSearchService transactionSearchService;
+    private final TransactionArchive transactionArchive;
+
+    //Upper bound on the number of rows accepted by one POST /api/transactions/batch call
+    @Value("${transaction.batch.max-rows}")
+    private int batchMaxRows;
+
+    //Largest page size accepted by GET /api/transactions?limit=
+    @Value("${transaction.page.max-limit}")
+    private int pageMaxLimit;
+
+    //Largest page size and deepest page accepted by GET /api/transactions/search
+    @Value("${transaction.search.max-size}")
+    private int searchMaxSize;
 
-    //Read user-service URL from application.properties
-    @Value("${user.service.url}")
-    private String userServiceBaseUrl;
+    @Value("${transaction.search.max-results}")
+    private int searchMaxResults;
 
-    //Read account-service URL from application.properties
-    @Value("${account.service.url}")
-    private String accountServiceBaseUrl;
+    //Longest month range accepted by GET /api/transactions/summary
+    @Value("${transaction.summary.max-months}")
+    private int summaryMaxMonths;
 
-    public TransactionController(TransactionRepository transactionRepository, RestTemplate restTemplate){
+    public TransactionController(TransactionRepository transactionRepository, AccountAccess accountAccess,
+        TransactionWriteService transactionWriteService, Validator validator,
+        TransactionQueryService transactionQueryService, ObjectMapper objectMapper,
+        AuthenticatedUserResolver authenticatedUserResolver, MonthlySummaryService monthlySummaryService,
+        StatementImportService statementImportService, TransactionExportService transactionExportService,
+        IdempotencyService idempotencyService, TransactionSearchService transactionSearchService,
+        TransactionArchive transactionArchive){
         this.transactionRepository = transactionRepository;
-        this.restTemplate = restTemplate;
+        this.accountAccess = accountAccess;
+        this.transactionWriteService = transactionWriteService;
+        this.validator = validator;
+        this.transactionQueryService = transactionQueryService;
+        this.objectMapper = objectMapper;
+        this.authenticatedUserResolver = authenticatedUserResolver;
+        this.monthlySummaryService = monthlySummaryService;
+        this.statementImportService = statementImportService;
+        this.transactionExportService = transactionExportService;
+        this.idempotencyService = idempotencyService;
+        this.transactionSearchService = transactionSearchService;
+        this.transactionArchive = transactionArchive;
     }
 
     @PostMapping // Maps to POST /api/transactions
     public ResponseEntity<?> addTransaction(
-        @RequestHeader(name="X-User-ID") Long userId,
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
         @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestHeader(name="Idempotency-Key", required=false) String idempotencyKey,
         @Valid @RequestBody AddTransactionRequestDTO requestDTO){
-        // // --- VALIDATE userId by calling user-service ---
-        try {
-            String validationUrl = userServiceBaseUrl + "/validate/" + userId;
-            // Make the GET request. Expecting a Boolean response.
-            ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(validationUrl, Boolean.class);
-            Boolean userExists = responseEntity.getBody();
-            if(userExists==null || !userExists ){
-                    return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("message", "Error: User with ID " + userId + " does not exist."));
-            }   
-        } catch (Exception e) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        if (idempotencyKey == null) {
+            return createTransaction(userId, accountId, requestDTO);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
             return ResponseEntity
-                .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("message", "Error: Could not connect to user service for validation. " + e.getMessage()));
-            }
-        // // --- END USER VALIDATION ---
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: Idempotency-Key must be 1 to 255 characters."));
+        }
+        // A retry with the same key gets the first response back, without validating or inserting again.
+        // Keys are per user and account, so two users cannot collide on the same key.
+        String fingerprint = requestDTO.getAmount().toPlainString() + "|" + requestDTO.getType() + "|"
+            + requestDTO.getDate() + "|" + requestDTO.getDescription();
+        return idempotencyService.execute(userId + ":" + accountId + ":" + idempotencyKey, fingerprint,
+            () -> createTransaction(userId, accountId, requestDTO));
+    }
 
-        
-        // // --- VALIDATE accountId and if it belongs to the user by calling account-service ---
-        try {
-            String accountValidationUrl = accountServiceBaseUrl + "/validate/" + accountId + "?userId=" + userId;
-            // Make the GET request. Expecting a Boolean response.
-            ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(accountValidationUrl, Boolean.class);
-            Boolean accountValidationResponseEntity = responseEntity.getBody();
-            if(accountValidationResponseEntity==null || !accountValidationResponseEntity ){
-                    return ResponseEntity
-                    .status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("message", "Error: Account with ID " + accountId + " does not exist or does not belong to you."));
-            }   
-        } catch (Exception e) {
-            return ResponseEntity
-                .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("message", "Error: Could not connect to account service for validation. " + e.getMessage()));
-            }
-        // // --- END ACCOUNT VALIDATION ---
+    private ResponseEntity<?> createTransaction(Long userId, Long accountId, AddTransactionRequestDTO requestDTO) {
+        ResponseEntity<Map<String, String>> invalid = accountAccess.validateUserAndAccount(userId, accountId);
+        if (invalid != null) {
+            return invalid;
+        }
 
         /// ----- Other validations -----
         /// @Valid covers the rest of validations
@@ -101,8 +166,8 @@ public class TransactionController {
         newTransaction.setDate(requestDTO.getDate());
         newTransaction.setAccountId(accountId);
         
-        //Save the transaction
-        Transaction savedTransaction = transactionRepository.save(newTransaction);
+        //Save the transaction (together with its outbox event, which updates the account balance)
+        Transaction savedTransaction = transactionWriteService.insert(userId, newTransaction);
         
         // Create responseDTO
         AddTransactionResponseDTO responseDTO = new AddTransactionResponseDTO(
@@ -111,7 +176,8 @@ public class TransactionController {
             savedTransaction.getAmount(),
             savedTransaction.getType(),
             savedTransaction.getDate(),
-            savedTransaction.getAccountId()
+            savedTransaction.getAccountId(),
+            savedTransaction.getCategory()
         );
 
         //Return a ResponseEntity with HttpStatus.CREATED and the saved transaction (or a DTO/Map without sensitive info if desired).
@@ -120,41 +186,411 @@ public class TransactionController {
                     .body(responseDTO);   
     }
 
-    @GetMapping // Maps to GET /api/transactions
-    public ResponseEntity<?>  getTransactionsByAccountId(
-        @RequestHeader(name="X-User-ID") Long userId,
-        @RequestHeader(name="X-Account-ID") Long accountId) {
-        
-        // // --- VALIDATE accountId and if it belongs to the user by calling account-service ---
+    @PostMapping("/batch") // Maps to POST /api/transactions/batch
+    public ResponseEntity<?> addTransactionsBatch(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestBody List<AddTransactionRequestDTO> requestDTOs){
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        if (requestDTOs == null || requestDTOs.isEmpty()) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: Batch must contain at least one transaction."));
+        }
+        if (requestDTOs.size() > batchMaxRows) {
+            return ResponseEntity
+                .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("message", "Error: Batch contains " + requestDTOs.size() + " rows, the maximum is " + batchMaxRows + "."));
+        }
+
+        // The user/account pair is the same for every row, so it is validated once for the whole batch.
+        ResponseEntity<Map<String, String>> invalid = accountAccess.validateUserAndAccount(userId, accountId);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        // Rows are validated one by one (instead of @Valid on the whole list) so a single bad row
+        // is reported back without rejecting the rest of the batch.
+        List<BatchRowResultDTO> rowResults = new ArrayList<>(requestDTOs.size());
+        List<Transaction> newTransactions = new ArrayList<>(requestDTOs.size());
+        List<BatchRowResultDTO> acceptedRows = new ArrayList<>(requestDTOs.size());
+        for (int i = 0; i < requestDTOs.size(); i++) {
+            AddTransactionRequestDTO requestDTO = requestDTOs.get(i);
+            if (requestDTO == null) {
+                rowResults.add(new BatchRowResultDTO(i, false, null, List.of("Row is empty")));
+                continue;
+            }
+            Set<ConstraintViolation<AddTransactionRequestDTO>> violations = validator.validate(requestDTO);
+            if (!violations.isEmpty()) {
+                List<String> errors = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.toList());
+                rowResults.add(new BatchRowResultDTO(i, false, null, errors));
+                continue;
+            }
+            BatchRowResultDTO rowResult = new BatchRowResultDTO(i, true, null, List.of());
+            rowResults.add(rowResult);
+            acceptedRows.add(rowResult);
+            newTransactions.add(new Transaction(
+                requestDTO.getDescription(),
+                requestDTO.getAmount(),
+                requestDTO.getType(),
+                requestDTO.getDate(),
+                accountId));
+        }
+
+        //Insert all valid rows in JDBC batches
+        transactionWriteService.insertAll(userId, newTransactions);
+        for (int i = 0; i < newTransactions.size(); i++) {
+            acceptedRows.get(i).setId(newTransactions.get(i).getId());
+        }
+
+        BatchTransactionResponseDTO responseDTO = new BatchTransactionResponseDTO(
+            accountId,
+            requestDTOs.size(),
+            newTransactions.size(),
+            requestDTOs.size() - newTransactions.size(),
+            rowResults);
+
+        // If nothing could be inserted the whole request is a client error, otherwise report what was created.
+        return ResponseEntity
+                    .status(newTransactions.isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED)
+                    .body(responseDTO);
+    }
+
+    // Imports a bank statement (CSV or OFX) in the background and answers right away with the job to poll.
+    @PostMapping(path = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE) // Maps to POST /api/transactions/import
+    public ResponseEntity<?> importStatement(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestParam(name="file") MultipartFile file,
+        @RequestParam(name="format", required=false) String format) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: The uploaded file is empty."));
+        }
+        StatementFormat statementFormat;
+        try {
+            statementFormat = format == null || format.isBlank()
+                ? StatementFormat.fromFilename(file.getOriginalFilename())
+                : StatementFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: format must be CSV or OFX."));
+        }
+
+        // The whole file goes to one account, so user and account are validated once up front.
+        ResponseEntity<Map<String, String>> invalid = accountAccess.validateUserAndAccount(userId, accountId);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        ImportJob job;
         try {
-            String accountValidationUrl = accountServiceBaseUrl + "/validate/" + accountId + "?userId=" + userId;
-            // Make the GET request. Expecting a Boolean response.
-            ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(accountValidationUrl, Boolean.class);
-            Boolean accountValidationResponseEntity = responseEntity.getBody();
-            if(accountValidationResponseEntity==null || !accountValidationResponseEntity ){
-                    return ResponseEntity
-                    .status(HttpStatus.FORBIDDEN)
-                    .body(Map.of("message", "Error: Account with ID " + accountId + " does not exist or does not belong to you."));
-            }   
-        } catch (Exception e) {
+            job = statementImportService.start(userId, accountId, statementFormat, file);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("message", "Error: Too many imports in progress, please try again later."));
+        } catch (IOException e) {
             return ResponseEntity
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("message", "Error: Could not connect to account service for validation. " + e.getMessage()));
+                .body(Map.of("message", "Error: Could not store the uploaded file. " + e.getMessage()));
+        }
+        return ResponseEntity
+            .status(HttpStatus.ACCEPTED)
+            .header("Location", "/api/transactions/import/" + job.getId())
+            .body(job.toDTO());
+    }
+
+    @GetMapping("/import/{jobId}") // Maps to GET /api/transactions/import/{jobId}
+    public ResponseEntity<?> getImportJob(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @PathVariable String jobId) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        ImportJob job = statementImportService.find(jobId, userId);
+        if (job == null) {
+            return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(Map.of("message", "Error: Import job " + jobId + " not found."));
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(job.toDTO());
+    }
+
+    @GetMapping(params = "limit") // Maps to GET /api/transactions?limit=50&after={nextCursor}
+    public ResponseEntity<?> getTransactionsPageByAccountId(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestParam(name="limit") int limit,
+        @RequestParam(name="after", required=false) String after,
+        @RequestParam(name="from", required=false) String from,
+        @RequestParam(name="to", required=false) String to,
+        @RequestParam(name="type", required=false) String type,
+        @RequestParam(name="minAmount", required=false) String minAmount,
+        @RequestParam(name="maxAmount", required=false) String maxAmount) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        if (limit < 1 || limit > pageMaxLimit) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: limit must be between 1 and " + pageMaxLimit + "."));
+        }
+        TransactionCursor cursor = null;
+        if (after != null && !after.isEmpty()) {
+            try {
+                cursor = TransactionCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", "Error: Invalid 'after' cursor."));
             }
-        // // --- END ACCOUNT VALIDATION ---
-        
-        List<Transaction> transactions = transactionRepository.findByAccountId(accountId);
+        }
+        TransactionFilter filter;
+        try {
+            filter = TransactionFilter.parse(from, to, type, minAmount, maxAmount);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: " + e.getMessage()));
+        }
+
+        ResponseEntity<Map<String, String>> notOwned = accountAccess.validateAccountOwnership(userId, accountId);
+        if (notOwned != null) {
+            return notOwned;
+        }
+
+        // One extra row is read to know whether there is a next page without a count query.
+        List<Transaction> transactions = transactionQueryService.findPage(accountId, filter, cursor, limit + 1);
+        boolean hasMore = transactions.size() > limit;
+        if (hasMore) {
+            transactions = transactions.subList(0, limit);
+        }
         List<ListedTransactionDTO> responseDTOs = transactions.stream()
-            .map(transaction -> new ListedTransactionDTO(
-                    transaction.getId(),
-                    transaction.getDescription(),
-                    transaction.getAmount(),
-                    transaction.getType(),
-                    transaction.getDate(),
-                    transaction.getAccountId())
-                    )
-                    .collect(Collectors.toList());
+            .map(TransactionController::toListedTransactionDTO)
+            .collect(Collectors.toList());
+        String nextCursor = hasMore ? TransactionCursor.of(transactions.get(transactions.size() - 1)).encode() : null;
+
+        return ResponseEntity.status(HttpStatus.OK).body(new TransactionPageDTO(responseDTOs, nextCursor));
+    }
+
+    // Without a limit all transactions of the account are returned. They are read page by page and streamed
+    // straight into the JSON array of the response, so memory use does not depend on the number of rows.
+    @GetMapping // Maps to GET /api/transactions
+    public ResponseEntity<StreamingResponseBody> getTransactionsByAccountId(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestParam(name="from", required=false) String from,
+        @RequestParam(name="to", required=false) String to,
+        @RequestParam(name="type", required=false) String type,
+        @RequestParam(name="minAmount", required=false) String minAmount,
+        @RequestParam(name="maxAmount", required=false) String maxAmount) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return streamingJson(accountAccess.unresolvedUser());
+        }
+        TransactionFilter filter;
+        try {
+            filter = TransactionFilter.parse(from, to, type, minAmount, maxAmount);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonBody(Map.of("message", "Error: " + e.getMessage())));
+        }
+        
+        ResponseEntity<Map<String, String>> notOwned = accountAccess.validateAccountOwnership(userId, accountId);
+        if (notOwned != null) {
+            return streamingJson(notOwned);
+        }
+
+        StreamingResponseBody responseBody = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                transactionQueryService.forEachByAccountId(accountId, filter, transaction -> {
+                    try {
+                        generator.writeObject(toListedTransactionDTO(transaction));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON).body(responseBody);
+    }
+
+    // Ranked search over descriptions, backed by the full-text and trigram indexes of schema.sql.
+    @GetMapping("/search") // Maps to GET /api/transactions/search?q=amazon&page=0&size=20
+    public ResponseEntity<?> searchTransactions(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestParam(name="q") String query,
+        @RequestParam(name="page", defaultValue="0") int page,
+        @RequestParam(name="size", defaultValue="20") int size) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        if (query.isBlank() || query.length() > 200) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: q must be 1 to 200 characters."));
+        }
+        if (size < 1 || size > searchMaxSize || page < 0 || (long) (page + 1) * size > searchMaxResults) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: size must be between 1 and " + searchMaxSize
+                    + ", and only the first " + searchMaxResults + " results can be paged through."));
+        }
+
+        ResponseEntity<Map<String, String>> notOwned = accountAccess.validateAccountOwnership(userId, accountId);
+        if (notOwned != null) {
+            return notOwned;
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(transactionSearchService.search(accountId, query, page, size));
+    }
+
+    // Income vs expense per month, read from the monthly_summaries rollup instead of the transactions themselves.
+    @GetMapping("/summary") // Maps to GET /api/transactions/summary?from=2024-01&to=2024-12
+    public ResponseEntity<?> getMonthlySummary(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestParam(name="from", required=false) String from,
+        @RequestParam(name="to", required=false) String to) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return accountAccess.unresolvedUser();
+        }
+        // Defaults to the last 12 months, current month included.
+        YearMonth toMonth;
+        YearMonth fromMonth;
+        try {
+            toMonth = to == null ? YearMonth.now() : YearMonth.parse(to);
+            fromMonth = from == null ? toMonth.minusMonths(11) : YearMonth.parse(from);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: from and to must be months in yyyy-MM format."));
+        }
+        if (fromMonth.isAfter(toMonth) || fromMonth.plusMonths(summaryMaxMonths).isBefore(toMonth.plusMonths(1))) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("message", "Error: from must not be after to, and the range must be at most " + summaryMaxMonths + " months."));
+        }
+
+        ResponseEntity<Map<String, String>> notOwned = accountAccess.validateAccountOwnership(userId, accountId);
+        if (notOwned != null) {
+            return notOwned;
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).body(monthlySummaryService.findSummary(accountId, fromMonth, toMonth));
+    }
+
+    // Audit export of the whole (optionally filtered) history as a file download, written as it is read.
+    @GetMapping("/export") // Maps to GET /api/transactions/export?format=csv&gzip=true
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+        @RequestHeader(name="X-User-ID", required=false) Long headerUserId,
+        @RequestHeader(name="X-Account-ID") Long accountId,
+        @RequestParam(name="format", defaultValue="ndjson") String format,
+        @RequestParam(name="gzip", defaultValue="false") boolean gzip,
+        @RequestParam(name="from", required=false) String from,
+        @RequestParam(name="to", required=false) String to,
+        @RequestParam(name="type", required=false) String type,
+        @RequestParam(name="minAmount", required=false) String minAmount,
+        @RequestParam(name="maxAmount", required=false) String maxAmount) {
+        Long userId = authenticatedUserResolver.resolveUserId(headerUserId);
+        if (userId == null) {
+            return streamingJson(accountAccess.unresolvedUser());
+        }
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonBody(Map.of("message", "Error: format must be ndjson or csv.")));
+        }
+        TransactionFilter filter;
+        try {
+            filter = TransactionFilter.parse(from, to, type, minAmount, maxAmount);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonBody(Map.of("message", "Error: " + e.getMessage())));
+        }
+
+        ResponseEntity<Map<String, String>> notOwned = accountAccess.validateAccountOwnership(userId, accountId);
+        if (notOwned != null) {
+            return streamingJson(notOwned);
+        }
+
+        String filename = "transactions-" + accountId + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity
+            .status(HttpStatus.OK)
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8"))
+            .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
+            .body(outputStream -> transactionExportService.export(accountId, filter, exportFormat, gzip, outputStream));
+    }
+
+    // Used by account-service's balance reconciliation, so it is not behind user authentication: the caller must
+    // send a service token instead (see ServiceTokenFilter). Returns the signed SUM(amount) of each account in one query.
+    @PostMapping("/balance-sums") // Maps to POST /api/transactions/balance-sums
+    public ResponseEntity<Map<Long, BigDecimal>> sumBalancesByAccountIds(@RequestBody List<Long> accountIds) {
+        Map<Long, Long> sums = new HashMap<>(); // minor units, see Money
+        for (Long accountId : accountIds) {
+            sums.put(accountId, 0L);
+        }
+        if (!accountIds.isEmpty()) {
+            for (Object[] row : transactionRepository.sumSignedAmountsByAccountIds(accountIds)) {
+                sums.put((Long) row[0], Money.of((BigDecimal) row[1]));
+            }
+            //Archived months are no longer in the table
+            transactionArchive.signedSums(accountIds).forEach((accountId, sum) -> sums.merge(accountId, sum, Money::add));
+        }
+        Map<Long, BigDecimal> response = new HashMap<>();
+        sums.forEach((accountId, sum) -> response.put(accountId, Money.toBigDecimal(sum)));
+        return ResponseEntity.ok(response);
+    }
+
+    private StreamingResponseBody jsonBody(Object body) {
+        return outputStream -> objectMapper.writeValue(outputStream, body);
+    }
+
+    // The same error response, for endpoints that stream their body
+    private ResponseEntity<StreamingResponseBody> streamingJson(ResponseEntity<Map<String, String>> response) {
+        return ResponseEntity
+            .status(response.getStatusCode())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(jsonBody(response.getBody()));
+    }
 
-        return ResponseEntity.status(HttpStatus.OK).body(responseDTOs);
+    private static ListedTransactionDTO toListedTransactionDTO(Transaction transaction) {
+        return new ListedTransactionDTO(
+            transaction.getId(),
+            transaction.getDescription(),
+            transaction.getAmount(),
+            transaction.getType(),
+            transaction.getDate(),
+            transaction.getAccountId(),
+            transaction.getCategory());
     }
-}
\ No newline at end of file
+}
@@ -12,15 +12,17 @@ public class AddTransactionResponseDTO {
     private  TransactionType type;
     private LocalDate date;
     private Long accoundId;
+    private String category;
 
     public AddTransactionResponseDTO() {} 
-    public AddTransactionResponseDTO(Long id, String description,BigDecimal amount,TransactionType type, LocalDate date, Long accoundId) {
+    public AddTransactionResponseDTO(Long id, String description,BigDecimal amount,TransactionType type, LocalDate date, Long accoundId, String category) {
     this.id = id;
     this.description = description;
     this.amount = amount;
     this.type = type;
     this.date = date;
     this.accoundId = accoundId;
+    this.category = category;
    } 
     public Long getId() {
         return id;
@@ -58,4 +60,10 @@ public class AddTransactionResponseDTO {
     public void setAccoundId(Long accoundId) {
         this.accoundId = accoundId;
     }
+    public String getCategory() {
+        return category;
+    }
+    public void setCategory(String category) {
+        this.category = category;
+    }
 }
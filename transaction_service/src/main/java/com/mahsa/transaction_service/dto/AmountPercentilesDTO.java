@@ -0,0 +1,37 @@
+package com.mahsa.transaction_service.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.mahsa.transaction_service.enums.TransactionType;
+
+public class AmountPercentilesDTO {
+    private TransactionType type; // null: both types
+    private long count;
+    private Map<String, BigDecimal> percentiles; // "50" -> median amount, in request order; empty if count is 0
+
+    public AmountPercentilesDTO() {}
+    public AmountPercentilesDTO(TransactionType type, long count, Map<String, BigDecimal> percentiles) {
+    this.type = type;
+    this.count = count;
+    this.percentiles = percentiles;
+   }
+    public TransactionType getType() {
+        return type;
+    }
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    public long getCount() {
+        return count;
+    }
+    public void setCount(long count) {
+        this.count = count;
+    }
+    public Map<String, BigDecimal> getPercentiles() {
+        return percentiles;
+    }
+    public void setPercentiles(Map<String, BigDecimal> percentiles) {
+        this.percentiles = percentiles;
+    }
+}
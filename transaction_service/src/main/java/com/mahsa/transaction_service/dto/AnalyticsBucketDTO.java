@@ -0,0 +1,58 @@
+package com.mahsa.transaction_service.dto;
+
+import java.math.BigDecimal;
+
+public class AnalyticsBucketDTO {
+    private String period; // yyyy or yyyy-MM
+    private BigDecimal income;
+    private long incomeCount;
+    private BigDecimal expense;
+    private long expenseCount;
+    private BigDecimal net; // income - expense
+
+    public AnalyticsBucketDTO() {}
+    public AnalyticsBucketDTO(String period, BigDecimal income, long incomeCount, BigDecimal expense, long expenseCount, BigDecimal net) {
+    this.period = period;
+    this.income = income;
+    this.incomeCount = incomeCount;
+    this.expense = expense;
+    this.expenseCount = expenseCount;
+    this.net = net;
+   }
+    public String getPeriod() {
+        return period;
+    }
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+    public BigDecimal getIncome() {
+        return income;
+    }
+    public void setIncome(BigDecimal income) {
+        this.income = income;
+    }
+    public long getIncomeCount() {
+        return incomeCount;
+    }
+    public void setIncomeCount(long incomeCount) {
+        this.incomeCount = incomeCount;
+    }
+    public BigDecimal getExpense() {
+        return expense;
+    }
+    public void setExpense(BigDecimal expense) {
+        this.expense = expense;
+    }
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+    public BigDecimal getNet() {
+        return net;
+    }
+    public void setNet(BigDecimal net) {
+        this.net = net;
+    }
+}
@@ -0,0 +1,34 @@
+package com.mahsa.transaction_service.dto;
+
+import java.math.BigDecimal;
+
+public class BalanceDeltaDTO {
+    private Long transactionId;
+    private Long accountId;
+    private BigDecimal amount; // signed: positive for INCOME, negative for EXPENSE
+
+    public BalanceDeltaDTO() {}
+    public BalanceDeltaDTO(Long transactionId, Long accountId, BigDecimal amount) {
+    this.transactionId = transactionId;
+    this.accountId = accountId;
+    this.amount = amount;
+   }
+    public Long getTransactionId() {
+        return transactionId;
+    }
+    public void setTransactionId(Long transactionId) {
+        this.transactionId = transactionId;
+    }
+    public Long getAccountId() {
+        return accountId;
+    }
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mahsa.transaction_service.dto;
+
+import java.util.List;
+
+public class BatchRowResultDTO {
+    private int index;
+    private boolean accepted;
+    private Long id;
+    private List<String> errors;
+
+    public BatchRowResultDTO() {}
+    public BatchRowResultDTO(int index, boolean accepted, Long id, List<String> errors) {
+    this.index = index;
+    this.accepted = accepted;
+    this.id = id;
+    this.errors = errors;
+   }
+    public int getIndex() {
+        return index;
+    }
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    public boolean isAccepted() {
+        return accepted;
+    }
+    public void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public List<String> getErrors() {
+        return errors;
+    }
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
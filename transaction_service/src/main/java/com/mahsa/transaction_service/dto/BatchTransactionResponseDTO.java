@@ -0,0 +1,50 @@
+package com.mahsa.transaction_service.dto;
+
+import java.util.List;
+
+public class BatchTransactionResponseDTO {
+    private Long accountId;
+    private int received;
+    private int inserted;
+    private int rejected;
+    private List<BatchRowResultDTO> rows;
+
+    public BatchTransactionResponseDTO() {}
+    public BatchTransactionResponseDTO(Long accountId, int received, int inserted, int rejected, List<BatchRowResultDTO> rows) {
+    this.accountId = accountId;
+    this.received = received;
+    this.inserted = inserted;
+    this.rejected = rejected;
+    this.rows = rows;
+   }
+    public Long getAccountId() {
+        return accountId;
+    }
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    public int getReceived() {
+        return received;
+    }
+    public void setReceived(int received) {
+        this.received = received;
+    }
+    public int getInserted() {
+        return inserted;
+    }
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+    public int getRejected() {
+        return rejected;
+    }
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    public List<BatchRowResultDTO> getRows() {
+        return rows;
+    }
+    public void setRows(List<BatchRowResultDTO> rows) {
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,59 @@
+package com.mahsa.transaction_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class CategoryRuleDTO {
+    private Long id; //ignored in requests
+
+    @NotBlank(message = "Category cannot be blank")
+    @Size(max=50, message = "Category can be at most 50 characters")
+    private String category;
+
+    @NotBlank(message = "Pattern cannot be blank")
+    @Size(max=200, message = "Pattern can be at most 200 characters")
+    private String pattern;
+
+    private boolean regex; //false: pattern is a case-insensitive substring, true: a case-insensitive regular expression
+
+    private int priority; //lower wins, ties go to the older rule
+
+    public CategoryRuleDTO() {} 
+    public CategoryRuleDTO(Long id, String category, String pattern, boolean regex, int priority) {
+    this.id = id;
+    this.category = category;
+    this.pattern = pattern;
+    this.regex = regex;
+    this.priority = priority;
+   } 
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getCategory() {
+        return category;
+    }
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    public String getPattern() {
+        return pattern;
+    }
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+    public boolean isRegex() {
+        return regex;
+    }
+    public void setRegex(boolean regex) {
+        this.regex = regex;
+    }
+    public int getPriority() {
+        return priority;
+    }
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+}
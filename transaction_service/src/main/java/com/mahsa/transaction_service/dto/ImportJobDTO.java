@@ -0,0 +1,111 @@
+package com.mahsa.transaction_service.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.mahsa.transaction_service.enums.ImportJobStatus;
+import com.mahsa.transaction_service.enums.StatementFormat;
+
+public class ImportJobDTO {
+    private String jobId;
+    private Long accountId;
+    private StatementFormat format;
+    private ImportJobStatus status;
+    private long bytesTotal;
+    private long bytesRead;
+    private int percent; // of the file read so far
+    private long rowsRead;
+    private long inserted;
+    private long rejected;
+    private List<ImportLineErrorDTO> errors; // the first transaction.import.max-reported-errors rejected lines
+    private String failure; // why a FAILED job stopped
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public ImportJobDTO() {}
+
+    public String getJobId() {
+        return jobId;
+    }
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    public Long getAccountId() {
+        return accountId;
+    }
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    public StatementFormat getFormat() {
+        return format;
+    }
+    public void setFormat(StatementFormat format) {
+        this.format = format;
+    }
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+    public void setStatus(ImportJobStatus status) {
+        this.status = status;
+    }
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+    public void setBytesTotal(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+    public int getPercent() {
+        return percent;
+    }
+    public void setPercent(int percent) {
+        this.percent = percent;
+    }
+    public long getRowsRead() {
+        return rowsRead;
+    }
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+    public long getInserted() {
+        return inserted;
+    }
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+    public long getRejected() {
+        return rejected;
+    }
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+    public List<ImportLineErrorDTO> getErrors() {
+        return errors;
+    }
+    public void setErrors(List<ImportLineErrorDTO> errors) {
+        this.errors = errors;
+    }
+    public String getFailure() {
+        return failure;
+    }
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
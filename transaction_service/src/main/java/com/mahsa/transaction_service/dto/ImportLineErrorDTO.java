@@ -0,0 +1,24 @@
+package com.mahsa.transaction_service.dto;
+
+public class ImportLineErrorDTO {
+    private long line;
+    private String message;
+
+    public ImportLineErrorDTO() {}
+    public ImportLineErrorDTO(long line, String message) {
+    this.line = line;
+    this.message = message;
+   }
+    public long getLine() {
+        return line;
+    }
+    public void setLine(long line) {
+        this.line = line;
+    }
+    public String getMessage() {
+        return message;
+    }
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -12,15 +12,17 @@ public class ListedTransactionDTO {
     private  TransactionType type;
     private LocalDate date;
     private Long accountId;
+    private String category;
 
     public ListedTransactionDTO() {} 
-    public ListedTransactionDTO(Long id, String description,BigDecimal amount,TransactionType type, LocalDate date, Long accountId) {
+    public ListedTransactionDTO(Long id, String description,BigDecimal amount,TransactionType type, LocalDate date, Long accountId, String category) {
     this.id = id;
     this.description = description;
     this.amount = amount;
     this.type = type;
     this.date = date;
     this.accountId = accountId;
+    this.category = category;
    } 
     public Long getId() {
         return id;
@@ -58,4 +60,10 @@ public class ListedTransactionDTO {
     public void setAccountId(Long accountId) {
         this.accountId = accountId;
     }
+    public String getCategory() {
+        return category;
+    }
+    public void setCategory(String category) {
+        this.category = category;
+    }
 }
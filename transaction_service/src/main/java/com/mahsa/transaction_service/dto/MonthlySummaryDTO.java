@@ -0,0 +1,53 @@
+package com.mahsa.transaction_service.dto;
+
+import java.math.BigDecimal;
+
+public class MonthlySummaryDTO {
+    private String month; // yyyy-MM
+    private BigDecimal income;
+    private long incomeCount;
+    private BigDecimal expense;
+    private long expenseCount;
+
+    public MonthlySummaryDTO() {}
+    public MonthlySummaryDTO(String month, BigDecimal income, long incomeCount, BigDecimal expense, long expenseCount) {
+    this.month = month;
+    this.income = income;
+    this.incomeCount = incomeCount;
+    this.expense = expense;
+    this.expenseCount = expenseCount;
+   }
+    public String getMonth() {
+        return month;
+    }
+    public void setMonth(String month) {
+        this.month = month;
+    }
+    public BigDecimal getIncome() {
+        return income;
+    }
+    public void setIncome(BigDecimal income) {
+        this.income = income;
+    }
+    public long getIncomeCount() {
+        return incomeCount;
+    }
+    public void setIncomeCount(long incomeCount) {
+        this.incomeCount = incomeCount;
+    }
+    public BigDecimal getExpense() {
+        return expense;
+    }
+    public void setExpense(BigDecimal expense) {
+        this.expense = expense;
+    }
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+    public BigDecimal getNet() {
+        return income.subtract(expense);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mahsa.transaction_service.dto;
+
+import java.util.List;
+
+public class TransactionPageDTO {
+    private List<ListedTransactionDTO> items;
+    private String nextCursor; // null when there are no more rows
+
+    public TransactionPageDTO() {}
+    public TransactionPageDTO(List<ListedTransactionDTO> items, String nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+   }
+    public List<ListedTransactionDTO> getItems() {
+        return items;
+    }
+    public void setItems(List<ListedTransactionDTO> items) {
+        this.items = items;
+    }
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mahsa.transaction_service.dto;
+
+import java.util.List;
+
+public class TransactionSearchResultDTO {
+    private String query;
+    private String mode; // "fulltext", or "fuzzy" when no word matched and trigram similarity was used
+    private int page;
+    private int size;
+    private boolean hasMore;
+    private List<ListedTransactionDTO> items; // best match first
+
+    public TransactionSearchResultDTO() {}
+    public TransactionSearchResultDTO(String query, String mode, int page, int size, boolean hasMore, List<ListedTransactionDTO> items) {
+    this.query = query;
+    this.mode = mode;
+    this.page = page;
+    this.size = size;
+    this.hasMore = hasMore;
+    this.items = items;
+   }
+    public String getQuery() {
+        return query;
+    }
+    public void setQuery(String query) {
+        this.query = query;
+    }
+    public String getMode() {
+        return mode;
+    }
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+    public int getPage() {
+        return page;
+    }
+    public void setPage(int page) {
+        this.page = page;
+    }
+    public int getSize() {
+        return size;
+    }
+    public void setSize(int size) {
+        this.size = size;
+    }
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    public List<ListedTransactionDTO> getItems() {
+        return items;
+    }
+    public void setItems(List<ListedTransactionDTO> items) {
+        this.items = items;
+    }
+}
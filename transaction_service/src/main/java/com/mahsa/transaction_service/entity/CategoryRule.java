@@ -0,0 +1,95 @@
+package com.mahsa.transaction_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// A user's rule for categorizing transactions: when the description contains pattern (case-insensitive),
+// or matches it as a regular expression when regex is true, the transaction gets category.
+// Among matching rules the lowest priority wins, then the oldest rule.
+@Entity
+@Table(name="category_rules", indexes = @Index(name = "idx_category_rules_user_id", columnList = "userId"))
+public class CategoryRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_rules_seq")
+    @SequenceGenerator(name = "category_rules_seq", sequenceName = "category_rules_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 50)
+    private String category;
+
+    @Column(nullable = false, length = 200)
+    private String pattern;
+
+    @Column(nullable = false)
+    private boolean regex;
+
+    @Column(nullable = false)
+    private int priority;
+
+    public CategoryRule() {}
+
+    public CategoryRule(Long userId, String category, String pattern, boolean regex, int priority) {
+        this.userId = userId;
+        this.category = category;
+        this.pattern = pattern;
+        this.regex = regex;
+        this.priority = priority;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public boolean isRegex() {
+        return regex;
+    }
+
+    public void setRegex(boolean regex) {
+        this.regex = regex;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+}
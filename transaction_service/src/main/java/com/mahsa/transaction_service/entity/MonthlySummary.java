@@ -0,0 +1,81 @@
+package com.mahsa.transaction_service.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.mahsa.transaction_service.enums.TransactionType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+// Running totals of an account's transactions per month and type, maintained on every insert
+// (see MonthlySummaryRepository.addToMonth). The primary key (account_id, month, type) lets a summary
+// over N months be read as one index range scan of at most 2 * N rows, however many transactions there are.
+// Transactions without a date are not part of any month.
+@Entity
+@Table(name="monthly_summaries")
+@IdClass(MonthlySummaryId.class)
+public class MonthlySummary {
+    @Id
+    private Long accountId;
+
+    @Id
+    private LocalDate month; // first day of the month
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private TransactionType type;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    public MonthlySummary() {}
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public void setMonth(LocalDate month) {
+        this.month = month;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
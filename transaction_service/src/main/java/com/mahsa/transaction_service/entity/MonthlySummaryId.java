@@ -0,0 +1,51 @@
+package com.mahsa.transaction_service.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import com.mahsa.transaction_service.enums.TransactionType;
+
+// Primary key of MonthlySummary: (accountId, month, type).
+public class MonthlySummaryId implements Serializable {
+    private Long accountId;
+    private LocalDate month;
+    private TransactionType type;
+
+    public MonthlySummaryId() {}
+
+    public MonthlySummaryId(Long accountId, LocalDate month, TransactionType type) {
+        this.accountId = accountId;
+        this.month = month;
+        this.type = type;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public LocalDate getMonth() {
+        return month;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MonthlySummaryId)) {
+            return false;
+        }
+        MonthlySummaryId other = (MonthlySummaryId) o;
+        return Objects.equals(accountId, other.accountId) && Objects.equals(month, other.month) && type == other.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accountId, month, type);
+    }
+}
@@ -12,13 +12,25 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name="transactions")
+// (account_id, date, id) serves date ranges; type and amount filters have their own composite indexes so every
+// filter combination is an index range scan within the account. The unfiltered listing order puts undated rows
+// first, which needs a NULLS FIRST index that JPA cannot declare (see schema.sql).
+@Table(name="transactions", indexes = {
+    @Index(name = "idx_transactions_account_id_date", columnList = "accountId, date, id"),
+    @Index(name = "idx_transactions_account_id_type_date", columnList = "accountId, type, date, id"),
+    @Index(name = "idx_transactions_account_id_amount", columnList = "accountId, amount")
+})
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // A pooled sequence (instead of IDENTITY) lets Hibernate hand out ids without a round trip per row,
+    // which is what allows inserts to be grouped into JDBC batches. allocationSize must match the sequence increment.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id; //Long vs long:
     
     @Column
@@ -37,6 +49,9 @@ public class Transaction {
     @Column(nullable = false)
     private Long accountId;
 
+    @Column(length = 50)
+    private String category; //set by the user's category rules when the transaction is written, null if none matched
+
    public Transaction() {}
 
    // constructor
@@ -94,4 +109,12 @@ public class Transaction {
     public void setDate(LocalDate date) {
         this.date = date;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
 }
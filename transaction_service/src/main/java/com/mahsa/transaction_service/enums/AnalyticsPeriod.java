@@ -0,0 +1,22 @@
+package com.mahsa.transaction_service.enums;
+
+import java.time.LocalDate;
+
+// Grouping of GET /api/analytics/totals. key() numbers the periods consecutively, so periods can index an array.
+public enum AnalyticsPeriod {
+MONTH, YEAR;
+
+    public int key(LocalDate date) {
+        return this == YEAR ? date.getYear() : date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    // First day of the period after the one containing date.
+    public LocalDate nextStart(LocalDate date) {
+        return this == YEAR ? LocalDate.of(date.getYear() + 1, 1, 1) : date.withDayOfMonth(1).plusMonths(1);
+    }
+
+    // "2024" or "2024-03"
+    public String label(int key) {
+        return this == YEAR ? String.valueOf(key) : String.format("%04d-%02d", Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1);
+    }
+}
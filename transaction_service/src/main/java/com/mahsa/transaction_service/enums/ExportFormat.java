@@ -0,0 +1,22 @@
+package com.mahsa.transaction_service.enums;
+
+public enum ExportFormat {
+NDJSON("application/x-ndjson", "ndjson"),
+CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
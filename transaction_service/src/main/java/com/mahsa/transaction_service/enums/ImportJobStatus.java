@@ -0,0 +1,5 @@
+package com.mahsa.transaction_service.enums;
+
+public enum ImportJobStatus {
+QUEUED, RUNNING, COMPLETED, FAILED
+}
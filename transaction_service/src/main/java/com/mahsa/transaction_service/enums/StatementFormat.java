@@ -0,0 +1,11 @@
+package com.mahsa.transaction_service.enums;
+
+public enum StatementFormat {
+CSV, OFX;
+
+    // Picks the format from the file name (.ofx/.qfx are OFX), defaulting to CSV.
+    public static StatementFormat fromFilename(String filename) {
+        String lower = filename == null ? "" : filename.toLowerCase();
+        return lower.endsWith(".ofx") || lower.endsWith(".qfx") ? OFX : CSV;
+    }
+}
@@ -1,5 +1,17 @@
 package com.mahsa.transaction_service.enums;
 
+import java.math.BigDecimal;
+
 public enum TransactionType {
-INCOME, EXPENSE
+INCOME, EXPENSE;
+
+    // The change a transaction of this type makes to its account balance: +amount for INCOME, -amount for EXPENSE.
+    public BigDecimal signed(BigDecimal amount) {
+        return this == EXPENSE ? amount.negate() : amount;
+    }
+
+    // Same, for an amount in minor units (see Money).
+    public long signed(long amount) {
+        return this == EXPENSE ? Math.negateExact(amount) : amount;
+    }
 }
@@ -0,0 +1,5 @@
+package com.mahsa.transaction_service.enums;
+
+public enum ValidationOutcome {
+VALID, USER_NOT_FOUND, ACCOUNT_NOT_OWNED
+}
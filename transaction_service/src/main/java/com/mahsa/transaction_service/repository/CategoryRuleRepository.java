@@ -0,0 +1,23 @@
+package com.mahsa.transaction_service.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.mahsa.transaction_service.entity.CategoryRule;
+
+@Repository
+public interface CategoryRuleRepository extends JpaRepository<CategoryRule, Long> {
+    // In the order rules are applied: the first match wins.
+    List<CategoryRule> findByUserIdOrderByPriorityAscIdAsc(Long userId);
+
+    long countByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryRule r WHERE r.userId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+}
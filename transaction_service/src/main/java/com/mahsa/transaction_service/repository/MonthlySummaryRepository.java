@@ -0,0 +1,73 @@
+package com.mahsa.transaction_service.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.mahsa.transaction_service.entity.MonthlySummary;
+import com.mahsa.transaction_service.entity.MonthlySummaryId;
+
+@Repository
+public interface MonthlySummaryRepository extends JpaRepository<MonthlySummary, MonthlySummaryId> {
+
+    // Months are first-of-month dates; reads the primary key range (account_id, month BETWEEN from AND to).
+    List<MonthlySummary> findByAccountIdAndMonthBetweenOrderByMonthAsc(Long accountId, LocalDate from, LocalDate to);
+
+    // Adds amount/count to one month in a single statement, creating the row if needed.
+    // The row lock it takes serializes concurrent inserts into the same month, so no update is lost.
+    // Callers hold lockAccountForUpdate for the account, so a rebuild of that account cannot run in between.
+    @Modifying
+    @Query(value = "INSERT INTO monthly_summaries (account_id, month, type, total, transaction_count) "
+        + "VALUES (:accountId, :month, :type, :amount, :count) "
+        + "ON CONFLICT (account_id, month, type) DO UPDATE SET "
+        + "total = monthly_summaries.total + EXCLUDED.total, "
+        + "transaction_count = monthly_summaries.transaction_count + EXCLUDED.transaction_count",
+        nativeQuery = true)
+    int addToMonth(@Param("accountId") Long accountId, @Param("month") LocalDate month, @Param("type") String type,
+        @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    @Query(value = "SELECT DISTINCT account_id FROM transactions ORDER BY account_id", nativeQuery = true)
+    List<Long> findAccountIdsWithTransactions();
+
+    // Per-account transaction-level advisory locks (keyed by the account id, released at commit or rollback).
+    // Writers of an account share the lock, so they do not wait for each other; a rebuild of the account takes it
+    // exclusively. The rebuild therefore waits for the account's running inserts to commit and holds back new ones
+    // until it commits, so it sees every committed transaction. Other accounts are never blocked.
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(:accountId)", nativeQuery = true)
+    int lockAccountForUpdate(@Param("accountId") Long accountId);
+
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:accountId)", nativeQuery = true)
+    int lockAccountForRebuild(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query(value = "DELETE FROM monthly_summaries WHERE account_id = :accountId", nativeQuery = true)
+    int deleteByAccount(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query(value = "INSERT INTO monthly_summaries (account_id, month, type, total, transaction_count) "
+        + "SELECT account_id, CAST(date_trunc('month', date) AS date), type, SUM(amount), COUNT(*) "
+        + "FROM transactions WHERE account_id = :accountId AND date IS NOT NULL AND type IS NOT NULL "
+        + "GROUP BY account_id, CAST(date_trunc('month', date) AS date), type",
+        nativeQuery = true)
+    int insertFromTransactions(@Param("accountId") Long accountId);
+
+    // Variants for rebuilding only the months from :fromMonth on, when older months were archived and
+    // their transactions are no longer in the table.
+    @Modifying
+    @Query(value = "DELETE FROM monthly_summaries WHERE account_id = :accountId AND month >= :fromMonth", nativeQuery = true)
+    int deleteByAccountFromMonth(@Param("accountId") Long accountId, @Param("fromMonth") LocalDate fromMonth);
+
+    @Modifying
+    @Query(value = "INSERT INTO monthly_summaries (account_id, month, type, total, transaction_count) "
+        + "SELECT account_id, CAST(date_trunc('month', date) AS date), type, SUM(amount), COUNT(*) "
+        + "FROM transactions WHERE account_id = :accountId AND date >= :fromMonth AND type IS NOT NULL "
+        + "GROUP BY account_id, CAST(date_trunc('month', date) AS date), type",
+        nativeQuery = true)
+    int insertFromTransactionsFromMonth(@Param("accountId") Long accountId, @Param("fromMonth") LocalDate fromMonth);
+}
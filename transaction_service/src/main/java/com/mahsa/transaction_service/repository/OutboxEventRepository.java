@@ -0,0 +1,46 @@
+package com.mahsa.transaction_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.mahsa.transaction_service.entity.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest unpublished events, locked with SKIP LOCKED so several instances can relay without
+    // picking up the same rows. Only the Pageable's size is used.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> lockUnpublished(Pageable pageable);
+
+    // Oldest unpublished event, for the relay lag metric (served by the (publishedAt, id) index).
+    Optional<OutboxEvent> findFirstByPublishedAtIsNullOrderByIdAsc();
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    // Deletes up to :limit events published before :cutoff (a range of the (publishedAt, id) index).
+    // Unpublished events have no publishedAt and are never deleted. "= ANY(ARRAY(...))" makes PostgreSQL find the
+    // rows by primary key; with "IN (subquery)" it may hash-join against a scan of the whole table.
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE id = ANY(ARRAY(SELECT id FROM outbox_events "
+        + "WHERE published_at < :cutoff ORDER BY published_at, id LIMIT :limit))", nativeQuery = true)
+    int deletePublishedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
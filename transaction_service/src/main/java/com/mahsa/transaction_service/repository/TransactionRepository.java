@@ -1,8 +1,13 @@
 package com.mahsa.transaction_service.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.mahsa.transaction_service.entity.Transaction;
@@ -10,4 +15,31 @@ import com.mahsa.transaction_service.entity.Transaction;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction,Long> {
     List<Transaction> findByAccountId(Long accountId);
-}
\ No newline at end of file
+
+    // Keyset pagination: rows are ordered by (date, id) with undated rows first, and each page starts
+    // right after the (date, id) of the last row of the previous page. Only the Pageable's size is used.
+    // The NULLS FIRST order is read from idx_transactions_account_id_date_nulls_first (schema.sql). The condition
+    // date >= :afterDate is implied by the one after it, but only it gives the index scan a starting point.
+
+    @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId ORDER BY t.date ASC NULLS FIRST, t.id ASC")
+    List<Transaction> findFirstPageByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId"
+        + " AND ((t.date IS NULL AND t.id > :afterId) OR t.date IS NOT NULL)"
+        + " ORDER BY t.date ASC NULLS FIRST, t.id ASC")
+    List<Transaction> findPageByAccountIdAfterUndated(@Param("accountId") Long accountId,
+        @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t WHERE t.accountId = :accountId"
+        + " AND t.date >= :afterDate AND (t.date > :afterDate OR t.id > :afterId)"
+        + " ORDER BY t.date ASC, t.id ASC")
+    List<Transaction> findPageByAccountIdAfter(@Param("accountId") Long accountId,
+        @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Signed balance effect per account: [accountId, SUM(+amount for INCOME, -amount for EXPENSE)].
+    // Accounts without transactions are not returned.
+    @Query("SELECT t.accountId, SUM(CASE WHEN t.type = com.mahsa.transaction_service.enums.TransactionType.INCOME THEN t.amount"
+        + " WHEN t.type = com.mahsa.transaction_service.enums.TransactionType.EXPENSE THEN -t.amount ELSE 0 END)"
+        + " FROM Transaction t WHERE t.accountId IN :accountIds GROUP BY t.accountId")
+    List<Object[]> sumSignedAmountsByAccountIds(@Param("accountIds") Collection<Long> accountIds);
+}
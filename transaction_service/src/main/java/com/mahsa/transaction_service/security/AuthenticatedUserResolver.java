@@ -0,0 +1,65 @@
+package com.mahsa.transaction_service.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.mahsa.transaction_service.service.ValidationService;
+
+/**
+ * Decides which user a request acts for.
+ * By default this is the X-User-ID header, which is then checked with user-service like before.
+ * With security.trusted-claims.enabled=true it is the userId of the verified JWT, i.e. the principal that
+ * JwtRequestFilter put in the SecurityContext; the header becomes optional and must match it if sent.
+ */
+@Component
+public class AuthenticatedUserResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticatedUserResolver.class);
+
+    @Value("${security.trusted-claims.enabled}")
+    private boolean trustedClaims;
+
+    private final ValidationService validationService;
+
+    public AuthenticatedUserResolver(ValidationService validationService) {
+        this.validationService = validationService;
+    }
+
+    /**
+     * @return True if the user id is taken from the verified JWT and needs no user-service round trip.
+     */
+    public boolean isTrustedClaims() {
+        return trustedClaims;
+    }
+
+    /**
+     * Resolves the user id of the current request.
+     *
+     * @param headerUserId The X-User-ID header, or null if it was not sent.
+     * @return The user id, or null if there is none: header missing (default mode), or no valid JWT,
+     * a header that does not match the token, or a revoked user (trusted-claims mode).
+     */
+    public Long resolveUserId(Long headerUserId) {
+        if (!trustedClaims) {
+            return headerUserId;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof Long)) {
+            return null;
+        }
+        Long tokenUserId = (Long) authentication.getPrincipal();
+        if (headerUserId != null && !headerUserId.equals(tokenUserId)) {
+            logger.warn("X-User-ID header {} does not match the JWT user {}", headerUserId, tokenUserId);
+            return null;
+        }
+        if (validationService.isUserRevoked(tokenUserId)) {
+            logger.warn("Rejecting request of revoked user {}", tokenUserId);
+            return null;
+        }
+        return tokenUserId;
+    }
+}
@@ -44,14 +44,16 @@ public class JwtRequestFilter extends OncePerRequestFilter { // Ensures this fil
             jwtToken = authorizationHeader.substring(7); // Extract the token part (after "Bearer ")
 
             try {
-                // 3. Validate the token using JwtUtil
-                // jwtUtil.validateToken() internally checks signature, expiration, and format,
-                if (jwtUtil.validateToken(jwtToken)) {
-                    // 4. If token is valid, extract userId and username claims
-                    userIdFromToken = jwtUtil.extractUserId(jwtToken);
-                    usernameFromToken = jwtUtil.extractUsername(jwtToken);
+                // 3. Verify the token once using JwtUtil.
+                // jwtUtil.verifyToken() checks signature, expiration, and format in a single parse
+                // (or answers from its cache of already verified tokens) and returns the claims we need.
+                VerifiedToken verifiedToken = jwtUtil.verifyToken(jwtToken);
+                if (verifiedToken != null) {
+                    // 4. If token is valid, take userId and username from the verified claims
+                    userIdFromToken = verifiedToken.getUserId();
+                    usernameFromToken = verifiedToken.getUsername();
                 } else {
-                    // If validateToken returns false, it means an issue was found and logged by JwtUtil
+                    // If verifyToken returns null, it means an issue was found and logged by JwtUtil
                     // (e.g., expired, bad signature, malformed).
                     logger.warn("JWT Token validation failed (details logged by JwtUtil). Request to URI: {}", request.getRequestURI());
                 }
@@ -1,12 +1,21 @@
 package com.mahsa.transaction_service.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +24,11 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -27,9 +40,31 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secretString;
 
+    // Maximum number of verified tokens remembered by verifyToken().
+    @Value("${jwt.cache.max-size}")
+    private long cacheMaxSize;
+
     // The SecretKey object derived from the secretString.
     private SecretKey key;
 
+    // Parser configured with the key. JwtParser is immutable and thread-safe, so it is built once and shared.
+    private JwtParser parser;
+
+    // Tokens that already passed signature verification, keyed by the SHA-256 digest of the token string.
+    // Each entry expires at the token's own 'exp', so an expired token is never served from the cache.
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    private final MeterRegistry meterRegistry;
+
+    // Signature checks (the cache misses of verifyToken) are observed as jwt.verification: a timer tagged with
+    // result (valid / invalid) and, when the request is traced, a span.
+    private final ObservationRegistry observationRegistry;
+
+    public JwtUtil(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
     // This method is called by Spring after the bean is constructed and properties are injected.
     // It initializes the SecretKey.
     @PostConstruct
@@ -38,6 +73,7 @@ public class JwtUtil {
             // Converts the string secret into a SecretKey suitable for HMAC-SHA algorithms.
             // The key length should be appropriate for the algorithm (e.g., HS256 needs at least 256 bits / 32 bytes).
             this.key = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+            this.parser = Jwts.parser().verifyWith(key).build();
         } catch (Exception e) {
             // If the secretString is too short or invalid for the algorithm,
             // hmacShaKeyFor can throw an exception (e.g., WeakKeyException).
@@ -45,6 +81,30 @@ public class JwtUtil {
             // Prevent application startup if the key cannot be initialized by re-throwing a runtime exception:
             throw new RuntimeException("Failed to initialize JWT SecretKey due to invalid secret string", e);
         }
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        long millisLeft = token.getExpiration() == null
+                                ? 0
+                                : token.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedJwt");
     }
 
     /**
@@ -65,13 +125,56 @@ public class JwtUtil {
         // .build() finalizes the parser configuration.
         // .parseSignedClaims(token) parses the JWS string, verifies signature, checks expiration, etc.
         // .getPayload() returns the claims (payload) part of the token.
-        return Jwts.parser()
-                .verifyWith(key) 
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Verifies the token once and returns the claims this service uses.
+     * A token seen before (and not yet expired) is answered from the cache without re-verifying its signature.
+     * Invalid tokens are logged and never cached.
+     *
+     * @param token The JWT string.
+     * @return The verified claims, or null if the token is invalid or expired.
+     */
+    public VerifiedToken verifyToken(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Observation observation = Observation.start("jwt.verification", observationRegistry);
+        try {
+            Claims claims = extractAllClaims(token);
+            observation.lowCardinalityKeyValue("result", "valid");
+            VerifiedToken verified = new VerifiedToken(
+                    claims.get("userId", Long.class),
+                    claims.getSubject(),
+                    claims.getExpiration());
+            if (verified.getExpiration() != null) { // tokens without 'exp' are accepted but not cached
+                verifiedTokens.put(digest, verified);
+            }
+            return verified;
+        } catch (Exception e) {
+            observation.lowCardinalityKeyValue("result", "invalid");
+            logInvalidToken(e);
+            return null;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * A generic function to extract a specific claim from the token.
      *
@@ -135,23 +238,29 @@ public class JwtUtil {
             // If extractAllClaims doesn't throw an exception, the token is considered valid
             // in terms of signature, format, and standard claims like 'exp'.
             return true;
-        } catch (SignatureException e) {
+        } catch (Exception e) {
+            logInvalidToken(e);
+        }
+        return false; // If any exception was caught, the token is considered invalid.
+    }
+
+    private void logInvalidToken(Exception e) {
+        if (e instanceof SignatureException) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
-        } catch (MalformedJwtException e) {
+        } else if (e instanceof MalformedJwtException) {
             logger.error("Invalid JWT token (malformed): {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
+        } else if (e instanceof ExpiredJwtException) {
             // This is expected if the token is past its expiration date.
             logger.warn("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
+        } else if (e instanceof UnsupportedJwtException) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
+        } else if (e instanceof IllegalArgumentException) {
             // This can happen if the token string is null, empty, or only whitespace,
             // or if claims are missing when expected by specific getters.
             logger.error("JWT claims string is empty or argument is invalid: {}", e.getMessage());
-        } catch (Exception e) {
+        } else {
             // Catch-all for any other unexpected exceptions during parsing.
             logger.error("Unexpected error validating JWT token: {}", e.getMessage(), e);
         }
-        return false; // If any exception was caught, the token is considered invalid.
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package com.mahsa.transaction_service.security;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.mahsa.common.security.ServiceTokens;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates calls from the other services on the service-to-service endpoints (SERVICE_PATHS). The caller sends
+ * a service token addressed to transaction_service in the X-Service-Token header (see ServiceTokens). A valid token
+ * gives the request the SERVICE role. User JWTs never get that role, and service tokens are ignored on every other
+ * path.
+ */
+@Component
+public class ServiceTokenFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenFilter.class);
+
+    public static final String ROLE = "SERVICE";
+    public static final Set<String> SERVICE_PATHS = Set.of("/api/transactions/balance-sums");
+
+    private final ServiceTokens serviceTokens;
+
+    public ServiceTokenFilter(ServiceTokens serviceTokens) {
+        this.serviceTokens = serviceTokens;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !SERVICE_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ServiceTokens.HEADER);
+        if (token != null) {
+            try {
+                String service = serviceTokens.verify(token);
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    service, null, List.of(new SimpleGrantedAuthority("ROLE_" + ROLE))));
+            } catch (JwtException e) {
+                logger.warn("Rejected service token on {}: {}", request.getRequestURI(), e.getMessage());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mahsa.transaction_service.security;
+
+import java.util.Date;
+
+/**
+ * The claims this service needs from a JWT whose signature and expiration have already been verified.
+ */
+public class VerifiedToken {
+    private final Long userId;
+    private final String username;
+    private final Date expiration;
+
+    public VerifiedToken(Long userId, String username, Date expiration) {
+        this.userId = userId;
+        this.username = username;
+        this.expiration = expiration;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mahsa.transaction_service.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mahsa.common.security.ServiceTokens;
+import com.mahsa.transaction_service.dto.BalanceDeltaDTO;
+import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.entity.OutboxEvent;
+
+/**
+ * Sends TransactionCreated events to account-service as balance deltas (POST {account.service.url}/balance-deltas).
+ * account-service ignores deltas of transactions it has already applied, so redelivery is harmless. Each call carries
+ * a service token (X-Service-Token), without which account-service refuses the deltas.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher.account-balance.enabled", havingValue = "true", matchIfMissing = true)
+public class AccountBalancePublisher implements OutboxPublisher {
+
+    // spring.application.name of account-service, the audience of its service tokens
+    private static final String ACCOUNT_SERVICE = "account_service";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ServiceTokens serviceTokens;
+
+    @Value("${account.service.url}")
+    private String accountServiceBaseUrl;
+
+    public AccountBalancePublisher(RestTemplate restTemplate, ObjectMapper objectMapper, ServiceTokens serviceTokens) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.serviceTokens = serviceTokens;
+    }
+
+    @Override
+    public String name() {
+        return "account-balance";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        List<BalanceDeltaDTO> deltas = events.stream()
+            .filter(event -> OutboxEvent.TRANSACTION_CREATED.equals(event.getEventType()))
+            .map(this::toBalanceDelta)
+            .collect(Collectors.toList());
+        if (!deltas.isEmpty()) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(ServiceTokens.HEADER, serviceTokens.issue(ACCOUNT_SERVICE));
+            // Throws on a non-2xx answer, which keeps the events unpublished.
+            restTemplate.postForEntity(accountServiceBaseUrl + "/balance-deltas", new HttpEntity<>(deltas, headers), Void.class);
+        }
+    }
+
+    private BalanceDeltaDTO toBalanceDelta(OutboxEvent event) {
+        try {
+            ListedTransactionDTO transaction = objectMapper.readValue(event.getPayload(), ListedTransactionDTO.class);
+            return new BalanceDeltaDTO(
+                transaction.getId(),
+                transaction.getAccountId(),
+                transaction.getType().signed(transaction.getAmount()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload in outbox event " + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mahsa.transaction_service.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Case-insensitive multi-pattern substring matcher (Aho-Corasick automaton). After building, one pass over a text
+ * reports every occurrence of every pattern in O(text length + number of matches), independent of the number of
+ * patterns. Immutable and safe to share between threads.
+ */
+public final class AhoCorasick {
+
+    // Transitions of each state, as parallel arrays sorted by character (binary searched).
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;      // longest proper suffix of the state that is also a state
+    private final int[] dictLink;  // nearest state along the fail chain that ends a pattern (0: none)
+    private final int[][] outputs; // ids of the patterns ending exactly at the state
+
+    private AhoCorasick(char[][] keys, int[][] targets, int[] fail, int[] dictLink, int[][] outputs) {
+        this.keys = keys;
+        this.targets = targets;
+        this.fail = fail;
+        this.dictLink = dictLink;
+        this.outputs = outputs;
+    }
+
+    /**
+     * @param patterns The patterns; a pattern's id is its index in the list. Empty patterns never match.
+     */
+    public static AhoCorasick build(List<String> patterns) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        children.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i));
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ends.get(state).add(id);
+        }
+
+        int states = children.size();
+        char[][] keys = new char[states][];
+        int[][] targets = new int[states][];
+        int[][] outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            TreeMap<Character, Integer> transitions = children.get(state);
+            keys[state] = new char[transitions.size()];
+            targets[state] = new int[transitions.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                keys[state][i] = transition.getKey();
+                targets[state][i] = transition.getValue();
+                i++;
+            }
+            outputs[state] = ends.get(state).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Breadth-first, so the fail state of every state is computed before the state's children.
+        int[] fail = new int[states];
+        int[] dictLink = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            queue.add(child);
+        }
+        AhoCorasick partial = new AhoCorasick(keys, targets, fail, dictLink, outputs);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < keys[state].length; i++) {
+                char c = keys[state][i];
+                int child = targets[state][i];
+                int f = fail[state];
+                while (f != 0 && partial.transition(f, c) < 0) {
+                    f = fail[f];
+                }
+                int target = partial.transition(f, c);
+                fail[child] = target >= 0 && target != child ? target : 0;
+                dictLink[child] = outputs[fail[child]].length > 0 ? fail[child] : dictLink[fail[child]];
+                queue.add(child);
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Calls onMatch with the id of every pattern occurrence in the text (a pattern found twice is reported twice).
+     */
+    public void match(CharSequence text, IntConsumer onMatch) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+            for (int id : outputs[state]) {
+                onMatch.accept(id);
+            }
+            for (int d = dictLink[state]; d != 0; d = dictLink[d]) {
+                for (int id : outputs[d]) {
+                    onMatch.accept(id);
+                }
+            }
+        }
+    }
+
+    public int stateCount() {
+        return keys.length;
+    }
+
+    // Same per-character folding as Pattern.CASE_INSENSITIVE | UNICODE_CASE, so e.g. dotless i matches I and i.
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private int transition(int state, char c) {
+        char[] stateKeys = keys[state];
+        int low = 0;
+        int high = stateKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (stateKeys[mid] < c) {
+                low = mid + 1;
+            } else if (stateKeys[mid] > c) {
+                high = mid - 1;
+            } else {
+                return targets[state][mid];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,252 @@
+package com.mahsa.transaction_service.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mahsa.common.Money;
+import com.mahsa.transaction_service.dto.AmountPercentilesDTO;
+import com.mahsa.transaction_service.dto.AnalyticsBucketDTO;
+import com.mahsa.transaction_service.enums.AnalyticsPeriod;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Spending reports (totals per month/year, amount percentiles) over one or more accounts, computed with plain
+ * loops over ColumnarTransactions instead of entity lists and BigDecimal sums. The columns of recently used
+ * accounts are cached, bounded by analytics.cache.max-rows rows in total (least recently / frequently used
+ * accounts are evicted first); writes invalidate their account after commit. Loading goes through
+ * TransactionQueryService, so archived months are included.
+ * Load times are published as the analytics.load timer, cache hits as cache.* (cache=analyticsColumns).
+ */
+@Service
+public class AnalyticsService {
+
+    private final TransactionQueryService transactionQueryService;
+    private final LoadingCache<Long, ColumnarTransactions> columns;
+    private final Timer loadTimer;
+
+    public AnalyticsService(TransactionQueryService transactionQueryService, MeterRegistry meterRegistry,
+        @Value("${analytics.cache.max-rows}") long maxRows,
+        @Value("${analytics.cache.ttl}") Duration ttl) {
+        this.transactionQueryService = transactionQueryService;
+        this.loadTimer = Timer.builder("analytics.load")
+            .description("Time to load the transactions of one account into columns")
+            .register(meterRegistry);
+        this.columns = Caffeine.newBuilder()
+            .maximumWeight(maxRows)
+            .weigher((Long accountId, ColumnarTransactions account) -> account.size() + 1)
+            // Safety net for rows changed outside TransactionWriteService (e.g. by hand in the database).
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, columns, "analyticsColumns");
+    }
+
+    private ColumnarTransactions load(Long accountId) {
+        return loadTimer.record(() -> {
+            ColumnarTransactions.Builder builder = new ColumnarTransactions.Builder();
+            transactionQueryService.forEachByAccountId(accountId, TransactionFilter.NONE, builder::add);
+            return builder.build();
+        });
+    }
+
+    /**
+     * Drops the cached columns of the accounts once the current DB transaction commits (right away without one),
+     * so the next report reloads them with the new rows.
+     */
+    public void invalidateAfterCommit(Collection<Long> accountIds) {
+        Set<Long> accounts = new TreeSet<>(accountIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            columns.invalidateAll(accounts);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                columns.invalidateAll(accounts);
+            }
+        });
+    }
+
+    /**
+     * Income and expense per period over the accounts, for the periods that have dated transactions between
+     * from and to (inclusive, either may be null), ordered by orderBy: "period" ascending, or "income",
+     * "expense" or "net" descending (e.g. the top spending months). At most limit buckets are returned.
+     */
+    public List<AnalyticsBucketDTO> totals(List<Long> accountIds, AnalyticsPeriod period, LocalDate from, LocalDate to,
+        String orderBy, int limit) {
+        PeriodTotals totals = totals(load(accountIds), period, fromDay(from), toDay(to));
+        List<AnalyticsBucketDTO> buckets = new ArrayList<>();
+        for (int i = 0; i < totals.income.length; i++) {
+            if (totals.incomeCount[i] == 0 && totals.expenseCount[i] == 0) {
+                continue;
+            }
+            buckets.add(new AnalyticsBucketDTO(
+                period.label(totals.firstKey + i),
+                Money.toBigDecimal(totals.income[i]),
+                totals.incomeCount[i],
+                Money.toBigDecimal(totals.expense[i]),
+                totals.expenseCount[i],
+                Money.toBigDecimal(Money.subtract(totals.income[i], totals.expense[i]))));
+        }
+        Comparator<AnalyticsBucketDTO> order = switch (orderBy) {
+            case "income" -> Comparator.comparing(AnalyticsBucketDTO::getIncome).reversed();
+            case "expense" -> Comparator.comparing(AnalyticsBucketDTO::getExpense).reversed();
+            case "net" -> Comparator.comparing(AnalyticsBucketDTO::getNet).reversed();
+            default -> null; // already in period order
+        };
+        if (order != null) {
+            buckets.sort(order);
+        }
+        return buckets.size() > limit ? new ArrayList<>(buckets.subList(0, limit)) : buckets;
+    }
+
+    /**
+     * Nearest-rank percentiles of the amounts of the accounts' transactions of the type (both types if null),
+     * dated between from and to (inclusive, either may be null; undated rows only count without bounds).
+     *
+     * @param percentiles Values in (0, 100].
+     */
+    public AmountPercentilesDTO percentiles(List<Long> accountIds, TransactionType type, LocalDate from, LocalDate to,
+        double[] percentiles) {
+        long[] amounts = amounts(load(accountIds), type == null ? ColumnarTransactions.UNTYPED : ColumnarTransactions.typeCode(type),
+            from == null && to == null ? ColumnarTransactions.UNDATED : fromDay(from), toDay(to));
+        Arrays.sort(amounts);
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        if (amounts.length > 0) {
+            for (double percentile : percentiles) {
+                values.put(formatPercentile(percentile), Money.toBigDecimal(amounts[nearestRank(percentile, amounts.length)]));
+            }
+        }
+        return new AmountPercentilesDTO(type, amounts.length, values);
+    }
+
+    private List<ColumnarTransactions> load(List<Long> accountIds) {
+        return new ArrayList<>(columns.getAll(accountIds).values());
+    }
+
+    // Dated rows only: undated rows sort first with ColumnarTransactions.UNDATED.
+    private static int fromDay(LocalDate from) {
+        return from == null ? ColumnarTransactions.UNDATED + 1 : Math.toIntExact(from.toEpochDay());
+    }
+
+    // Exclusive upper bound.
+    private static int toDay(LocalDate to) {
+        return to == null ? Integer.MAX_VALUE : Math.toIntExact(to.toEpochDay() + 1);
+    }
+
+    static int nearestRank(double percentile, int count) {
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return Math.min(Math.max(rank, 1), count) - 1;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Sums per period: index i holds period key firstKey + i (see AnalyticsPeriod.key). Amounts in minor units.
+     */
+    public static final class PeriodTotals {
+        public final int firstKey;
+        public final long[] income;
+        public final long[] expense;
+        public final long[] incomeCount;
+        public final long[] expenseCount;
+
+        PeriodTotals(int firstKey, int periods) {
+            this.firstKey = firstKey;
+            this.income = new long[periods];
+            this.expense = new long[periods];
+            this.incomeCount = new long[periods];
+            this.expenseCount = new long[periods];
+        }
+    }
+
+    /**
+     * The group-by loop: one pass over the date slice of every account. Rows are in date order, so the period
+     * key only changes at period boundaries and is recomputed there, not per row.
+     *
+     * @param fromDay First epoch day included.
+     * @param toDay   First epoch day excluded.
+     */
+    public static PeriodTotals totals(List<ColumnarTransactions> accounts, AnalyticsPeriod period, int fromDay, int toDay) {
+        int firstKey = Integer.MAX_VALUE;
+        int lastKey = Integer.MIN_VALUE;
+        for (ColumnarTransactions account : accounts) {
+            int first = account.firstRowOnOrAfter(fromDay);
+            int end = account.firstRowOnOrAfter(toDay);
+            if (first < end) {
+                firstKey = Math.min(firstKey, period.key(LocalDate.ofEpochDay(account.epochDay(first))));
+                lastKey = Math.max(lastKey, period.key(LocalDate.ofEpochDay(account.epochDay(end - 1))));
+            }
+        }
+        if (firstKey > lastKey) {
+            return new PeriodTotals(0, 0);
+        }
+        PeriodTotals totals = new PeriodTotals(firstKey, lastKey - firstKey + 1);
+        for (ColumnarTransactions account : accounts) {
+            int end = account.firstRowOnOrAfter(toDay);
+            int index = 0;
+            long nextPeriodDay = Long.MIN_VALUE;
+            for (int row = account.firstRowOnOrAfter(fromDay); row < end; row++) {
+                int day = account.epochDay(row);
+                if (day >= nextPeriodDay) {
+                    LocalDate date = LocalDate.ofEpochDay(day);
+                    index = period.key(date) - firstKey;
+                    nextPeriodDay = period.nextStart(date).toEpochDay();
+                }
+                byte type = account.type(row);
+                if (type == ColumnarTransactions.INCOME) {
+                    totals.income[index] = Money.add(totals.income[index], account.amount(row));
+                    totals.incomeCount[index]++;
+                } else if (type == ColumnarTransactions.EXPENSE) {
+                    totals.expense[index] = Money.add(totals.expense[index], account.amount(row));
+                    totals.expenseCount[index]++;
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * The amounts of the rows of the type (any type if UNTYPED) with fromDay <= day < toDay, unsorted.
+     */
+    public static long[] amounts(List<ColumnarTransactions> accounts, byte type, int fromDay, int toDay) {
+        int capacity = 0;
+        for (ColumnarTransactions account : accounts) {
+            capacity += account.firstRowOnOrAfter(toDay) - account.firstRowOnOrAfter(fromDay);
+        }
+        long[] amounts = new long[capacity];
+        int count = 0;
+        for (ColumnarTransactions account : accounts) {
+            int end = account.firstRowOnOrAfter(toDay);
+            for (int row = account.firstRowOnOrAfter(fromDay); row < end; row++) {
+                if (type == ColumnarTransactions.UNTYPED || account.type(row) == type) {
+                    amounts[count++] = account.amount(row);
+                }
+            }
+        }
+        return count == capacity ? amounts : Arrays.copyOf(amounts, count);
+    }
+}
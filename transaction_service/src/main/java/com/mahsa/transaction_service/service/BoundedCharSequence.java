@@ -0,0 +1,60 @@
+package com.mahsa.transaction_service.service;
+
+/**
+ * A String seen as a CharSequence that allows a limited number of charAt calls, shared with its subsequences.
+ * java.util.regex reads its input only through charAt, so matching against it cannot run longer than the limit:
+ * the next read throws StepLimitExceeded instead.
+ */
+final class BoundedCharSequence implements CharSequence {
+
+    /** Thrown when the reads are used up. Carries no stack trace, it is expected on pathological patterns. */
+    static final class StepLimitExceeded extends RuntimeException {
+        private StepLimitExceeded() {
+            super("regex step limit exceeded", null, false, false);
+        }
+    }
+
+    private static final StepLimitExceeded STEP_LIMIT_EXCEEDED = new StepLimitExceeded();
+
+    private final String text;
+    private final int start;
+    private final int end;
+    private final int[] stepsLeft; // shared with subsequences
+
+    BoundedCharSequence(String text, int maxSteps) {
+        this(text, 0, text.length(), new int[] {maxSteps});
+    }
+
+    private BoundedCharSequence(String text, int start, int end, int[] stepsLeft) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.stepsLeft = stepsLeft;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (--stepsLeft[0] < 0) {
+            throw STEP_LIMIT_EXCEEDED;
+        }
+        return text.charAt(start + index);
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to > length() || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + length());
+        }
+        return new BoundedCharSequence(text, start + from, start + to, stepsLeft);
+    }
+
+    @Override
+    public String toString() {
+        return text.substring(start, end);
+    }
+}
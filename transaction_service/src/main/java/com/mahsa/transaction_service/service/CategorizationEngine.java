@@ -0,0 +1,306 @@
+package com.mahsa.transaction_service.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.mahsa.transaction_service.entity.CategoryRule;
+
+/**
+ * One user's category rules compiled for matching. All substring rules, plus one required literal of each regex
+ * rule, go into a single AhoCorasick automaton, so a description is scanned once whatever the number of rules.
+ * A regex rule is only evaluated when its literal occurs in the description and no better rule has matched yet;
+ * regex rules without a usable literal (alternations, escapes like \x41) are evaluated for every description.
+ * A regex sees the description through a BoundedCharSequence: after MAX_REGEX_STEPS character reads it gives up and
+ * the rule counts as not matching, so a backtracking pattern cannot hold up a write.
+ * Immutable: a reload compiles a new engine and swaps it in.
+ */
+public final class CategorizationEngine {
+
+    // Character reads one regex may make on one description. Descriptions are at most 255 characters, so ordinary
+    // patterns need a few thousand at most; catastrophic backtracking would need billions.
+    static final int MAX_REGEX_STEPS = 100_000;
+
+    public static final CategorizationEngine EMPTY = compile(List.of());
+
+    private final String[] categories;   // by rank: index in the priority order of the rules
+    private final Pattern[] regexes;     // by rank, null for substring rules
+    private final int[] literalRanks;    // automaton pattern id -> rank of the rule it belongs to
+    private final AhoCorasick matcher;
+    private final BitSet untriggeredRegexes;
+
+    private CategorizationEngine(String[] categories, Pattern[] regexes, int[] literalRanks, AhoCorasick matcher,
+        BitSet untriggeredRegexes) {
+        this.categories = categories;
+        this.regexes = regexes;
+        this.literalRanks = literalRanks;
+        this.matcher = matcher;
+        this.untriggeredRegexes = untriggeredRegexes;
+    }
+
+    /**
+     * @param rules The rules in priority order (first match wins), as returned by
+     *              CategoryRuleRepository.findByUserIdOrderByPriorityAscIdAsc.
+     * @throws java.util.regex.PatternSyntaxException if a regex rule does not compile.
+     */
+    public static CategorizationEngine compile(List<CategoryRule> rules) {
+        String[] categories = new String[rules.size()];
+        Pattern[] regexes = new Pattern[rules.size()];
+        List<String> literals = new ArrayList<>();
+        List<Integer> literalRanks = new ArrayList<>();
+        BitSet untriggeredRegexes = new BitSet();
+        for (int rank = 0; rank < rules.size(); rank++) {
+            CategoryRule rule = rules.get(rank);
+            categories[rank] = rule.getCategory();
+            String literal;
+            if (rule.isRegex()) {
+                regexes[rank] = compileRegex(rule.getPattern());
+                literal = requiredLiteral(rule.getPattern());
+                if (literal == null) {
+                    untriggeredRegexes.set(rank);
+                    continue;
+                }
+            } else {
+                literal = rule.getPattern();
+            }
+            literals.add(literal);
+            literalRanks.add(rank);
+        }
+        return new CategorizationEngine(categories, regexes, literalRanks.stream().mapToInt(Integer::intValue).toArray(),
+            AhoCorasick.build(literals), untriggeredRegexes);
+    }
+
+    public static Pattern compileRegex(String regex) {
+        return Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    /**
+     * @return The category of the first rule (in priority order) that matches the description, or null.
+     */
+    public String categorize(String description) {
+        if (description == null || categories.length == 0) {
+            return null;
+        }
+        int[] bestSubstring = {Integer.MAX_VALUE};
+        BitSet candidateRegexes = (BitSet) untriggeredRegexes.clone();
+        matcher.match(description, id -> {
+            int rank = literalRanks[id];
+            if (regexes[rank] != null) {
+                candidateRegexes.set(rank);
+            } else if (rank < bestSubstring[0]) {
+                bestSubstring[0] = rank;
+            }
+        });
+        // Only regex rules ranked above the best substring match can still win; try them in order.
+        for (int rank = candidateRegexes.nextSetBit(0); rank >= 0 && rank < bestSubstring[0];
+            rank = candidateRegexes.nextSetBit(rank + 1)) {
+            try {
+                if (regexes[rank].matcher(new BoundedCharSequence(description, MAX_REGEX_STEPS)).find()) {
+                    return categories[rank];
+                }
+            } catch (BoundedCharSequence.StepLimitExceeded e) {
+                // Too expensive on this description: the rule does not match it.
+            }
+        }
+        return bestSubstring[0] == Integer.MAX_VALUE ? null : categories[bestSubstring[0]];
+    }
+
+    public boolean isEmpty() {
+        return categories.length == 0;
+    }
+
+    public int ruleCount() {
+        return categories.length;
+    }
+
+    /**
+     * True if the regex repeats a group any number of times (*, + or {n,}) while the group itself contains a variable
+     * repetition (*, +, {n,m} or {n,}), like (a+)+ or (\w*\s)*. Such patterns can backtrack exponentially on a
+     * near-match, so CategorizationService rejects them when a rule is saved. Bounded repeats of a group, like
+     * (\d{1,3}\.){3}, are allowed.
+     */
+    static boolean hasNestedRepetition(String regex) {
+        Deque<boolean[]> openGroups = new ArrayDeque<>(); // per open group: does it contain a repetition so far
+        boolean closedGroupRepeats = false;                // the group that just closed contains a repetition
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            boolean unbounded; // repeats any number of times
+            boolean variable;  // repeats a variable number of times
+            switch (c) {
+                case '\\' -> {
+                    i++;
+                    closedGroupRepeats = false;
+                    continue;
+                }
+                case '[' -> {
+                    int end = skipClass(regex, i);
+                    if (end < 0) {
+                        return false; // not a valid regex; compiling it reports the error
+                    }
+                    i = end - 1;
+                    closedGroupRepeats = false;
+                    continue;
+                }
+                case '(' -> {
+                    openGroups.push(new boolean[1]);
+                    closedGroupRepeats = false;
+                    continue;
+                }
+                case ')' -> {
+                    boolean[] group = openGroups.poll();
+                    closedGroupRepeats = group != null && group[0];
+                    if (closedGroupRepeats && !openGroups.isEmpty()) {
+                        openGroups.peek()[0] = true;
+                    }
+                    continue;
+                }
+                case '*', '+' -> {
+                    unbounded = true;
+                    variable = true;
+                }
+                case '{' -> {
+                    int close = regex.indexOf('}', i);
+                    if (close < 0) {
+                        return false;
+                    }
+                    // {n} repeats exactly n times, {n,m} a variable number, {n,} any number
+                    variable = regex.substring(i, close).indexOf(',') >= 0;
+                    unbounded = regex.charAt(close - 1) == ',';
+                    i = close;
+                }
+                default -> {
+                    closedGroupRepeats = false;
+                    continue;
+                }
+            }
+            if (unbounded && closedGroupRepeats) {
+                return true;
+            }
+            if (variable && !openGroups.isEmpty()) {
+                openGroups.peek()[0] = true;
+            }
+            closedGroupRepeats = false;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the longest run of plain characters that every match of the regex must contain, or null if none can be
+     * determined safely. Conservative: anything inside a group or character class is ignored, a character followed
+     * by ?, * or {..} is dropped, and alternations or unusual escapes give up entirely.
+     */
+    static String requiredLiteral(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return null;
+        }
+        StringBuilder run = new StringBuilder();
+        String best = "";
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= regex.length()) {
+                    return null;
+                }
+                char escaped = regex.charAt(i + 1);
+                i += 2;
+                if (Character.isLetterOrDigit(escaped)) {
+                    if ("dDsSwWbBhHvVRXAzZGtnrfae".indexOf(escaped) < 0) {
+                        return null;
+                    }
+                    best = longer(best, run);
+                    run.setLength(0);
+                } else {
+                    run.append(escaped);
+                }
+                continue;
+            }
+            switch (c) {
+                case '[' -> {
+                    best = longer(best, run);
+                    run.setLength(0);
+                    i = skipClass(regex, i);
+                    if (i < 0) {
+                        return null;
+                    }
+                    continue;
+                }
+                case '(' -> {
+                    best = longer(best, run);
+                    run.setLength(0);
+                    i = skipGroup(regex, i);
+                    if (i < 0) {
+                        return null;
+                    }
+                    continue;
+                }
+                case '?', '*', '{' -> {
+                    if (run.length() > 0) {
+                        run.setLength(run.length() - 1);
+                    }
+                    best = longer(best, run);
+                    run.setLength(0);
+                    if (c == '{') {
+                        int close = regex.indexOf('}', i);
+                        if (close < 0) {
+                            return null;
+                        }
+                        i = close;
+                    }
+                }
+                case '+', '.', '^', '$', ')', ']', '}' -> {
+                    best = longer(best, run);
+                    run.setLength(0);
+                }
+                default -> run.append(c);
+            }
+            i++;
+        }
+        best = longer(best, run);
+        return best.isEmpty() ? null : best;
+    }
+
+    private static String longer(String best, StringBuilder run) {
+        return run.length() > best.length() ? run.toString() : best;
+    }
+
+    // Returns the index just after the ']' closing the class that starts at start, or -1.
+    private static int skipClass(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && i > start + 1 && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the index just after the ')' closing the group that starts at start, or -1.
+    private static int skipGroup(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipClass(regex, i) - 1;
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+}
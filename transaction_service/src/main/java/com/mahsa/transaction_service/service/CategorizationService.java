@@ -0,0 +1,171 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mahsa.transaction_service.dto.CategoryRuleDTO;
+import com.mahsa.transaction_service.entity.CategoryRule;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.repository.CategoryRuleRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Assigns categories to new transactions using each user's category rules. The rules of a user are compiled into
+ * a CategorizationEngine once and cached; changes made through this service replace the cached engine as soon as
+ * they are committed, and every engine is recompiled in the background after categorization.refresh-interval,
+ * which also picks up rules changed directly in the database. No restart is needed either way.
+ * Compile times are published as the categorization.compile timer, cache hits as cache.* (cache=categorizationRules).
+ */
+@Service
+public class CategorizationService {
+
+    private final CategoryRuleRepository categoryRuleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LoadingCache<Long, CategorizationEngine> engines;
+    private final Timer compileTimer;
+    private final int maxRulesPerUser;
+
+    public CategorizationService(CategoryRuleRepository categoryRuleRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${categorization.refresh-interval}") Duration refreshInterval,
+        @Value("${categorization.cache.max-size}") long maxSize,
+        @Value("${categorization.max-rules-per-user}") int maxRulesPerUser) {
+        this.categoryRuleRepository = categoryRuleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxRulesPerUser = maxRulesPerUser;
+        this.compileTimer = Timer.builder("categorization.compile")
+            .description("Time to load and compile the category rules of one user")
+            .register(meterRegistry);
+        // Until a refresh completes, lookups keep getting the previous engine instead of waiting for the reload.
+        this.engines = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .refreshAfterWrite(refreshInterval)
+            .recordStats()
+            .build(this::loadEngine);
+        CaffeineCacheMetrics.monitor(meterRegistry, engines, "categorizationRules");
+    }
+
+    private CategorizationEngine loadEngine(Long userId) {
+        return compileTimer.record(() -> {
+            List<CategoryRule> rules = categoryRuleRepository.findByUserIdOrderByPriorityAscIdAsc(userId);
+            return rules.isEmpty() ? CategorizationEngine.EMPTY : CategorizationEngine.compile(rules);
+        });
+    }
+
+    /**
+     * Sets the category of every transaction that has none and whose description matches one of the user's rules.
+     *
+     * @param userId       The user the transactions are written for.
+     * @param transactions New transactions.
+     */
+    public void categorize(Long userId, Collection<Transaction> transactions) {
+        if (userId == null || transactions.isEmpty()) {
+            return;
+        }
+        CategorizationEngine engine = engines.get(userId);
+        if (engine.isEmpty()) {
+            return;
+        }
+        for (Transaction transaction : transactions) {
+            if (transaction.getCategory() == null) {
+                transaction.setCategory(engine.categorize(transaction.getDescription()));
+            }
+        }
+    }
+
+    public List<CategoryRuleDTO> findRules(Long userId) {
+        return categoryRuleRepository.findByUserIdOrderByPriorityAscIdAsc(userId).stream()
+            .map(CategorizationService::toDTO)
+            .toList();
+    }
+
+    /**
+     * @return The stored rule, with its id.
+     * @throws IllegalArgumentException if the pattern is not a valid regex, has nested repetition, or the user already
+     *                                  has the maximum number of rules.
+     */
+    public CategoryRuleDTO addRule(Long userId, CategoryRuleDTO ruleDTO) {
+        checkPattern(ruleDTO);
+        CategoryRule saved = transactionTemplate.execute(status -> {
+            if (categoryRuleRepository.countByUserId(userId) >= maxRulesPerUser) {
+                throw new IllegalArgumentException("A user can have at most " + maxRulesPerUser + " category rules.");
+            }
+            return categoryRuleRepository.save(toEntity(userId, ruleDTO));
+        });
+        engines.invalidate(userId);
+        return toDTO(saved);
+    }
+
+    /**
+     * Replaces all rules of the user in one DB transaction, so categorization never sees half of the new set.
+     *
+     * @return The stored rules in priority order.
+     * @throws IllegalArgumentException if a pattern is not a valid regex, has nested repetition, or there are too many rules.
+     */
+    public List<CategoryRuleDTO> replaceRules(Long userId, List<CategoryRuleDTO> ruleDTOs) {
+        if (ruleDTOs.size() > maxRulesPerUser) {
+            throw new IllegalArgumentException("A user can have at most " + maxRulesPerUser + " category rules.");
+        }
+        List<CategoryRule> rules = new ArrayList<>(ruleDTOs.size());
+        for (CategoryRuleDTO ruleDTO : ruleDTOs) {
+            checkPattern(ruleDTO);
+            rules.add(toEntity(userId, ruleDTO));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            categoryRuleRepository.deleteAllByUserId(userId);
+            categoryRuleRepository.saveAll(rules);
+        });
+        engines.invalidate(userId);
+        return findRules(userId);
+    }
+
+    /**
+     * @return False if the user has no rule with this id.
+     */
+    public boolean deleteRule(Long userId, Long ruleId) {
+        CategoryRule rule = categoryRuleRepository.findById(ruleId).orElse(null);
+        if (rule == null || !rule.getUserId().equals(userId)) {
+            return false;
+        }
+        categoryRuleRepository.delete(rule);
+        engines.invalidate(userId);
+        return true;
+    }
+
+    private static void checkPattern(CategoryRuleDTO ruleDTO) {
+        if (!ruleDTO.isRegex()) {
+            return;
+        }
+        try {
+            CategorizationEngine.compileRegex(ruleDTO.getPattern());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Pattern '" + ruleDTO.getPattern() + "' is not a valid regular expression: "
+                + e.getDescription() + ".");
+        }
+        if (CategorizationEngine.hasNestedRepetition(ruleDTO.getPattern())) {
+            throw new IllegalArgumentException("Pattern '" + ruleDTO.getPattern() + "' repeats a group that itself contains"
+                + " a repetition, like (a+)+, which can take exponential time. Remove the inner or the outer repetition.");
+        }
+    }
+
+    private static CategoryRule toEntity(Long userId, CategoryRuleDTO ruleDTO) {
+        return new CategoryRule(userId, ruleDTO.getCategory().trim(), ruleDTO.getPattern(), ruleDTO.isRegex(), ruleDTO.getPriority());
+    }
+
+    private static CategoryRuleDTO toDTO(CategoryRule rule) {
+        return new CategoryRuleDTO(rule.getId(), rule.getCategory(), rule.getPattern(), rule.isRegex(), rule.getPriority());
+    }
+}
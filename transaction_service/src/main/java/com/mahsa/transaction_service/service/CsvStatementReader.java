@@ -0,0 +1,215 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.mahsa.transaction_service.dto.AddTransactionRequestDTO;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+/**
+ * Streaming reader for CSV statements (RFC 4180: comma separated, fields optionally in double quotes,
+ * "" for a quote inside a quoted field). The first record is the header; columns are matched by name,
+ * case-insensitively and in any order:
+ *   date         yyyy-MM-dd, optional
+ *   description  (or memo, name, payee) optional
+ *   amount       required
+ *   type         INCOME or EXPENSE, optional: without it a negative amount is an EXPENSE and a positive one INCOME
+ */
+public class CsvStatementReader implements StatementReader {
+
+    // A record longer than this is treated as a broken file (typically an unterminated quote) rather than buffered.
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long line = 1;
+    private int pushedBack = -2; // -2: nothing pushed back
+    private boolean endOfInput;
+
+    private int dateColumn = -1;
+    private int descriptionColumn = -1;
+    private int amountColumn = -1;
+    private int typeColumn = -1;
+    private boolean headerRead;
+
+    public CsvStatementReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+        while (true) {
+            long recordLine = line;
+            List<String> record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue; // empty line
+            }
+            return toRow(recordLine, record);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("The file is empty.");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // A UTF-8 byte order mark would otherwise stick to the first column name.
+            columns.putIfAbsent(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+        }
+        dateColumn = columns.getOrDefault("date", -1);
+        descriptionColumn = firstPresent(columns, "description", "memo", "name", "payee");
+        amountColumn = columns.getOrDefault("amount", -1);
+        typeColumn = columns.getOrDefault("type", -1);
+        if (amountColumn < 0) {
+            throw new IOException("The header has no amount column.");
+        }
+    }
+
+    private static int firstPresent(Map<String, Integer> columns, String... names) {
+        for (String name : names) {
+            if (columns.containsKey(name)) {
+                return columns.get(name);
+            }
+        }
+        return -1;
+    }
+
+    private StatementRow toRow(long recordLine, List<String> record) {
+        AddTransactionRequestDTO request = new AddTransactionRequestDTO();
+        String amount = column(record, amountColumn);
+        if (amount.isEmpty()) {
+            return StatementRow.failed(recordLine, "amount is missing");
+        }
+        BigDecimal value;
+        try {
+            value = new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            return StatementRow.failed(recordLine, "amount is not a number: " + amount);
+        }
+        String type = column(record, typeColumn);
+        if (!type.isEmpty()) {
+            try {
+                request.setType(TransactionType.valueOf(type.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return StatementRow.failed(recordLine, "type must be INCOME or EXPENSE: " + type);
+            }
+            request.setAmount(value);
+        } else {
+            request.setType(value.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME);
+            request.setAmount(value.abs());
+        }
+        String date = column(record, dateColumn);
+        if (!date.isEmpty()) {
+            try {
+                request.setDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                return StatementRow.failed(recordLine, "date is not in yyyy-MM-dd format: " + date);
+            }
+        }
+        String description = column(record, descriptionColumn);
+        request.setDescription(description.isEmpty() ? null : description);
+        return StatementRow.parsed(recordLine, request);
+    }
+
+    private static String column(List<String> record, int index) {
+        return index >= 0 && index < record.size() ? record.get(index).trim() : "";
+    }
+
+    // Reads one record (which may span several lines inside quotes); null at the end of the input.
+    private List<String> readRecord() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean anyInput = false;
+        int length = 0;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                endOfInput = true;
+                if (quoted) {
+                    throw new IOException("Unterminated quoted field at line " + line + ".");
+                }
+                if (!anyInput) {
+                    return null;
+                }
+                record.add(field.toString());
+                return record;
+            }
+            anyInput = true;
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new IOException("Record at line " + line + " is longer than " + MAX_RECORD_LENGTH + " characters.");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                line++;
+                record.add(field.toString());
+                return record;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mahsa.transaction_service.entity.OutboxEvent;
+
+/**
+ * Appends outbox events to a local newline-delimited JSON file, one event per line, for running and testing
+ * consumers without a broker. Each line is {"id", "eventType", "accountId", "transactionId", "createdAt", "payload"};
+ * after a failed batch the same events can appear again, with the same id.
+ * A batch is forced to disk before the relay marks it published.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.publisher.file.enabled", havingValue = "true")
+public class FileOutboxPublisher implements OutboxPublisher {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxPublisher(ObjectMapper objectMapper, @Value("${outbox.publisher.file.path}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            for (OutboxEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(toLine(event)));
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.force(false);
+        }
+    }
+
+    private Map<String, Object> toLine(OutboxEvent event) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", event.getId());
+        line.put("eventType", event.getEventType());
+        line.put("accountId", event.getAccountId());
+        line.put("transactionId", event.getTransactionId());
+        line.put("createdAt", event.getCreatedAt().toString());
+        line.put("payload", objectMapper.readTree(event.getPayload())); // embedded as JSON, not as a string
+        return line;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Makes a request safe to retry under an Idempotency-Key. The first request with a key runs and its response is
+ * kept for idempotency.ttl; retries with the same key get that response back (with Idempotent-Replayed: true)
+ * without running again. Retries that arrive while the first request is still running wait for its response
+ * instead of running in parallel. 5xx responses and exceptions are not kept, so the request can be retried for real.
+ * Keys are remembered in memory, per instance. Metrics: idempotency.requests (outcome=executed/replayed/mismatch)
+ * and the size of the key store as cache.size{cache=idempotencyKeys}.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Cache<String, Entry> entries;
+    private final Duration waitTimeout;
+    private final MeterRegistry meterRegistry;
+
+    // fingerprint identifies the request the key was first used with; response completes when it has run.
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {}
+
+    public IdempotencyService(MeterRegistry meterRegistry,
+        @Value("${idempotency.ttl}") Duration ttl,
+        @Value("${idempotency.max-size}") long maxSize,
+        @Value("${idempotency.wait-timeout}") Duration waitTimeout) {
+        this.entries = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .build();
+        this.waitTimeout = waitTimeout;
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotencyKeys");
+    }
+
+    /**
+     * Runs the request once per key.
+     *
+     * @param key         The Idempotency-Key, already scoped to the caller (e.g. prefixed with the user id).
+     * @param fingerprint Identifies the request body; reusing a key for a different request is rejected with 422.
+     * @param request     Produces the response; called at most once per key while the key is remembered.
+     * @return The response of the first request with this key.
+     */
+    public ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> request) {
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+        meterRegistry.counter("idempotency.requests", "outcome", "executed").increment();
+        ResponseEntity<?> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            entries.asMap().remove(key, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            entries.asMap().remove(key, mine);
+        }
+        mine.response().complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(Entry existing, String fingerprint) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            meterRegistry.counter("idempotency.requests", "outcome", "mismatch").increment();
+            return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("message", "Error: This Idempotency-Key was already used for a different request."));
+        }
+        meterRegistry.counter("idempotency.requests", "outcome", "replayed").increment();
+        try {
+            ResponseEntity<?> original = existing.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return ResponseEntity
+                .status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Error: A request with this Idempotency-Key is still in progress, please retry."));
+        } catch (ExecutionException e) {
+            return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Error: The original request with this Idempotency-Key failed, please retry."));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("message", "Error: Interrupted while waiting for the original request."));
+        }
+    }
+}
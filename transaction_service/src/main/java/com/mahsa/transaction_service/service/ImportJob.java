@@ -0,0 +1,110 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mahsa.transaction_service.dto.ImportJobDTO;
+import com.mahsa.transaction_service.dto.ImportLineErrorDTO;
+import com.mahsa.transaction_service.enums.ImportJobStatus;
+import com.mahsa.transaction_service.enums.StatementFormat;
+
+/**
+ * Progress of one statement import. Updated by the import thread and read by status requests,
+ * hence the synchronized methods; bytesRead is updated on every read and is an atomic instead.
+ */
+public class ImportJob {
+    private final String id;
+    private final Long userId;
+    private final Long accountId;
+    private final StatementFormat format;
+    private final long bytesTotal;
+    private final int maxReportedErrors;
+    final AtomicLong bytesRead = new AtomicLong();
+
+    private ImportJobStatus status = ImportJobStatus.QUEUED;
+    private long rowsRead;
+    private long inserted;
+    private long rejected;
+    private final List<ImportLineErrorDTO> errors = new ArrayList<>();
+    private String failure;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public ImportJob(String id, Long userId, Long accountId, StatementFormat format, long bytesTotal, int maxReportedErrors) {
+        this.id = id;
+        this.userId = userId;
+        this.accountId = accountId;
+        this.format = format;
+        this.bytesTotal = bytesTotal;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public StatementFormat getFormat() {
+        return format;
+    }
+
+    synchronized void started() {
+        status = ImportJobStatus.RUNNING;
+        startedAt = Instant.now();
+    }
+
+    synchronized void rowRead() {
+        rowsRead++;
+    }
+
+    synchronized void rejected(long line, String message) {
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new ImportLineErrorDTO(line, message));
+        }
+    }
+
+    synchronized void inserted(int count) {
+        inserted += count;
+    }
+
+    synchronized void completed() {
+        status = ImportJobStatus.COMPLETED;
+        finishedAt = Instant.now();
+    }
+
+    synchronized void failed(String reason) {
+        status = ImportJobStatus.FAILED;
+        failure = reason;
+        finishedAt = Instant.now();
+    }
+
+    public synchronized ImportJobDTO toDTO() {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setJobId(id);
+        dto.setAccountId(accountId);
+        dto.setFormat(format);
+        dto.setStatus(status);
+        dto.setBytesTotal(bytesTotal);
+        long read = status == ImportJobStatus.COMPLETED ? bytesTotal : Math.min(bytesRead.get(), bytesTotal);
+        dto.setBytesRead(read);
+        dto.setPercent(bytesTotal == 0 ? 100 : (int) (read * 100 / bytesTotal));
+        dto.setRowsRead(rowsRead);
+        dto.setInserted(inserted);
+        dto.setRejected(rejected);
+        dto.setErrors(new ArrayList<>(errors));
+        dto.setFailure(failure);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        return dto;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mahsa.transaction_service.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill of the monthly summaries: start the service with --rebuild-monthly-summaries and it
+ * recomputes the summaries of every account from the transactions table, then exits instead of serving requests.
+ *   java -jar transaction_service.jar --rebuild-monthly-summaries
+ */
+@Component
+public class MonthlySummaryRebuildRunner implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-monthly-summaries";
+
+    private final MonthlySummaryService monthlySummaryService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    public MonthlySummaryRebuildRunner(MonthlySummaryService monthlySummaryService, ConfigurableApplicationContext applicationContext) {
+        this.monthlySummaryService = monthlySummaryService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        monthlySummaryService.rebuildAll();
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+}
@@ -0,0 +1,146 @@
+package com.mahsa.transaction_service.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mahsa.common.Money;
+import com.mahsa.transaction_service.dto.MonthlySummaryDTO;
+import com.mahsa.transaction_service.entity.MonthlySummary;
+import com.mahsa.transaction_service.entity.MonthlySummaryId;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+import com.mahsa.transaction_service.repository.MonthlySummaryRepository;
+
+/**
+ * Maintains and reads the monthly_summaries rollup (income/expense totals per account, month and type).
+ */
+@Service
+public class MonthlySummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlySummaryService.class);
+
+    // Upserts are applied in key order so that concurrent writers lock summary rows in the same order.
+    private static final Comparator<MonthlySummaryId> KEY_ORDER = Comparator
+        .comparing(MonthlySummaryId::getAccountId)
+        .thenComparing(MonthlySummaryId::getMonth)
+        .thenComparing(MonthlySummaryId::getType);
+
+    private final MonthlySummaryRepository monthlySummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchive transactionArchive;
+
+    public MonthlySummaryService(MonthlySummaryRepository monthlySummaryRepository, TransactionTemplate transactionTemplate,
+        TransactionArchive transactionArchive) {
+        this.monthlySummaryRepository = monthlySummaryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionArchive = transactionArchive;
+    }
+
+    /**
+     * Adds new transactions to their months. Must run in the DB transaction that inserts them,
+     * so the summaries always match the committed transactions. Several transactions of the same
+     * month and type cost a single upsert.
+     *
+     * @param transactions Newly inserted transactions; undated or untyped ones are ignored.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(Collection<Transaction> transactions) {
+        // [total in minor units, count] per key
+        Map<MonthlySummaryId, long[]> totals = new TreeMap<>(KEY_ORDER);
+        for (Transaction transaction : transactions) {
+            if (transaction.getDate() == null || transaction.getType() == null) {
+                continue;
+            }
+            MonthlySummaryId key = new MonthlySummaryId(
+                transaction.getAccountId(), transaction.getDate().withDayOfMonth(1), transaction.getType());
+            long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+            total[0] = Money.add(total[0], Money.of(transaction.getAmount()));
+            total[1]++;
+        }
+        Long lockedAccountId = null;
+        for (Map.Entry<MonthlySummaryId, long[]> total : totals.entrySet()) {
+            MonthlySummaryId key = total.getKey();
+            // Keys are in account order, so each account's lock is taken once and in the same order by every writer.
+            if (!key.getAccountId().equals(lockedAccountId)) {
+                monthlySummaryRepository.lockAccountForUpdate(key.getAccountId());
+                lockedAccountId = key.getAccountId();
+            }
+            monthlySummaryRepository.addToMonth(
+                key.getAccountId(), key.getMonth(), key.getType().name(), Money.toBigDecimal(total.getValue()[0]), total.getValue()[1]);
+        }
+    }
+
+    /**
+     * Income and expense per month for the months from..to (inclusive). Months without transactions are
+     * included with zero totals. Reads at most two rows per month.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlySummaryDTO> findSummary(Long accountId, YearMonth from, YearMonth to) {
+        Map<YearMonth, MonthlySummaryDTO> months = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.put(month, new MonthlySummaryDTO(month.toString(), BigDecimal.ZERO, 0, BigDecimal.ZERO, 0));
+        }
+        for (MonthlySummary row : monthlySummaryRepository.findByAccountIdAndMonthBetweenOrderByMonthAsc(
+                accountId, from.atDay(1), to.atDay(1))) {
+            MonthlySummaryDTO month = months.get(YearMonth.from(row.getMonth()));
+            if (row.getType() == TransactionType.INCOME) {
+                month.setIncome(row.getTotal());
+                month.setIncomeCount(row.getTransactionCount());
+            } else {
+                month.setExpense(row.getTotal());
+                month.setExpenseCount(row.getTransactionCount());
+            }
+        }
+        return new ArrayList<>(months.values());
+    }
+
+    /**
+     * Recomputes the summaries of every account from the transactions table, one account per DB transaction.
+     * While an account is rebuilt, only inserts into that account wait. Use it to backfill history or repair drift.
+     *
+     * @return The number of accounts rebuilt.
+     */
+    public int rebuildAll() {
+        List<Long> accountIds = monthlySummaryRepository.findAccountIdsWithTransactions();
+        for (Long accountId : accountIds) {
+            rebuild(accountId);
+        }
+        logger.info("Rebuilt monthly summaries of {} accounts", accountIds.size());
+        return accountIds.size();
+    }
+
+    /**
+     * Recomputes the summaries of one account from its transactions. Months up to the last archived month
+     * are kept as they are: their transactions are no longer in the table.
+     *
+     * @return The number of summary rows written.
+     */
+    public int rebuild(Long accountId) {
+        LocalDate liveFrom = transactionArchive.isEmpty() ? null : transactionArchive.months().last().plusMonths(1).atDay(1);
+        Integer rows = transactionTemplate.execute(status -> {
+            monthlySummaryRepository.lockAccountForRebuild(accountId);
+            if (liveFrom != null) {
+                monthlySummaryRepository.deleteByAccountFromMonth(accountId, liveFrom);
+                return monthlySummaryRepository.insertFromTransactionsFromMonth(accountId, liveFrom);
+            }
+            monthlySummaryRepository.deleteByAccount(accountId);
+            return monthlySummaryRepository.insertFromTransactions(accountId);
+        });
+        return rows == null ? 0 : rows;
+    }
+}
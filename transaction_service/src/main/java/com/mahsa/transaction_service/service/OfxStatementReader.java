@@ -0,0 +1,164 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.mahsa.transaction_service.dto.AddTransactionRequestDTO;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+/**
+ * Streaming reader for OFX/QFX statements, both OFX 1.x (SGML, elements without closing tags) and OFX 2.x (XML).
+ * Only the STMTTRN aggregates are read: TRNAMT (signed; negative is an EXPENSE), DTPOSTED (the date part is used)
+ * and NAME or MEMO as the description. Everything else, including the OFX header, is skipped.
+ */
+public class OfxStatementReader implements StatementReader {
+
+    // Element values longer than this mean the file is not OFX; they are not buffered.
+    static final int MAX_VALUE_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final StringBuilder text = new StringBuilder();
+    private long line = 1;
+    private int pushedBack = -2; // -2: nothing pushed back
+
+    // Elements of the STMTTRN being read, and the line it starts on.
+    private Map<String, String> transaction;
+    private long transactionLine;
+
+    public OfxStatementReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public StatementRow next() throws IOException {
+        String element = null;
+        while (true) {
+            String tag = readTag();
+            if (tag == null) {
+                // End of input; an OFX 1.x file may end without closing the last transaction.
+                return transaction == null ? null : finishTransaction();
+            }
+            if (tag.equals("STMTTRN")) {
+                // In OFX 1.x a new STMTTRN can also be what ends the previous one.
+                StatementRow previous = transaction == null ? null : finishTransaction();
+                transaction = new HashMap<>();
+                transactionLine = line;
+                if (previous != null) {
+                    return previous;
+                }
+                element = null;
+            } else if (transaction != null && (tag.equals("/STMTTRN") || tag.equals("/BANKTRANLIST"))) {
+                return finishTransaction();
+            } else if (transaction != null && !tag.startsWith("/")) {
+                element = tag;
+            }
+            String value = readText();
+            if (transaction != null && element != null && !value.isEmpty()) {
+                transaction.putIfAbsent(element, value);
+                element = null;
+            }
+        }
+    }
+
+    private StatementRow finishTransaction() {
+        StatementRow row = toRow(transactionLine, transaction);
+        transaction = null;
+        return row;
+    }
+
+    private StatementRow toRow(long transactionLine, Map<String, String> transaction) {
+        String amount = transaction.get("TRNAMT");
+        if (amount == null) {
+            return StatementRow.failed(transactionLine, "TRNAMT is missing");
+        }
+        BigDecimal value;
+        try {
+            // Some banks write a decimal comma.
+            value = new BigDecimal(amount.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return StatementRow.failed(transactionLine, "TRNAMT is not a number: " + amount);
+        }
+        AddTransactionRequestDTO request = new AddTransactionRequestDTO();
+        request.setType(value.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME);
+        request.setAmount(value.abs());
+        String posted = transaction.get("DTPOSTED");
+        if (posted != null) {
+            try {
+                request.setDate(LocalDate.parse(posted.substring(0, Math.min(8, posted.length())), DateTimeFormatter.BASIC_ISO_DATE));
+            } catch (DateTimeParseException e) {
+                return StatementRow.failed(transactionLine, "DTPOSTED is not a date: " + posted);
+            }
+        }
+        request.setDescription(transaction.containsKey("NAME") ? transaction.get("NAME") : transaction.get("MEMO"));
+        return StatementRow.parsed(transactionLine, request);
+    }
+
+    // Skips to the next '<' and returns the upper-cased tag name (with a leading '/' for closing tags), or null at the end.
+    private String readTag() throws IOException {
+        int c;
+        while ((c = read()) != '<') {
+            if (c == -1) {
+                return null;
+            }
+        }
+        text.setLength(0);
+        while ((c = read()) != '>') {
+            if (c == -1) {
+                return null;
+            }
+            if (text.length() >= MAX_VALUE_LENGTH) {
+                throw new IOException("Tag at line " + line + " is too long, this does not look like OFX.");
+            }
+            text.append((char) c);
+        }
+        return text.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Reads the text up to (not including) the next '<' and returns it trimmed.
+    private String readText() throws IOException {
+        text.setLength(0);
+        int c;
+        while ((c = read()) != '<' && c != -1) {
+            if (text.length() >= MAX_VALUE_LENGTH) {
+                throw new IOException("Value at line " + line + " is too long, this does not look like OFX.");
+            }
+            text.append((char) c);
+        }
+        if (c == '<') {
+            pushedBack = c;
+        }
+        return unescape(text.toString().trim());
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,25 @@
+package com.mahsa.transaction_service.service;
+
+import java.util.List;
+
+import com.mahsa.transaction_service.entity.OutboxEvent;
+
+/**
+ * A consumer of outbox events. OutboxRelay hands every batch to each enabled publisher and marks the batch
+ * published only when all of them succeeded, so delivery is at-least-once: after a failure the whole batch is
+ * offered again, also to publishers that had already accepted it. Publishers must therefore tolerate duplicates
+ * (events carry a stable id for that).
+ */
+public interface OutboxPublisher {
+
+    // Short name used in logs and as the publisher tag of the outbox.events.published metric.
+    String name();
+
+    /**
+     * Delivers a batch of events, oldest first.
+     *
+     * @param events The batch, never empty.
+     * @throws Exception if the batch could not be delivered; it is retried on the next poll.
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,163 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mahsa.transaction_service.entity.OutboxEvent;
+import com.mahsa.transaction_service.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Delivers outbox events, in batches of outbox.relay.batch-size every outbox.relay.poll-interval ms, to every
+ * enabled OutboxPublisher (account-service balance deltas, local NDJSON file). Delivery is at-least-once:
+ * a batch is marked published only after all publishers accepted it.
+ * Metrics: outbox.events.published (per publisher), outbox.relay.failures, outbox.relay.batch (timer),
+ * outbox.relay.lag (seconds since the oldest unpublished event was written, 0 when the outbox is drained),
+ * and the configured outbox.relay.batch.size and outbox.relay.poll.interval.
+ *
+ * A batch is published while its DB transaction holds the rows' locks. That is what keeps two relay instances from
+ * delivering the same batch at the same time (the other one skips locked rows), and the locks only cover rows that
+ * are already written: inserts of new events and transactions never wait for them. The cost is one pooled connection
+ * and one open transaction per relay for as long as the publishers take, bounded by the HTTP client timeouts
+ * (http.client.*). If the instance dies mid-batch, the locks go with its connection and the batch is retried.
+ *
+ * Published events are kept outbox.retention.days days (for inspection and replay) and then deleted by
+ * purgePublished, outbox.retention.batch-size rows per DB transaction (counter outbox.events.purged).
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxPublisher> publishers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter purged;
+
+    @Value("${outbox.retention.days}")
+    private int retentionDays;
+
+    @Value("${outbox.retention.batch-size}")
+    private int purgeBatchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxPublisher> publishers,
+        TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+        @Value("${outbox.relay.batch-size}") int batchSize,
+        @Value("${outbox.relay.poll-interval}") long pollInterval) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publishers = publishers;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+        this.failures = meterRegistry.counter("outbox.relay.failures");
+        this.batchTimer = meterRegistry.timer("outbox.relay.batch");
+        this.purged = meterRegistry.counter("outbox.events.purged");
+        Gauge.builder("outbox.relay.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .baseUnit("seconds")
+            .description("Age of the oldest unpublished outbox event")
+            .register(meterRegistry);
+        Gauge.builder("outbox.relay.batch.size", () -> batchSize).register(meterRegistry);
+        Gauge.builder("outbox.relay.poll.interval", () -> pollInterval / 1000.0).baseUnit("seconds").register(meterRegistry);
+        logger.info("Outbox relay publishes to {}",
+            publishers.stream().map(OutboxPublisher::name).collect(Collectors.toList()));
+    }
+
+    // Drains the outbox one batch (one DB transaction) at a time until it is empty or delivery fails.
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> batchTimer.record(this::relayBatch));
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception e) {
+            // The batch stays unpublished and is retried on the next poll.
+            failures.increment();
+            logger.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockUnpublished(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (OutboxPublisher publisher : publishers) {
+            try {
+                publisher.publish(events);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(publisher.name() + " publisher failed: " + e.getMessage(), e);
+            }
+            meterRegistry.counter("outbox.events.published", "publisher", publisher.name()).increment(events.size());
+        }
+        outboxEventRepository.markPublished(
+            events.stream().map(OutboxEvent::getId).collect(Collectors.toList()), Instant.now());
+        logger.debug("Relayed {} outbox events", events.size());
+        return events.size();
+    }
+
+    /**
+     * Deletes the events published more than outbox.retention.days days ago, in batches of outbox.retention.batch-size
+     * rows (one short DB transaction each, so the relay and writers are never held up for long).
+     *
+     * @return The number of events deleted.
+     */
+    @Scheduled(cron = "${outbox.retention.cron}")
+    public long purgePublished() {
+        Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+        long deleted = 0;
+        try {
+            int batch;
+            do {
+                Integer rows = transactionTemplate.execute(
+                    status -> outboxEventRepository.deletePublishedBefore(cutoff, purgeBatchSize));
+                batch = rows == null ? 0 : rows;
+                deleted += batch;
+                purged.increment(batch);
+            } while (batch == purgeBatchSize);
+        } catch (Exception e) {
+            // What is left is deleted by the next run.
+            logger.warn("Outbox purge failed after {} events: {}", deleted, e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("Purged {} outbox events published before {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+
+    private void updateLag() {
+        try {
+            lagMillis.set(outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), Instant.now()).toMillis())
+                .orElse(0L));
+        } catch (Exception e) {
+            logger.debug("Could not read outbox lag: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mahsa.transaction_service.dto.AddTransactionRequestDTO;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.StatementFormat;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports bank statements (CSV or OFX) in the background. The upload is copied to a temporary file, then read
+ * as a stream one record at a time; valid rows are inserted in DB transactions of transaction.import.batch-size
+ * rows, so memory use depends on the batch size and not on the size of the file. Rejected lines are reported
+ * with their line number. If an insert fails the job stops as FAILED; batches inserted before stay.
+ * Job status is kept in memory for transaction.import.job-retention after it was last requested.
+ */
+@Service
+public class StatementImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementImportService.class);
+
+    private final TransactionWriteService transactionWriteService;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final ExecutorService executor;
+    private final Cache<String, ImportJob> jobs;
+
+    public StatementImportService(TransactionWriteService transactionWriteService, Validator validator,
+        @Value("${transaction.import.batch-size}") int batchSize,
+        @Value("${transaction.import.concurrency}") int concurrency,
+        @Value("${transaction.import.queue-capacity}") int queueCapacity,
+        @Value("${transaction.import.job-retention}") Duration jobRetention,
+        @Value("${transaction.import.max-reported-errors}") int maxReportedErrors) {
+        this.transactionWriteService = transactionWriteService;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        // Imports are long and database heavy: a few run at a time, a few more wait, the rest are turned away.
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("statement-import-"));
+        this.jobs = Caffeine.newBuilder().expireAfterAccess(jobRetention).build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts importing an uploaded statement into the account. The caller must have validated the account.
+     *
+     * @return The queued job.
+     * @throws IOException                if the upload cannot be copied to a temporary file.
+     * @throws RejectedExecutionException if too many imports are already running or waiting.
+     */
+    public ImportJob start(Long userId, Long accountId, StatementFormat format, MultipartFile file) throws IOException {
+        // The multipart upload is deleted when the request ends, so the job works on its own copy.
+        Path copy = Files.createTempFile("statement-import-", "." + format.name().toLowerCase());
+        try {
+            file.transferTo(copy);
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), userId, accountId, format, Files.size(copy), maxReportedErrors);
+            executor.execute(() -> run(job, copy));
+            jobs.put(job.getId(), job);
+            return job;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+    }
+
+    /**
+     * @return The job, or null if it is unknown, expired, or was started by another user.
+     */
+    public ImportJob find(String jobId, Long userId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        return job != null && job.getUserId().equals(userId) ? job : null;
+    }
+
+    void run(ImportJob job, Path file) {
+        job.started();
+        try (StatementReader reader = open(job, Files.newInputStream(file))) {
+            List<Transaction> pending = new ArrayList<>(batchSize);
+            StatementRow row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                if (row.getError() != null) {
+                    job.rejected(row.getLineNumber(), row.getError());
+                    continue;
+                }
+                AddTransactionRequestDTO request = row.getRequest();
+                Set<ConstraintViolation<AddTransactionRequestDTO>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    job.rejected(row.getLineNumber(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                    continue;
+                }
+                pending.add(new Transaction(request.getDescription(), request.getAmount(), request.getType(),
+                    request.getDate(), job.getAccountId()));
+                if (pending.size() == batchSize) {
+                    insert(job, pending);
+                }
+            }
+            insert(job, pending);
+            job.completed();
+        } catch (Exception e) {
+            logger.warn("Statement import {} failed: {}", job.getId(), e.getMessage());
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete import file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void insert(ImportJob job, List<Transaction> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        transactionWriteService.insertAll(job.getUserId(), pending);
+        job.inserted(pending.size());
+        pending.clear();
+    }
+
+    private static StatementReader open(ImportJob job, InputStream in) {
+        InputStreamReader reader = new InputStreamReader(
+            new BufferedInputStream(new CountingInputStream(in, job.bytesRead)), StandardCharsets.UTF_8);
+        return job.getFormat() == StatementFormat.OFX ? new OfxStatementReader(reader) : new CsvStatementReader(reader);
+    }
+
+    // Counts the bytes read from the file, for the progress percentage.
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the transactions of a bank statement one at a time, so that only the current record is held in memory.
+ * A record that cannot be understood is returned as a failed row and reading goes on with the next one.
+ */
+public interface StatementReader extends Closeable {
+
+    /**
+     * @return The next transaction, or null at the end of the statement.
+     * @throws IOException if the file cannot be read or its structure is broken beyond the current record
+     *                     (for example an unterminated quoted field).
+     */
+    StatementRow next() throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.mahsa.transaction_service.service;
+
+import com.mahsa.transaction_service.dto.AddTransactionRequestDTO;
+
+/**
+ * One transaction read from a bank statement: either the parsed request, or the reason the
+ * line could not be parsed. lineNumber is the (1-based) line of the file where the record starts.
+ */
+public final class StatementRow {
+    private final long lineNumber;
+    private final AddTransactionRequestDTO request;
+    private final String error;
+
+    private StatementRow(long lineNumber, AddTransactionRequestDTO request, String error) {
+        this.lineNumber = lineNumber;
+        this.request = request;
+        this.error = error;
+    }
+
+    public static StatementRow parsed(long lineNumber, AddTransactionRequestDTO request) {
+        return new StatementRow(lineNumber, request, null);
+    }
+
+    public static StatementRow failed(long lineNumber, String error) {
+        return new StatementRow(lineNumber, null, error);
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public AddTransactionRequestDTO getRequest() {
+        return request;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,504 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mahsa.common.Money;
+import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.entity.Transaction;
+
+/**
+ * Compressed files holding the transactions of months whose partitions were archived (see TransactionArchiveService).
+ * Each month is two files in transaction.archive.directory:
+ *   YYYY-MM.ndjson.gz   one ListedTransactionDTO per line, grouped by account, each account in (date, id) order.
+ *                       Every account is a separate gzip member, so the file is still plain gzip (zcat reads it)
+ *                       but one account can be read without decompressing the others.
+ *   YYYY-MM.index.json  per account: offset and length of its gzip member, row count and signed sum.
+ * The index is moved into place last, so a month counts as archived exactly when its index exists. An archived month
+ * can be written again (see TransactionArchiveService sweeping late rows); reads and publish exclude each other, so
+ * a reader never combines the index of one version with the data file of the other.
+ */
+@Component
+public class TransactionArchive {
+
+    // The order of the listing: undated first, then by date and id.
+    public static final Comparator<Transaction> ORDER = Comparator
+        .comparing(Transaction::getDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+        .thenComparing(Transaction::getId);
+
+    private static final String DATA_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".index.json";
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final String SWEEP_SUFFIX = ".sweep";
+    private static final TypeReference<Map<Long, AccountSlice>> INDEX_TYPE = new TypeReference<>() {};
+
+    // signedSum stays a decimal in the index files, so files written before Money existed read the same.
+    public record AccountSlice(long offset, long length, long count, BigDecimal signedSum) {}
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final LoadingCache<YearMonth, Map<Long, AccountSlice>> indexes;
+    private final ReadWriteLock publishLock = new ReentrantReadWriteLock();
+
+    private volatile NavigableSet<YearMonth> months;
+    private volatile Map<Long, Long> signedSums; // all archived months added up (minor units), built on first use
+
+    public TransactionArchive(ObjectMapper objectMapper,
+        @Value("${transaction.archive.directory}") Path directory,
+        @Value("${transaction.archive.index-cache-months}") long indexCacheMonths) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.indexes = Caffeine.newBuilder()
+            .maximumSize(indexCacheMonths)
+            .build(this::readIndex);
+        this.months = scan();
+    }
+
+    /**
+     * @return The archived months, oldest first.
+     */
+    public NavigableSet<YearMonth> months() {
+        return months;
+    }
+
+    public boolean isEmpty() {
+        return months.isEmpty();
+    }
+
+    /**
+     * Re-reads the list of archived months; called after a month was archived.
+     */
+    public synchronized void refresh() {
+        months = scan();
+        signedSums = null;
+        indexes.invalidateAll();
+    }
+
+    private NavigableSet<YearMonth> scan() {
+        NavigableSet<YearMonth> found = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return Collections.unmodifiableNavigableSet(found);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(INDEX_SUFFIX))
+                .forEach(name -> {
+                    try {
+                        found.add(YearMonth.parse(name.substring(0, name.length() - INDEX_SUFFIX.length())));
+                    } catch (DateTimeParseException e) {
+                        // not one of ours
+                    }
+                });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Collections.unmodifiableNavigableSet(found);
+    }
+
+    /**
+     * The archived transactions of the account that match the filter and come after the cursor, in listing order.
+     * Months are read one at a time as the iterator advances; months outside the filter's date range are skipped.
+     *
+     * @param after The position of the last row already seen, or null to start at the beginning.
+     */
+    public Iterator<Transaction> iterator(Long accountId, TransactionFilter filter, TransactionCursor after) {
+        NavigableSet<YearMonth> archived = months;
+        if (archived.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        YearMonth from = archived.first();
+        YearMonth to = archived.last();
+        if (filter.getFrom() != null && YearMonth.from(filter.getFrom()).isAfter(from)) {
+            from = YearMonth.from(filter.getFrom());
+        }
+        if (after != null && after.getDate() != null && YearMonth.from(after.getDate()).isAfter(from)) {
+            from = YearMonth.from(after.getDate());
+        }
+        if (filter.getTo() != null && YearMonth.from(filter.getTo()).isBefore(to)) {
+            to = YearMonth.from(filter.getTo());
+        }
+        if (from.isAfter(to)) {
+            return Collections.emptyIterator();
+        }
+        Iterator<YearMonth> monthIterator = archived.subSet(from, true, to, true).iterator();
+        return new Iterator<>() {
+            private Iterator<Transaction> rows = Collections.emptyIterator();
+            private Transaction next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (rows.hasNext()) {
+                        Transaction row = rows.next();
+                        if (filter.matches(row) && isAfter(row, after)) {
+                            next = row;
+                        }
+                    } else if (monthIterator.hasNext()) {
+                        rows = read(monthIterator.next(), accountId).iterator();
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction row = next;
+                next = null;
+                return row;
+            }
+        };
+    }
+
+    private static boolean isAfter(Transaction row, TransactionCursor after) {
+        return after == null || after.getDate() == null || ORDER.compare(row, cursorRow(after)) > 0;
+    }
+
+    private static Transaction cursorRow(TransactionCursor cursor) {
+        Transaction row = new Transaction();
+        row.setDate(cursor.getDate());
+        row.setId(cursor.getId());
+        return row;
+    }
+
+    /**
+     * All archived rows of the account in one month, in (date, id) order.
+     */
+    public List<Transaction> read(YearMonth month, Long accountId) {
+        AccountSlice slice;
+        FileChannel channel;
+        publishLock.readLock().lock();
+        try {
+            slice = indexes.get(month).get(accountId);
+            if (slice == null) {
+                return List.of();
+            }
+            // Once open, the channel keeps reading this version even if the month is published again.
+            channel = FileChannel.open(dataFile(month), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            publishLock.readLock().unlock();
+        }
+        List<Transaction> rows = new ArrayList<>((int) slice.count());
+        try (channel) {
+            ByteBuffer member = ByteBuffer.allocate(Math.toIntExact(slice.length()));
+            while (member.hasRemaining()) {
+                if (channel.read(member, slice.offset() + member.position()) < 0) {
+                    throw new IOException("Archive " + dataFile(month) + " is truncated.");
+                }
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(member.array())), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    rows.add(toTransaction(objectMapper.readValue(line, ListedTransactionDTO.class)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    /**
+     * @return The accounts with archived rows in the month.
+     */
+    public Set<Long> accounts(YearMonth month) {
+        return indexes.get(month).keySet();
+    }
+
+    /**
+     * Balance effect of the archived transactions per account (+amount for INCOME, -amount for EXPENSE),
+     * in minor units (see Money). Accounts without archived transactions are not returned.
+     */
+    public Map<Long, Long> signedSums(Collection<Long> accountIds) {
+        Map<Long, Long> all = signedSums;
+        if (all == null) {
+            all = sumAllMonths();
+            signedSums = all;
+        }
+        Map<Long, Long> sums = new HashMap<>();
+        for (Long accountId : accountIds) {
+            Long sum = all.get(accountId);
+            if (sum != null) {
+                sums.put(accountId, sum);
+            }
+        }
+        return sums;
+    }
+
+    private Map<Long, Long> sumAllMonths() {
+        Map<Long, Long> sums = new HashMap<>();
+        for (YearMonth month : months) {
+            // Read directly instead of through the cache, so one pass does not evict the recently used indexes.
+            readIndex(month).forEach((accountId, slice) -> sums.merge(accountId, Money.of(slice.signedSum()), Money::add));
+        }
+        return sums;
+    }
+
+    private Map<Long, AccountSlice> readIndex(YearMonth month) {
+        try {
+            return objectMapper.readValue(indexFile(month).toFile(), INDEX_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return Months written but not yet published, left behind by an archival run that stopped halfway.
+     */
+    public List<YearMonth> pendingMonths() throws IOException {
+        List<YearMonth> pending = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return pending;
+        }
+        String suffix = INDEX_SUFFIX + PENDING_SUFFIX;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(suffix)) {
+                    pending.add(YearMonth.parse(name.substring(0, name.length() - suffix.length())));
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Moves the files of a month written by a MonthWriter into place, data file first.
+     */
+    public void publish(YearMonth month) throws IOException {
+        publishLock.writeLock().lock();
+        try {
+            Files.move(pending(dataFile(month)), dataFile(month), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(pending(indexFile(month)), indexFile(month), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            refresh();
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+        Files.deleteIfExists(sweepFile(month));
+    }
+
+    public void discard(YearMonth month) throws IOException {
+        Files.deleteIfExists(pending(dataFile(month)));
+        Files.deleteIfExists(pending(indexFile(month)));
+        Files.deleteIfExists(sweepFile(month));
+    }
+
+    /**
+     * Records, before the month is written again, the id of one row the new version takes out of the database.
+     * If a run stops before publishing, that row tells whether the database side was committed (see sweepMark).
+     */
+    public void markSweep(YearMonth month, long rowId) throws IOException {
+        Files.createDirectories(directory);
+        try (FileChannel channel = FileChannel.open(sweepFile(month),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(rowId).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+    }
+
+    /**
+     * @return The row id recorded by markSweep for a pending month, or null if the pending month is a first archival.
+     */
+    public Long sweepMark(YearMonth month) throws IOException {
+        if (!Files.exists(sweepFile(month))) {
+            return null;
+        }
+        return Long.valueOf(Files.readString(sweepFile(month), StandardCharsets.US_ASCII).trim());
+    }
+
+    /**
+     * Starts writing a month. The files stay pending (invisible to readers) until publish(month).
+     */
+    public MonthWriter writer(YearMonth month) throws IOException {
+        Files.createDirectories(directory);
+        return new MonthWriter(month);
+    }
+
+    private Path dataFile(YearMonth month) {
+        return directory.resolve(month + DATA_SUFFIX);
+    }
+
+    private Path indexFile(YearMonth month) {
+        return directory.resolve(month + INDEX_SUFFIX);
+    }
+
+    private Path sweepFile(YearMonth month) {
+        return directory.resolve(month + SWEEP_SUFFIX + PENDING_SUFFIX);
+    }
+
+    private static Path pending(Path file) {
+        return file.resolveSibling(file.getFileName() + PENDING_SUFFIX);
+    }
+
+    private static Transaction toTransaction(ListedTransactionDTO row) {
+        Transaction transaction = new Transaction(row.getDescription(), row.getAmount(), row.getType(), row.getDate(), row.getAccountId());
+        transaction.setId(row.getId());
+        transaction.setCategory(row.getCategory());
+        return transaction;
+    }
+
+    /**
+     * Writes one month. Rows must arrive grouped by account, each account in (date, id) order
+     * (ORDER BY account_id, date, id).
+     */
+    public final class MonthWriter implements Closeable {
+        private final YearMonth month;
+        private final FileChannel channel;
+        private final CountingOutputStream out;
+        private final Map<Long, AccountSlice> index = new LinkedHashMap<>();
+
+        private Long accountId;
+        private GZIPOutputStream member;
+        private long memberOffset;
+        private long memberCount;
+        private long memberSum; // minor units
+        private boolean finished;
+
+        private MonthWriter(YearMonth month) throws IOException {
+            this.month = month;
+            this.channel = FileChannel.open(pending(dataFile(month)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new CountingOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        }
+
+        public void add(Transaction transaction) throws IOException {
+            if (!transaction.getAccountId().equals(accountId)) {
+                finishMember();
+                if (index.containsKey(transaction.getAccountId())) {
+                    throw new IllegalStateException("Rows of account " + transaction.getAccountId() + " are not grouped.");
+                }
+                accountId = transaction.getAccountId();
+                memberOffset = out.count;
+                memberCount = 0;
+                memberSum = 0;
+                member = new GZIPOutputStream(out, 8192);
+            }
+            member.write(objectMapper.writeValueAsBytes(new ListedTransactionDTO(
+                transaction.getId(),
+                transaction.getDescription(),
+                transaction.getAmount(),
+                transaction.getType(),
+                transaction.getDate(),
+                transaction.getAccountId(),
+                transaction.getCategory())));
+            member.write('\n');
+            memberCount++;
+            if (transaction.getType() != null) {
+                memberSum = Money.add(memberSum, transaction.getType().signed(Money.of(transaction.getAmount())));
+            }
+        }
+
+        private void finishMember() throws IOException {
+            if (member == null) {
+                return;
+            }
+            member.close(); // ends the gzip member; CountingOutputStream ignores the close
+            index.put(accountId, new AccountSlice(memberOffset, out.count - memberOffset, memberCount,
+                Money.toBigDecimal(memberSum)));
+            member = null;
+        }
+
+        /**
+         * Completes both files and forces them to disk; they are published with TransactionArchive.publish(month).
+         *
+         * @return The number of accounts written.
+         */
+        public int finish() throws IOException {
+            finishMember();
+            out.flush();
+            channel.force(true);
+            try (FileChannel indexChannel = FileChannel.open(pending(indexFile(month)),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                indexChannel.write(ByteBuffer.wrap(objectMapper.writeValueAsBytes(index)));
+                indexChannel.force(true);
+            }
+            finished = true;
+            return index.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (!finished) {
+                discard(month);
+            }
+        }
+    }
+
+    // Tracks the file offset so each account's gzip member can be located; never closes the channel.
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Moves cold months out of the database: every monthly partition older than transaction.archive.after-months is
+ * written to the TransactionArchive and then detached and dropped. Listing, export and balance sums keep reading
+ * archived months from the archive files, and the monthly summaries of archived months stay in the database.
+ *
+ * A month is archived in one DB transaction that first blocks writes to the partition, so no row can be added
+ * after the files were written. The files are forced to disk before the partition is dropped and are published
+ * after the commit; a crash in between leaves pending files that the next run publishes (partition gone) or
+ * discards (partition still there). Archived rows are counted by the transaction.archive.rows counter.
+ *
+ * A transaction dated in an archived month that is added later lands in transactions_default, the month's partition
+ * being gone. Every run sweeps such rows into the month's archive: the month is written again with them and they
+ * are deleted from transactions_default in one DB transaction. Until then they are read from the database.
+ */
+@Service
+public class TransactionArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiveService.class);
+
+    private static final String COLUMNS = "id, description, amount, type, \"date\", account_id, category";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionPartitionService transactionPartitionService;
+    private final TransactionArchive transactionArchive;
+    private final Counter archivedRows;
+
+    @Value("${transaction.archive.enabled}")
+    private boolean enabled;
+
+    // Months whose partition is at least this many months before the current month are archived.
+    @Value("${transaction.archive.after-months}")
+    private int afterMonths;
+
+    public TransactionArchiveService(DataSource dataSource, TransactionTemplate transactionTemplate,
+        TransactionPartitionService transactionPartitionService, TransactionArchive transactionArchive,
+        MeterRegistry meterRegistry) {
+        // Own template: a fetch size makes PostgreSQL stream the partition through a cursor instead of loading it whole.
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = transactionTemplate;
+        this.transactionPartitionService = transactionPartitionService;
+        this.transactionArchive = transactionArchive;
+        this.archivedRows = Counter.builder("transaction.archive.rows")
+            .description("Transactions moved from the database to archive files")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${transaction.archive.cron}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveOldPartitions();
+        } catch (RuntimeException | IOException e) {
+            logger.warn("Transaction archival failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return The number of months archived.
+     */
+    public int archiveOldPartitions() throws IOException {
+        if (!transactionPartitionService.isPartitioned()) {
+            return 0;
+        }
+        Map<YearMonth, String> partitions = transactionPartitionService.attachedPartitions();
+        for (YearMonth pending : transactionArchive.pendingMonths()) {
+            if (partitions.containsKey(pending) || sweepRolledBack(pending)) {
+                transactionArchive.discard(pending);
+            } else {
+                transactionArchive.publish(pending);
+                logger.info("Published archive of {} left pending by an earlier run", pending);
+            }
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(afterMonths);
+        int archived = 0;
+        for (Map.Entry<YearMonth, String> partition : partitions.entrySet()) {
+            if (!partition.getKey().isBefore(cutoff)) {
+                break;
+            }
+            archiveMonth(partition.getKey(), partition.getValue());
+            archived++;
+        }
+        sweepLateRows();
+        return archived;
+    }
+
+    // A pending month written again by sweepMonth whose swept rows are still in the database: the run stopped
+    // before its DB transaction committed, so publishing it would count those rows twice.
+    private boolean sweepRolledBack(YearMonth month) throws IOException {
+        Long sweptId = transactionArchive.sweepMark(month);
+        return sweptId != null && jdbcTemplate.queryForObject("SELECT count(*) FROM "
+            + TransactionPartitionService.DEFAULT_PARTITION + " WHERE id = ?", Integer.class, sweptId) > 0;
+    }
+
+    /**
+     * Moves the rows of archived months that were added to transactions_default after the archival into the
+     * archive of their month.
+     *
+     * @return The number of rows moved.
+     */
+    private long sweepLateRows() throws IOException {
+        NavigableSet<YearMonth> archived = transactionArchive.months();
+        if (archived.isEmpty()) {
+            return 0;
+        }
+        List<YearMonth> lateMonths = jdbcTemplate.queryForList("SELECT DISTINCT to_char(\"date\", 'YYYY-MM') FROM "
+                + TransactionPartitionService.DEFAULT_PARTITION + " WHERE \"date\" >= ? AND \"date\" < ?", String.class,
+                archived.first().atDay(1), archived.last().plusMonths(1).atDay(1))
+            .stream().map(YearMonth::parse).filter(archived::contains).sorted().toList();
+        long swept = 0;
+        for (YearMonth month : lateMonths) {
+            swept += sweepMonth(month);
+        }
+        return swept;
+    }
+
+    private long sweepMonth(YearMonth month) throws IOException {
+        long[] rows = {0};
+        try (TransactionArchive.MonthWriter writer = transactionArchive.writer(month)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // FOR UPDATE holds the rows until they are deleted; rows added meanwhile are left for the next run.
+                List<Transaction> late = jdbcTemplate.query("SELECT " + COLUMNS + " FROM "
+                    + TransactionPartitionService.DEFAULT_PARTITION + " WHERE \"date\" >= ? AND \"date\" < ?"
+                    + " ORDER BY account_id, \"date\", id FOR UPDATE", (resultSet, rowNum) -> toTransaction(resultSet),
+                    month.atDay(1), month.plusMonths(1).atDay(1));
+                if (late.isEmpty()) {
+                    return;
+                }
+                Map<Long, List<Transaction>> lateByAccount = new TreeMap<>();
+                for (Transaction transaction : late) {
+                    lateByAccount.computeIfAbsent(transaction.getAccountId(), accountId -> new ArrayList<>()).add(transaction);
+                }
+                Set<Long> accountIds = new TreeSet<>(transactionArchive.accounts(month));
+                accountIds.addAll(lateByAccount.keySet());
+                try {
+                    transactionArchive.markSweep(month, late.get(0).getId());
+                    for (Long accountId : accountIds) {
+                        List<Transaction> accountRows = new ArrayList<>(transactionArchive.read(month, accountId));
+                        accountRows.addAll(lateByAccount.getOrDefault(accountId, List.of()));
+                        accountRows.sort(TransactionArchive.ORDER);
+                        for (Transaction transaction : accountRows) {
+                            writer.add(transaction);
+                        }
+                    }
+                    writer.finish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                jdbcTemplate.batchUpdate("DELETE FROM " + TransactionPartitionService.DEFAULT_PARTITION + " WHERE id = ?",
+                    late.stream().map(transaction -> new Object[] {transaction.getId()}).toList());
+                rows[0] = late.size();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (rows[0] > 0) {
+            transactionArchive.publish(month);
+            archivedRows.increment(rows[0]);
+            logger.info("Moved {} transactions of archived month {} from {} into its archive", rows[0], month,
+                TransactionPartitionService.DEFAULT_PARTITION);
+        }
+        return rows[0];
+    }
+
+    private void archiveMonth(YearMonth month, String partition) throws IOException {
+        long[] rows = {0};
+        try (TransactionArchive.MonthWriter writer = transactionArchive.writer(month)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // SHARE mode waits for running inserts into the month and blocks new ones until the drop.
+                jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+                jdbcTemplate.query("SELECT " + COLUMNS + " FROM " + partition + " ORDER BY account_id, \"date\", id",
+                    resultSet -> {
+                        try {
+                            writer.add(toTransaction(resultSet));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    });
+                try {
+                    writer.finish();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        transactionArchive.publish(month);
+        archivedRows.increment(rows[0]);
+        logger.info("Archived {} transactions of {} from partition {}", rows[0], month, partition);
+    }
+
+    private static Transaction toTransaction(ResultSet resultSet) throws SQLException {
+        Transaction transaction = new Transaction(
+            resultSet.getString("description"),
+            resultSet.getBigDecimal("amount"),
+            resultSet.getString("type") == null ? null : TransactionType.valueOf(resultSet.getString("type")),
+            resultSet.getObject("date", LocalDate.class),
+            resultSet.getLong("account_id"));
+        transaction.setId(resultSet.getLong("id"));
+        transaction.setCategory(resultSet.getString("category"));
+        return transaction;
+    }
+}
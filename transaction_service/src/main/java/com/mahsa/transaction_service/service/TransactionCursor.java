@@ -0,0 +1,61 @@
+package com.mahsa.transaction_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import com.mahsa.transaction_service.entity.Transaction;
+
+/**
+ * Position of a row in the (date, id) ordering used by the paginated transaction listing.
+ * It is handed to clients as an opaque url-safe string, the value of the "after" parameter.
+ */
+public final class TransactionCursor {
+    private final LocalDate date; // null for undated transactions
+    private final Long id;
+
+    public TransactionCursor(LocalDate date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getDate(), transaction.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token The "after" value sent by the client.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the token was not produced by this class.
+     */
+    public static TransactionCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        try {
+            String datePart = raw.substring(0, separator);
+            LocalDate date = datePart.isEmpty() ? null : LocalDate.parse(datePart);
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new TransactionCursor(date, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = (date == null ? "" : date.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
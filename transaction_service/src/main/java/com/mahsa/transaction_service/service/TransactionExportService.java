@@ -0,0 +1,153 @@
+package com.mahsa.transaction_service.service;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.ExportFormat;
+
+/**
+ * Writes an account's transactions as NDJSON (one ListedTransactionDTO per line) or CSV, optionally gzipped,
+ * straight from TransactionQueryService.forEachByAccountId to the output stream. Only one page of rows and
+ * the output buffers are in memory at a time, whatever the size of the account.
+ * The CSV columns are id,date,type,amount,description,accountId,category; the file can be imported again as a statement.
+ */
+@Service
+public class TransactionExportService {
+
+    // Rows between explicit flushes, so the client keeps receiving data during long exports.
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionQueryService transactionQueryService;
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportService(TransactionQueryService transactionQueryService, ObjectMapper objectMapper) {
+        this.transactionQueryService = transactionQueryService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param accountId The account to export.
+     * @param filter    Optional date/type/amount filters.
+     * @param format    NDJSON or CSV.
+     * @param gzip      Whether to gzip the output.
+     * @param out       The response stream; it is not closed.
+     */
+    public void export(Long accountId, TransactionFilter filter, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = new NonClosingOutputStream(out);
+        if (gzip) {
+            // syncFlush: each flush emits the rows compressed so far instead of waiting for a full deflate block.
+            target = new GZIPOutputStream(target, BUFFER_SIZE, true);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (writer) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(accountId, filter, writer);
+            } else {
+                writeNdjson(accountId, filter, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Long accountId, TransactionFilter filter, Writer writer) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Root values are separated by the '\n' written below, not by Jackson's default " ".
+            generator.setRootValueSeparator(null);
+            long[] rows = {0};
+            transactionQueryService.forEachByAccountId(accountId, filter, transaction -> {
+                try {
+                    generator.writeObject(toDTO(transaction));
+                    generator.writeRaw('\n');
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(Long accountId, TransactionFilter filter, Writer writer) throws IOException {
+        writer.write("id,date,type,amount,description,accountId,category\n");
+        long[] rows = {0};
+        transactionQueryService.forEachByAccountId(accountId, filter, transaction -> {
+            try {
+                writer.write(String.valueOf(transaction.getId()));
+                writer.write(',');
+                writer.write(transaction.getDate() == null ? "" : transaction.getDate().toString());
+                writer.write(',');
+                writer.write(transaction.getType() == null ? "" : transaction.getType().name());
+                writer.write(',');
+                writer.write(transaction.getAmount().toPlainString());
+                writer.write(',');
+                writer.write(csvField(transaction.getDescription()));
+                writer.write(',');
+                writer.write(String.valueOf(transaction.getAccountId()));
+                writer.write(',');
+                writer.write(csvField(transaction.getCategory()));
+                writer.write('\n');
+                if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // RFC 4180: quote the field if it contains a separator, quote or line break, doubling inner quotes.
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static ListedTransactionDTO toDTO(Transaction transaction) {
+        return new ListedTransactionDTO(
+            transaction.getId(),
+            transaction.getDescription(),
+            transaction.getAmount(),
+            transaction.getType(),
+            transaction.getDate(),
+            transaction.getAccountId(),
+            transaction.getCategory());
+    }
+
+    // Closing the writer finishes the gzip stream and flushes, but the servlet stream belongs to the container.
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
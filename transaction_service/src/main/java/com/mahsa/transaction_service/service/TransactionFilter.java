@@ -0,0 +1,111 @@
+package com.mahsa.transaction_service.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+/**
+ * Optional filters of the transaction listing: date range, type and amount range (all bounds inclusive).
+ * Each filter that is set becomes one predicate of the query; see TransactionQueryService.
+ */
+public final class TransactionFilter {
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null, null, null);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final TransactionType type;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+
+    public TransactionFilter(LocalDate from, LocalDate to, TransactionType type, BigDecimal minAmount, BigDecimal maxAmount) {
+        this.from = from;
+        this.to = to;
+        this.type = type;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Builds a filter from request parameters; null or empty values mean "no filter".
+     *
+     * @throws IllegalArgumentException with a client-facing message if a value cannot be parsed or a range is empty.
+     */
+    public static TransactionFilter parse(String from, String to, String type, String minAmount, String maxAmount) {
+        TransactionFilter filter;
+        try {
+            filter = new TransactionFilter(
+                isBlank(from) ? null : LocalDate.parse(from),
+                isBlank(to) ? null : LocalDate.parse(to),
+                isBlank(type) ? null : TransactionType.valueOf(type.trim().toUpperCase()),
+                isBlank(minAmount) ? null : new BigDecimal(minAmount),
+                isBlank(maxAmount) ? null : new BigDecimal(maxAmount));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("from and to must be dates in yyyy-MM-dd format.", e);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("minAmount and maxAmount must be numbers.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("type must be INCOME or EXPENSE.", e);
+        }
+        if (filter.from != null && filter.to != null && filter.from.isAfter(filter.to)) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+        if (filter.minAmount != null && filter.maxAmount != null && filter.minAmount.compareTo(filter.maxAmount) > 0) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount.");
+        }
+        return filter;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    public boolean isEmpty() {
+        return from == null && to == null && type == null && minAmount == null && maxAmount == null;
+    }
+
+    // A date bound excludes undated transactions.
+    public boolean isDateBounded() {
+        return from != null || to != null;
+    }
+
+    // The same predicates in memory, for rows that are not read through a query (see TransactionArchive).
+    public boolean matches(Transaction transaction) {
+        LocalDate date = transaction.getDate();
+        if (from != null && (date == null || date.isBefore(from))) {
+            return false;
+        }
+        if (to != null && (date == null || date.isAfter(to))) {
+            return false;
+        }
+        if (type != null && type != transaction.getType()) {
+            return false;
+        }
+        if (minAmount != null && transaction.getAmount().compareTo(minAmount) < 0) {
+            return false;
+        }
+        return maxAmount == null || transaction.getAmount().compareTo(maxAmount) <= 0;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+}
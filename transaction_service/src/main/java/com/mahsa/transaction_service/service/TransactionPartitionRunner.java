@@ -0,0 +1,35 @@
+package com.mahsa.transaction_service.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off migration to the partitioned transactions table: start the service with --partition-transactions and it
+ * converts the table (see TransactionPartitionService.convertToPartitioned), then exits instead of serving requests.
+ *   java -jar transaction_service.jar --partition-transactions
+ */
+@Component
+public class TransactionPartitionRunner implements ApplicationRunner {
+
+    static final String OPTION = "partition-transactions";
+
+    private final TransactionPartitionService transactionPartitionService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    public TransactionPartitionRunner(TransactionPartitionService transactionPartitionService, ConfigurableApplicationContext applicationContext) {
+        this.transactionPartitionService = transactionPartitionService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        transactionPartitionService.convertToPartitioned();
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+}
@@ -0,0 +1,198 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Monthly range partitioning of the transactions table on date.
+ * The table Hibernate creates is a plain table; convertToPartitioned() (run once with --partition-transactions,
+ * see TransactionPartitionRunner) turns it into a partitioned one. From then on a partition named
+ * transactions_pYYYY_MM exists for every month up to transaction.partitioning.months-ahead months from now,
+ * created on start and daily. Undated rows, and rows of months without a partition, go to transactions_default;
+ * when a month's partition is created later, its rows are moved out of transactions_default into it.
+ * PostgreSQL does not allow a primary key on the parent without the partition key (date is nullable),
+ * so every partition has its own primary key on id; ids still come from one sequence.
+ */
+@Service
+public class TransactionPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+    static final String DEFAULT_PARTITION = "transactions_default";
+    private static final String PARTITION_PREFIX = "transactions_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Partitions are created for the current month and this many months after it.
+    @Value("${transaction.partitioning.months-ahead}")
+    private int monthsAhead;
+
+    public TransactionPartitionService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    public boolean isPartitioned() {
+        List<String> kind = jdbcTemplate.queryForList(
+            "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('transactions')", String.class);
+        return kind.equals(List.of("p"));
+    }
+
+    /**
+     * @return The monthly partitions currently attached to transactions, by month (oldest first).
+     */
+    public Map<YearMonth, String> attachedPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+            "SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                + " WHERE i.inhparent = to_regclass('transactions')", String.class);
+        return names.stream()
+            .filter(name -> name.matches(PARTITION_PREFIX + "\\d{4}_\\d{2}"))
+            .collect(Collectors.toMap(
+                name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX),
+                name -> name,
+                (a, b) -> a,
+                TreeMap::new));
+    }
+
+    /**
+     * Creates the missing partitions of the current month and the months-ahead months after it. Each month is
+     * created on its own, so a month that fails (logged, retried on the next run) does not hold back the others.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transaction.partitioning.cron}")
+    public void createPartitionsAhead() {
+        Map<YearMonth, String> existing;
+        try {
+            if (!isPartitioned()) {
+                return;
+            }
+            existing = attachedPartitions();
+        } catch (DataAccessException e) {
+            logger.warn("Could not create transaction partitions ahead: {}", e.getMessage());
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (existing.containsKey(month)) {
+                continue;
+            }
+            try {
+                createPartition(month);
+            } catch (DataAccessException e) {
+                logger.warn("Could not create transaction partition {}: {}", partitionName(month), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates the partition of one month in one DB transaction. Rows of that month that were written before the
+     * partition existed sit in transactions_default, where they would make CREATE TABLE ... PARTITION OF fail.
+     * So the partition is created as a plain table, those rows are moved into it, and it is then attached.
+     * transactions_default is locked (ACCESS EXCLUSIVE, which ATTACH needs anyway) for the duration, so no row of
+     * the month can land there in between; the lock is short unless many rows have to be moved.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE transactions"
+                + " INCLUDING DEFAULTS INCLUDING GENERATED INCLUDING STORAGE, PRIMARY KEY (id))");
+            String columns = insertableColumns(partition);
+            int rows = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE \"date\" >= ? AND \"date\" < ? RETURNING " + columns + ")"
+                + " INSERT INTO " + partition + " (" + columns + ") SELECT " + columns + " FROM moved", from, to);
+            // Also creates the partition's part of every index on transactions.
+            jdbcTemplate.execute("ALTER TABLE transactions ATTACH PARTITION " + partition
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            return rows;
+        });
+        if (moved != null && moved > 0) {
+            logger.info("Created transaction partition {} and moved {} rows into it from {}", partition, moved, DEFAULT_PARTITION);
+        } else {
+            logger.info("Created transaction partition {}", partition);
+        }
+    }
+
+    // Generated columns (description_tsv) are computed again on insert and cannot be copied.
+    private String insertableColumns(String table) {
+        return jdbcTemplate.queryForList("SELECT quote_ident(column_name::text) FROM information_schema.columns"
+                + " WHERE table_schema = current_schema() AND table_name = ?"
+                + " AND is_generated = 'NEVER' ORDER BY ordinal_position", String.class, table)
+            .stream().collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Converts the plain transactions table into a partitioned one in a single DB transaction: the table is
+     * renamed, a partitioned table with the same columns is created with a partition for every month that has
+     * rows (and months-ahead months after the current one), the rows are copied over, and the indexes are
+     * recreated on the new table. Writes are blocked for the duration, so run it in a quiet period.
+     *
+     * @return The number of rows moved, or -1 if the table was already partitioned.
+     */
+    public long convertToPartitioned() {
+        Long moved = transactionTemplate.execute(status -> {
+            if (isPartitioned()) {
+                return -1L;
+            }
+            jdbcTemplate.execute("LOCK TABLE transactions IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("ALTER TABLE transactions RENAME TO transactions_unpartitioned");
+            jdbcTemplate.execute("CREATE TABLE transactions (LIKE transactions_unpartitioned"
+                + " INCLUDING DEFAULTS INCLUDING GENERATED INCLUDING STORAGE) PARTITION BY RANGE (\"date\")");
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF transactions (PRIMARY KEY (id)) DEFAULT");
+
+            LocalDate oldest = jdbcTemplate.queryForObject("SELECT MIN(\"date\") FROM transactions_unpartitioned", LocalDate.class);
+            YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+            LocalDate newest = jdbcTemplate.queryForObject("SELECT MAX(\"date\") FROM transactions_unpartitioned", LocalDate.class);
+            if (newest != null && YearMonth.from(newest).isAfter(last)) {
+                last = YearMonth.from(newest);
+            }
+            for (YearMonth month = oldest == null ? YearMonth.now() : YearMonth.from(oldest); !month.isAfter(last); month = month.plusMonths(1)) {
+                createPartition(month);
+            }
+
+            String columns = insertableColumns("transactions_unpartitioned");
+            int rows = jdbcTemplate.update("INSERT INTO transactions (" + columns + ") SELECT " + columns
+                + " FROM transactions_unpartitioned");
+            jdbcTemplate.execute("DROP TABLE transactions_unpartitioned");
+
+            // The indexes declared on the Transaction entity and in schema.sql, now partitioned indexes.
+            jdbcTemplate.execute("CREATE INDEX idx_transactions_account_id_date ON transactions (account_id, \"date\", id)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transactions_account_id_date_nulls_first"
+                + " ON transactions (account_id, \"date\" ASC NULLS FIRST, id)");
+            jdbcTemplate.execute("CREATE INDEX idx_transactions_account_id_type_date ON transactions (account_id, type, \"date\", id)");
+            jdbcTemplate.execute("CREATE INDEX idx_transactions_account_id_amount ON transactions (account_id, amount)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transactions_account_id_description_tsv"
+                + " ON transactions USING GIN (account_id, description_tsv)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transactions_account_id_description_trgm"
+                + " ON transactions USING GIN (account_id, description gin_trgm_ops)");
+            return (long) rows;
+        });
+        logger.info("Converted transactions to a partitioned table, {} rows moved", moved);
+        return moved == null ? 0 : moved;
+    }
+}
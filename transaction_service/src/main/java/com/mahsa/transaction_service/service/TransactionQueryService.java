@@ -0,0 +1,180 @@
+package com.mahsa.transaction_service.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.repository.TransactionRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Reads an account's transactions in (date, id) order with undated rows first. Months moved to the
+ * TransactionArchive are merged in from the archive files, so callers see one continuous history.
+ */
+@Service
+public class TransactionQueryService {
+
+    // Rows per query when reading a whole account (forEachByAccountId)
+    static final int STREAM_PAGE_SIZE = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive transactionArchive;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TransactionQueryService(TransactionRepository transactionRepository, TransactionArchive transactionArchive) {
+        this.transactionRepository = transactionRepository;
+        this.transactionArchive = transactionArchive;
+    }
+
+    /**
+     * Returns up to limit transactions of the account that match the filter and come after the given cursor
+     * in (date, id) order.
+     *
+     * @param accountId The account to list.
+     * @param filter    Optional date/type/amount filters (TransactionFilter.NONE for all rows).
+     * @param after     The position of the last row already seen, or null for the first page.
+     * @param limit     The maximum number of rows to return.
+     * @return The rows of the page, in (date, id) order.
+     */
+    @Transactional(readOnly = true)
+    public List<Transaction> findPage(Long accountId, TransactionFilter filter, TransactionCursor after, int limit) {
+        List<Transaction> live = findLivePage(accountId, filter, after, limit);
+        Iterator<Transaction> archived = transactionArchive.iterator(accountId, filter, after);
+        if (!archived.hasNext()) {
+            return live;
+        }
+        // Both lists are in listing order and disjoint, so the page is the first limit rows of their merge.
+        List<Transaction> page = new ArrayList<>(limit);
+        Transaction nextArchived = archived.next();
+        int nextLive = 0;
+        while (page.size() < limit && (nextArchived != null || nextLive < live.size())) {
+            if (nextArchived != null && (nextLive == live.size()
+                    || TransactionArchive.ORDER.compare(nextArchived, live.get(nextLive)) < 0)) {
+                page.add(nextArchived);
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            } else {
+                page.add(live.get(nextLive++));
+            }
+        }
+        return page;
+    }
+
+    private List<Transaction> findLivePage(Long accountId, TransactionFilter filter, TransactionCursor after, int limit) {
+        if (!filter.isEmpty()) {
+            return filteredQuery(accountId, filter, after).setMaxResults(limit).getResultList();
+        }
+        Pageable pageable = PageRequest.of(0, limit);
+        if (after == null) {
+            return transactionRepository.findFirstPageByAccountId(accountId, pageable);
+        }
+        if (after.getDate() == null) {
+            return transactionRepository.findPageByAccountIdAfterUndated(accountId, after.getId(), pageable);
+        }
+        return transactionRepository.findPageByAccountIdAfter(accountId, after.getDate(), after.getId(), pageable);
+    }
+
+    /**
+     * Passes every transaction of the account that matches the filter to the action, in (date, id) order. The rows
+     * are read in keyset pages of STREAM_PAGE_SIZE, the listing's queries, so each page is an index range scan with
+     * a LIMIT: an unbounded ORDER BY over a large account would be planned as a sort of all its rows. All pages see
+     * one snapshot (REPEATABLE READ), and the persistence context is cleared after each page so memory use does not
+     * grow with the account size.
+     *
+     * @param accountId The account to read.
+     * @param filter    Optional date/type/amount filters (TransactionFilter.NONE for all rows).
+     * @param action    Called once per transaction.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void forEachByAccountId(Long accountId, TransactionFilter filter, Consumer<Transaction> action) {
+        Iterator<Transaction> archived = transactionArchive.iterator(accountId, filter, null);
+        Transaction nextArchived = archived.hasNext() ? archived.next() : null;
+        TransactionCursor after = null;
+        List<Transaction> page;
+        do {
+            page = findLivePage(accountId, filter, after, STREAM_PAGE_SIZE);
+            for (Transaction transaction : page) {
+                // Archived rows that sort before this row are passed on first.
+                while (nextArchived != null && TransactionArchive.ORDER.compare(nextArchived, transaction) < 0) {
+                    action.accept(nextArchived);
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                action.accept(transaction);
+            }
+            if (!page.isEmpty()) {
+                after = TransactionCursor.of(page.get(page.size() - 1));
+            }
+            entityManager.clear();
+        } while (page.size() == STREAM_PAGE_SIZE);
+        while (nextArchived != null) {
+            action.accept(nextArchived);
+            nextArchived = archived.hasNext() ? archived.next() : null;
+        }
+    }
+
+    // Only the predicates of the filters that are set are added, so PostgreSQL plans each combination
+    // against the matching index (see the indexes on Transaction) instead of one catch-all plan.
+    private TypedQuery<Transaction> filteredQuery(Long accountId, TransactionFilter filter, TransactionCursor after) {
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Transaction t WHERE t.accountId = :accountId");
+        if (filter.getFrom() != null) {
+            jpql.append(" AND t.date >= :from");
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND t.date <= :to");
+        }
+        if (filter.getType() != null) {
+            jpql.append(" AND t.type = :type");
+        }
+        if (filter.getMinAmount() != null) {
+            jpql.append(" AND t.amount >= :minAmount");
+        }
+        if (filter.getMaxAmount() != null) {
+            jpql.append(" AND t.amount <= :maxAmount");
+        }
+        if (after != null && after.getDate() == null) {
+            jpql.append(" AND ((t.date IS NULL AND t.id > :afterId) OR t.date IS NOT NULL)");
+        } else if (after != null) {
+            jpql.append(" AND t.date >= :afterDate AND (t.date > :afterDate OR t.id > :afterId)");
+        }
+        // Without undated rows in the result the plain (date, id) order matches the index order.
+        boolean undatedPossible = !filter.isDateBounded() && (after == null || after.getDate() == null);
+        jpql.append(undatedPossible ? " ORDER BY t.date ASC NULLS FIRST, t.id ASC" : " ORDER BY t.date ASC, t.id ASC");
+
+        TypedQuery<Transaction> query = entityManager.createQuery(jpql.toString(), Transaction.class)
+            .setParameter("accountId", accountId);
+        if (filter.getFrom() != null) {
+            query.setParameter("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            query.setParameter("to", filter.getTo());
+        }
+        if (filter.getType() != null) {
+            query.setParameter("type", filter.getType());
+        }
+        if (filter.getMinAmount() != null) {
+            query.setParameter("minAmount", filter.getMinAmount());
+        }
+        if (filter.getMaxAmount() != null) {
+            query.setParameter("maxAmount", filter.getMaxAmount());
+        }
+        if (after != null) {
+            query.setParameter("afterId", after.getId());
+            if (after.getDate() != null) {
+                query.setParameter("afterDate", after.getDate());
+            }
+        }
+        return query;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mahsa.transaction_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.dto.TransactionSearchResultDTO;
+import com.mahsa.transaction_service.entity.Transaction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Searches an account's transaction descriptions using the indexes created by schema.sql.
+ * Every word of the query must match the start of a word in the description ("amaz prime" finds
+ * "AMAZON Prime Video"); results are ranked with ts_rank. When no description matches, the search falls back
+ * to trigram similarity on the whole text, which tolerates typos ("amazn").
+ */
+@Service
+public class TransactionSearchService {
+
+    // Words beyond this are ignored; each word adds a GIN lookup.
+    static final int MAX_TERMS = 8;
+
+    private static final String COLUMNS = "SELECT t.id, t.amount, t.account_id, t.date, t.description, t.type FROM transactions t";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param accountId The account to search.
+     * @param text      What the user typed.
+     * @param page      Zero-based page number.
+     * @param size      Results per page.
+     * @return One page of results, best match first; empty if the text contains no searchable word.
+     */
+    @Transactional(readOnly = true)
+    public TransactionSearchResultDTO search(Long accountId, String text, int page, int size) {
+        String tsQuery = toTsQuery(text);
+        if (tsQuery.isEmpty()) {
+            return new TransactionSearchResultDTO(text, "fulltext", page, size, false, List.of());
+        }
+        List<Transaction> rows = fullText(accountId, tsQuery, page, size);
+        String mode = "fulltext";
+        if (rows.isEmpty() && page == 0) {
+            rows = fuzzy(accountId, text.trim(), size);
+            mode = "fuzzy";
+        }
+        // One extra row is read to know whether there is a next page.
+        boolean hasMore = rows.size() > size;
+        List<ListedTransactionDTO> items = rows.stream()
+            .limit(size)
+            .map(transaction -> new ListedTransactionDTO(
+                transaction.getId(),
+                transaction.getDescription(),
+                transaction.getAmount(),
+                transaction.getType(),
+                transaction.getDate(),
+                transaction.getAccountId(),
+                transaction.getCategory()))
+            .collect(Collectors.toList());
+        return new TransactionSearchResultDTO(text, mode, page, size, hasMore, items);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> fullText(Long accountId, String tsQuery, int page, int size) {
+        return entityManager.createNativeQuery(COLUMNS
+                + " WHERE t.account_id = :accountId AND t.description_tsv @@ to_tsquery('simple', :query)"
+                + " ORDER BY ts_rank(t.description_tsv, to_tsquery('simple', :query)) DESC, t.id DESC",
+                Transaction.class)
+            .setParameter("accountId", accountId)
+            .setParameter("query", tsQuery)
+            .setFirstResult(page * size)
+            .setMaxResults(size + 1)
+            .getResultList();
+    }
+
+    // Only used for the first page: fuzzy matches are a "did you mean" list, not something to page through.
+    @SuppressWarnings("unchecked")
+    private List<Transaction> fuzzy(Long accountId, String text, int size) {
+        return entityManager.createNativeQuery(COLUMNS
+                + " WHERE t.account_id = :accountId AND t.description % :text"
+                + " ORDER BY similarity(t.description, :text) DESC, t.id DESC",
+                Transaction.class)
+            .setParameter("accountId", accountId)
+            .setParameter("text", text)
+            .setMaxResults(size)
+            .getResultList();
+    }
+
+    /**
+     * Turns user input into a prefix tsquery: letters and digits only, lower-cased, every word required.
+     * "Amazon.de  prime!" becomes "amazon:* & de:* & prime:*". Nothing of the input reaches to_tsquery unescaped.
+     */
+    static String toTsQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(word + ":*");
+            }
+        }
+        return String.join(" & ", terms);
+    }
+}
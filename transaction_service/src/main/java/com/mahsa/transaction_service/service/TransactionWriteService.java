@@ -0,0 +1,112 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mahsa.transaction_service.dto.ListedTransactionDTO;
+import com.mahsa.transaction_service.entity.OutboxEvent;
+import com.mahsa.transaction_service.entity.Transaction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Writes new transactions. Every transaction is stored together with its TransactionCreated outbox event
+ * and its share of the monthly summaries in the same DB transaction, so the event and the totals exist if
+ * and only if the transaction does. Before that, transactions get a category from the user's category rules.
+ */
+@Service
+public class TransactionWriteService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+    private final MonthlySummaryService monthlySummaryService;
+    private final CategorizationService categorizationService;
+    private final AnalyticsService analyticsService;
+
+    // Number of rows sent to the database per JDBC batch (also used as hibernate.jdbc.batch_size).
+    @Value("${transaction.batch.jdbc-batch-size}")
+    private int jdbcBatchSize;
+
+    public TransactionWriteService(ObjectMapper objectMapper, MonthlySummaryService monthlySummaryService,
+        CategorizationService categorizationService, AnalyticsService analyticsService) {
+        this.objectMapper = objectMapper;
+        this.monthlySummaryService = monthlySummaryService;
+        this.categorizationService = categorizationService;
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Inserts one transaction and its outbox event.
+     *
+     * @param userId      The user the transaction is written for; their category rules are applied.
+     * @param transaction The new (not yet persisted) transaction.
+     * @return The same transaction, with its generated id set.
+     */
+    @Transactional
+    public Transaction insert(Long userId, Transaction transaction) {
+        categorizationService.categorize(userId, List.of(transaction));
+        entityManager.persist(transaction);
+        entityManager.persist(createdEvent(transaction));
+        monthlySummaryService.addAll(List.of(transaction));
+        analyticsService.invalidateAfterCommit(List.of(transaction.getAccountId()));
+        return transaction;
+    }
+
+    /**
+     * Inserts all transactions (and their outbox events) in a single DB transaction, flushing every jdbcBatchSize rows.
+     * Flushing sends the pending inserts as one JDBC batch, and clearing detaches them so the
+     * persistence context does not grow with the size of the upload.
+     *
+     * @param userId       The user the transactions are written for; their category rules are applied.
+     * @param transactions The new (not yet persisted) transactions.
+     * @return The same transactions, with their generated ids set.
+     */
+    @Transactional
+    public List<Transaction> insertAll(Long userId, List<Transaction> transactions) {
+        categorizationService.categorize(userId, transactions);
+        for (int i = 0; i < transactions.size(); i++) {
+            entityManager.persist(transactions.get(i));
+            entityManager.persist(createdEvent(transactions.get(i)));
+            if ((i + 1) % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        monthlySummaryService.addAll(transactions);
+        analyticsService.invalidateAfterCommit(transactions.stream().map(Transaction::getAccountId).distinct().toList());
+        return transactions;
+    }
+
+    // The id is already assigned here: sequence ids are handed out on persist, before the insert is flushed.
+    private OutboxEvent createdEvent(Transaction transaction) {
+        ListedTransactionDTO payload = new ListedTransactionDTO(
+            transaction.getId(),
+            transaction.getDescription(),
+            transaction.getAmount(),
+            transaction.getType(),
+            transaction.getDate(),
+            transaction.getAccountId(),
+            transaction.getCategory());
+        try {
+            return new OutboxEvent(
+                OutboxEvent.TRANSACTION_CREATED,
+                transaction.getAccountId(),
+                transaction.getId(),
+                objectMapper.writeValueAsString(payload),
+                Instant.now());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox event for transaction " + transaction.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.mahsa.transaction_service.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mahsa.transaction_service.enums.ValidationOutcome;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Checks with user-service and account-service that a user exists and that an account belongs to a user.
+ * Answers are cached in memory: positive answers for validation.cache.ttl, negative answers for the
+ * (shorter) validation.cache.negative-ttl, so that a newly created user or account is picked up quickly.
+ * Failed calls are never cached. Hit/miss counts are published as the cache.* metrics
+ * (cache=userValidation / accountValidation).
+ * Calls that are not answered from the cache run on a small dedicated pool (in parallel when both checks are
+ * needed) and are bounded by validation.timeout; when its queue is full the check fails at once.
+ * In trusted-claims mode the user comes from a verified JWT, so instead of a blocking existence check each
+ * user is re-checked in the background at most every security.trusted-claims.revocation-ttl (see isUserRevoked).
+ */
+@Service
+public class ValidationService {
+
+    private final RestTemplate restTemplate;
+    private final String userServiceBaseUrl;
+    private final String accountServiceBaseUrl;
+
+    private final Cache<Long, Boolean> userCache;
+    private final Cache<AccountOwnership, Boolean> accountCache;
+    private final LoadingCache<Long, Boolean> revokedUsers;
+
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    private record AccountOwnership(Long accountId, Long userId) {}
+
+    public ValidationService(RestTemplate restTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${user.service.url}") String userServiceBaseUrl,
+        @Value("${account.service.url}") String accountServiceBaseUrl,
+        @Value("${validation.cache.ttl}") Duration ttl,
+        @Value("${validation.cache.negative-ttl}") Duration negativeTtl,
+        @Value("${validation.cache.max-size}") long maxSize,
+        @Value("${validation.executor.pool-size}") int poolSize,
+        @Value("${validation.executor.queue-capacity}") int queueCapacity,
+        @Value("${validation.timeout}") Duration timeout,
+        @Value("${security.trusted-claims.revocation-ttl}") Duration revocationTtl) {
+        this.restTemplate = restTemplate;
+        this.userServiceBaseUrl = userServiceBaseUrl;
+        this.accountServiceBaseUrl = accountServiceBaseUrl;
+        this.userCache = buildCache(ttl, negativeTtl, maxSize);
+        this.accountCache = buildCache(ttl, negativeTtl, maxSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "userValidation");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountCache, "accountValidation");
+        // Bounded queue: when the peers are too slow to keep up, new requests are rejected instead of piling up.
+        // Tasks run with the submitting thread's observation, so the peer calls are spans of the request's trace.
+        this.executor = ContextExecutorService.wrap(new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("validation-")),
+            ContextSnapshotFactory.builder().build()::captureAll);
+        this.timeout = timeout;
+        this.revokedUsers = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .refreshAfterWrite(revocationTtl)
+            .executor(executor)
+            .recordStats()
+            .build(userId -> !fetchUserExists(userId));
+        CaffeineCacheMetrics.monitor(meterRegistry, revokedUsers, "userRevocation");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <K> Cache<K, Boolean> buildCache(Duration ttl, Duration negativeTtl, long maxSize) {
+        return Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<K, Boolean>() {
+                @Override
+                public long expireAfterCreate(K key, Boolean valid, long currentTime) {
+                    return (valid ? ttl : negativeTtl).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(K key, Boolean valid, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, valid, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(K key, Boolean valid, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns whether the user exists, calling GET {user.service.url}/validate/{userId} on a cache miss.
+     *
+     * @param userId The user to check.
+     * @return True if user-service knows the user.
+     * @throws org.springframework.web.client.RestClientException if user-service cannot be reached.
+     */
+    public boolean userExists(Long userId) {
+        return userCache.get(userId, this::fetchUserExists);
+    }
+
+    private boolean fetchUserExists(Long userId) {
+        // A URI template rather than a concatenated URL, so the http.client.requests metrics are not tagged per id.
+        ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(userServiceBaseUrl + "/validate/{userId}",
+            Boolean.class, userId);
+        return Boolean.TRUE.equals(responseEntity.getBody());
+    }
+
+    /**
+     * Revocation check for users authenticated by a verified JWT. It never blocks on user-service:
+     * the first request of a user schedules a background existence check and is let through (the token
+     * proves the user existed when it was issued); later requests use the last answer, which is refreshed
+     * in the background once it is older than the revocation TTL. A deleted user is therefore rejected
+     * at most about one revocation TTL after the deletion. Failed checks keep the previous answer.
+     *
+     * @param userId The user id taken from the verified token.
+     * @return True if user-service reported that the user no longer exists.
+     */
+    public boolean isUserRevoked(Long userId) {
+        Boolean revoked = revokedUsers.getIfPresent(userId);
+        if (revoked == null) {
+            revokedUsers.refresh(userId);
+            return false;
+        }
+        return revoked;
+    }
+
+    /**
+     * Returns whether the account exists and belongs to the user, calling
+     * GET {account.service.url}/validate/{accountId}?userId={userId} on a cache miss.
+     *
+     * @param accountId The account to check.
+     * @param userId    The user the account must belong to.
+     * @return True if account-service confirms the account belongs to the user.
+     * @throws org.springframework.web.client.RestClientException if account-service cannot be reached.
+     */
+    public boolean accountBelongsToUser(Long accountId, Long userId) {
+        return accountCache.get(new AccountOwnership(accountId, userId), key -> {
+            ResponseEntity<Boolean> responseEntity = restTemplate.getForEntity(
+                accountServiceBaseUrl + "/validate/{accountId}?userId={userId}", Boolean.class, key.accountId(), key.userId());
+            return Boolean.TRUE.equals(responseEntity.getBody());
+        });
+    }
+
+    /**
+     * Checks that the user exists and that the account belongs to them. Answers already cached are used
+     * directly; otherwise both calls run concurrently and the method returns as soon as either one says no,
+     * or when both say yes, so a write waits for the slower call rather than for both in turn.
+     *
+     * @param userId    The user to check.
+     * @param accountId The account that must belong to the user.
+     * @return VALID, or which of the two checks failed.
+     * @throws ValidationUnavailableException if a peer cannot be reached, validation.timeout passes or the
+     *                                        validation queue is full.
+     */
+    public ValidationOutcome validateUserAndAccount(Long userId, Long accountId) {
+        boolean userCached = userCache.policy().getIfPresentQuietly(userId) != null;
+        boolean accountCached = accountCache.policy().getIfPresentQuietly(new AccountOwnership(accountId, userId)) != null;
+        // Cached answers are read on the calling thread; a cached "no" settles the outcome without any call.
+        if (userCached && !checkUser(userId)) {
+            return ValidationOutcome.USER_NOT_FOUND;
+        }
+        if (accountCached && !checkAccount(accountId, userId)) {
+            return ValidationOutcome.ACCOUNT_NOT_OWNED;
+        }
+        if (userCached && accountCached) {
+            return ValidationOutcome.VALID;
+        }
+
+        CompletableFuture<ValidationOutcome> outcome = new CompletableFuture<>();
+        CompletableFuture<Boolean> userCheck = userCached
+            ? CompletableFuture.completedFuture(true)
+            : submit(() -> checkUser(userId));
+        CompletableFuture<Boolean> accountCheck = accountCached
+            ? CompletableFuture.completedFuture(true)
+            : submit(() -> checkAccount(accountId, userId));
+
+        userCheck.whenComplete((exists, e) -> {
+            if (e != null) {
+                outcome.completeExceptionally(e);
+            } else if (!exists) {
+                outcome.complete(ValidationOutcome.USER_NOT_FOUND);
+            }
+        });
+        accountCheck.whenComplete((owned, e) -> {
+            if (e != null) {
+                outcome.completeExceptionally(e);
+            } else if (!owned) {
+                outcome.complete(ValidationOutcome.ACCOUNT_NOT_OWNED);
+            }
+        });
+        userCheck.thenAcceptBoth(accountCheck, (exists, owned) -> {
+            if (exists && owned) {
+                outcome.complete(ValidationOutcome.VALID);
+            }
+        });
+
+        try {
+            return await(outcome);
+        } finally {
+            // Nothing waits for the other call any more; its answer still lands in the cache if it completes.
+            userCheck.cancel(false);
+            accountCheck.cancel(false);
+        }
+    }
+
+    /**
+     * Checks only that the account belongs to the user, for requests whose user already comes from a verified JWT.
+     * A cached answer is used directly; otherwise the call runs on the validation pool, bounded by validation.timeout
+     * like validateUserAndAccount.
+     *
+     * @param userId    The authenticated user.
+     * @param accountId The account that must belong to the user.
+     * @return VALID or ACCOUNT_NOT_OWNED.
+     * @throws ValidationUnavailableException if account-service cannot be reached, validation.timeout passes or the
+     *                                        validation queue is full.
+     */
+    public ValidationOutcome validateAccount(Long userId, Long accountId) {
+        if (accountCache.policy().getIfPresentQuietly(new AccountOwnership(accountId, userId)) != null) {
+            return checkAccount(accountId, userId) ? ValidationOutcome.VALID : ValidationOutcome.ACCOUNT_NOT_OWNED;
+        }
+        CompletableFuture<Boolean> accountCheck = submit(() -> checkAccount(accountId, userId));
+        try {
+            return await(accountCheck.thenApply(owned -> owned ? ValidationOutcome.VALID : ValidationOutcome.ACCOUNT_NOT_OWNED));
+        } finally {
+            accountCheck.cancel(false);
+        }
+    }
+
+    // A full queue fails the check like an unreachable peer, rather than throwing on the request thread.
+    private CompletableFuture<Boolean> submit(Supplier<Boolean> check) {
+        try {
+            return CompletableFuture.supplyAsync(check, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                new ValidationUnavailableException("Too many validations in progress, the validation queue is full.", e));
+        }
+    }
+
+    private ValidationOutcome await(CompletableFuture<ValidationOutcome> outcome) {
+        try {
+            return outcome.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ValidationUnavailableException("Validation did not complete within " + timeout.toMillis() + " ms.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValidationUnavailableException("Validation was interrupted.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof ValidationUnavailableException) {
+                throw (ValidationUnavailableException) cause;
+            }
+            throw new ValidationUnavailableException("Validation failed. " + cause.getMessage(), cause);
+        }
+    }
+
+    private boolean checkUser(Long userId) {
+        try {
+            return userExists(userId);
+        } catch (RuntimeException e) {
+            throw new ValidationUnavailableException("Could not connect to user service for validation. " + e.getMessage(), e);
+        }
+    }
+
+    private boolean checkAccount(Long accountId, Long userId) {
+        try {
+            return accountBelongsToUser(accountId, userId);
+        } catch (RuntimeException e) {
+            throw new ValidationUnavailableException("Could not connect to account service for validation. " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.mahsa.transaction_service.service;
+
+/**
+ * Thrown when user-service or account-service could not give a validation answer
+ * (connection error, error response, or the validation deadline passed).
+ */
+public class ValidationUnavailableException extends RuntimeException {
+    public ValidationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,27 @@
+-- Schema that JPA annotations cannot express. Runs on every start after Hibernate's ddl-auto=update
+-- (spring.jpa.defer-datasource-initialization=true), so every statement must be idempotent.
+
+-- Full-text search over descriptions (GET /api/transactions/search): a generated tsvector column with a GIN index
+-- per account, and a trigram index on the raw text for the fuzzy fallback. btree_gin lets account_id be part of
+-- both GIN indexes, so a search only visits the rows of one account.
+-- Adding the generated column rewrites the table once; run it in a quiet period on large databases.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS description_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_transactions_account_id_description_tsv
+    ON transactions USING GIN (account_id, description_tsv);
+CREATE INDEX IF NOT EXISTS idx_transactions_account_id_description_trgm
+    ON transactions USING GIN (account_id, description gin_trgm_ops);
+
+-- Listing and export order (TransactionRepository): (date, id) with undated rows first. The (account_id, date, id)
+-- index declared on Transaction keeps nulls last, which PostgreSQL cannot read in NULLS FIRST order in either
+-- direction, so without this index every first page and every full stream sorts all of the account's rows.
+CREATE INDEX IF NOT EXISTS idx_transactions_account_id_date_nulls_first
+    ON transactions (account_id, date ASC NULLS FIRST, id);
+
+-- Transaction ids come from the pooled sequence transactions_seq (Transaction.id, increment 50), which ddl-auto creates
+-- starting at 1. On a database whose rows got their ids from the old IDENTITY column, the sequence would hand out
+-- ids that are taken, so move it past the highest id. It only moves forward, and only when it is behind.
+SELECT setval('transactions_seq', (SELECT MAX(id) FROM transactions) + 50)
+    WHERE (SELECT MAX(id) FROM transactions) > (SELECT last_value FROM transactions_seq);
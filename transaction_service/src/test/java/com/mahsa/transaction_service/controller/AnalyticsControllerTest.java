@@ -0,0 +1,76 @@
+package com.mahsa.transaction_service.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mahsa.transaction_service.enums.ValidationOutcome;
+import com.mahsa.transaction_service.security.AuthenticatedUserResolver;
+import com.mahsa.transaction_service.service.AnalyticsService;
+import com.mahsa.transaction_service.service.ValidationService;
+
+class AnalyticsControllerTest {
+
+	private final ValidationService validationService = mock(ValidationService.class);
+	private final AuthenticatedUserResolver authenticatedUserResolver = mock(AuthenticatedUserResolver.class);
+	private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+	private final AnalyticsController controller = new AnalyticsController(analyticsService,
+		new AccountAccess(validationService, authenticatedUserResolver), authenticatedUserResolver);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(controller, "maxAccounts", 3);
+		when(authenticatedUserResolver.resolveUserId(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(validationService.validateAccount(7L, 1L)).thenReturn(ValidationOutcome.VALID);
+		when(validationService.validateAccount(7L, 2L)).thenReturn(ValidationOutcome.ACCOUNT_NOT_OWNED);
+	}
+
+	private int totals(Long userId, List<Long> accountIds) {
+		return controller.getTotals(userId, accountIds, "month", null, null, "period", 10).getStatusCode().value();
+	}
+
+	private int percentiles(Long userId, List<Long> accountIds) {
+		return controller.getPercentiles(userId, accountIds, null, null, null, List.of(50.0)).getStatusCode().value();
+	}
+
+	@Test
+	void foreignAccountIsForbiddenLikeTheOtherReads() {
+		assertEquals(403, totals(7L, List.of(1L, 2L)));
+		assertEquals(403, percentiles(7L, List.of(2L)));
+		verify(analyticsService, never()).totals(any(), any(), any(), any(), any(), anyInt());
+	}
+
+	@Test
+	void ownAccountsAreReportedWithoutLookingUpTheUserAgain() {
+		assertEquals(200, totals(7L, List.of(1L)));
+		assertEquals(200, percentiles(7L, List.of(1L)));
+		verify(validationService, never()).validateUserAndAccount(anyLong(), anyLong());
+		verify(validationService, never()).userExists(anyLong());
+	}
+
+	@Test
+	void rejectsAMissingUserAndTooManyAccounts() {
+		assertEquals(400, totals(null, List.of(1L)));
+		assertEquals(400, totals(7L, List.of()));
+		assertEquals(400, totals(7L, List.of(1L, 1L, 1L, 1L)));
+		verify(validationService, never()).validateAccount(anyLong(), anyLong());
+	}
+
+	@Test
+	void failedValidationIsAServerError() {
+		when(validationService.validateAccount(7L, 3L)).thenThrow(new IllegalStateException("account-service is down"));
+		assertEquals(500, totals(7L, List.of(3L)));
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.mahsa.transaction_service.enums;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.mahsa.common.Money;
+
+class TransactionTypeTest {
+
+	@Test
+	void signedSumsInMinorUnitsMatchBigDecimal() {
+		Random random = new Random(7);
+		BigDecimal expected = BigDecimal.ZERO.setScale(2);
+		long sum = 0;
+		for (int i = 0; i < 100_000; i++) {
+			// Up to four decimals, so half of them need rounding on the way in.
+			BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 10_000_000_000L, random.nextInt(5));
+			TransactionType type = random.nextBoolean() ? TransactionType.INCOME : TransactionType.EXPENSE;
+			expected = expected.add(type.signed(amount.setScale(2, RoundingMode.HALF_UP)));
+			sum = Money.add(sum, type.signed(Money.of(amount)));
+		}
+		assertEquals(expected, Money.toBigDecimal(sum));
+	}
+
+	@Test
+	void throwsInsteadOfOverflowing() {
+		assertEquals(Long.MAX_VALUE, TransactionType.INCOME.signed(Long.MAX_VALUE));
+		assertEquals(-Long.MAX_VALUE, TransactionType.EXPENSE.signed(Long.MAX_VALUE));
+		assertThrows(ArithmeticException.class, () -> TransactionType.EXPENSE.signed(Long.MIN_VALUE));
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.mahsa.transaction_service.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stand-in for user-service and account-service on a local port, with injected latency and failures:
+ *
+ * - GET /api/users/validate/{userId}: every user exists.
+ * - GET /api/accounts/validate/{accountId}?userId=: an account belongs to the user with the same id.
+ * - POST /api/accounts/balance-deltas: accepted and discarded.
+ *
+ * Every call waits latency, or slowLatency for a slowRate fraction of calls, and a failureRate fraction of calls
+ * then answers failureStatus. Each call is served on its own thread, so slow calls do not delay the others.
+ * The traceparent headers received are kept in traceparents.
+ */
+class StubPeerServer implements AutoCloseable {
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Duration latency;
+	private final Duration slowLatency;
+	private final double slowRate;
+	private final double failureRate;
+	private final int failureStatus;
+
+	final AtomicLong userValidations = new AtomicLong();
+	final AtomicLong accountValidations = new AtomicLong();
+	final AtomicLong balanceDeltaPosts = new AtomicLong();
+	final AtomicLong failures = new AtomicLong();
+	final Queue<String> traceparents = new ConcurrentLinkedQueue<>();
+
+	StubPeerServer(Duration latency, Duration slowLatency, double slowRate, double failureRate, int failureStatus)
+		throws IOException {
+		this.latency = latency;
+		this.slowLatency = slowLatency;
+		this.slowRate = slowRate;
+		this.failureRate = failureRate;
+		this.failureStatus = failureStatus;
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1000);
+		server.setExecutor(executor);
+		server.createContext("/api/users/validate/", exchange -> {
+			userValidations.incrementAndGet();
+			respond(exchange, "true");
+		});
+		server.createContext("/api/accounts/validate/", exchange -> {
+			accountValidations.incrementAndGet();
+			String path = exchange.getRequestURI().getPath();
+			String accountId = path.substring(path.lastIndexOf('/') + 1);
+			String query = exchange.getRequestURI().getQuery();
+			respond(exchange, String.valueOf(query != null && query.equals("userId=" + accountId)));
+		});
+		server.createContext("/api/accounts/balance-deltas", exchange -> {
+			balanceDeltaPosts.incrementAndGet();
+			respond(exchange, null);
+		});
+		server.start();
+	}
+
+	String userServiceUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/users";
+	}
+
+	String accountServiceUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/accounts";
+	}
+
+	private void respond(HttpExchange exchange, String json) throws IOException {
+		String traceparent = exchange.getRequestHeaders().getFirst("traceparent");
+		if (traceparent != null) {
+			traceparents.add(traceparent);
+		}
+		try (InputStream body = exchange.getRequestBody()) {
+			body.transferTo(OutputStream.nullOutputStream());
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Duration delay = random.nextDouble() < slowRate ? slowLatency : latency;
+			if (!delay.isZero()) {
+				Thread.sleep(delay.toMillis(), delay.toNanosPart() % 1_000_000);
+			}
+			if (random.nextDouble() < failureRate) {
+				failures.incrementAndGet();
+				exchange.sendResponseHeaders(failureStatus, -1);
+				return;
+			}
+			if (json == null) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			exchange.getResponseBody().write(bytes);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			exchange.close();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
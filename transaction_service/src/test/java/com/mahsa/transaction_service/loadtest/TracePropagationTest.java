@@ -0,0 +1,197 @@
+package com.mahsa.transaction_service.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+/**
+ * Sends POST /api/transactions with a W3C traceparent header and checks, in the span file, that the request
+ * continued that trace: the server span has the caller's span as parent, and the JWT check, the JDBC statements and
+ * the calls to the peers (StubPeerServer, which must receive the same trace id) are spans of the same trace.
+ * New traces are all recorded here (sampling probability 1.0), but a caller's decision not to record is followed.
+ * Same setup as TransactionServiceLoadTest:
+ *
+ *   mvn test -Dtest=TracePropagationTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+	"management.tracing.sampling.probability=1.0",
+	"tracing.export.file.enabled=true",
+	"validation.cache.ttl=0s"}) // every request calls the peers
+@AutoConfigureObservability
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class TracePropagationTest {
+
+	// Away from real ids and from the load test's
+	private static final long USER_ID = 900_100_001L;
+
+	private static StubPeerServer stub;
+	private static Path spans;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		try {
+			stub = new StubPeerServer(Duration.ZERO, Duration.ZERO, 0, 0, 500);
+			spans = Files.createTempFile("spans", ".ndjson");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		registry.add("spring.datasource.url", () -> System.getProperty("benchmark.jdbc.url"));
+		registry.add("spring.datasource.username", () -> System.getProperty("benchmark.jdbc.user", "postgres"));
+		registry.add("spring.datasource.password", () -> System.getProperty("benchmark.jdbc.password", ""));
+		registry.add("spring.jpa.show-sql", () -> "false");
+		registry.add("user.service.url", stub::userServiceUrl);
+		registry.add("account.service.url", stub::accountServiceUrl);
+		registry.add("tracing.export.file.path", spans::toString);
+	}
+
+	@AfterAll
+	static void cleanUp() throws IOException {
+		if (stub != null) {
+			stub.close();
+		}
+		Files.deleteIfExists(spans);
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${jwt.secret}")
+	private String jwtSecret;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SdkTracerProvider tracerProvider;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writeIsOneTraceAcrossTheCallChain() throws Exception {
+		String traceId = randomHex(16);
+		String callerSpanId = randomHex(8);
+		try {
+			post("00-" + traceId + "-" + callerSpanId + "-01");
+
+			List<JsonNode> trace = spans(traceId);
+			trace.forEach(span -> System.out.printf("%-8s %-32s %8d us  parent %s%n", span.get("kind").asText(),
+				span.get("name").asText(), span.get("durationMicros").asLong(), span.get("parentSpanId").asText()));
+			assertTrue(trace.stream().anyMatch(span -> span.get("kind").asText().equals("SERVER")
+				&& span.get("parentSpanId").asText().equals(callerSpanId)), "server span continues the caller's trace");
+			assertTrue(trace.stream().anyMatch(span -> span.get("name").asText().equals("jwt.verification")), "JWT span");
+			assertTrue(trace.stream().anyMatch(span -> span.get("name").asText().equals("query")), "JDBC spans");
+			assertEquals(2, trace.stream().filter(span -> span.get("name").asText().startsWith("http ")
+				&& span.get("kind").asText().equals("CLIENT")).count(),
+				"user and account validation calls");
+			assertEquals(2, traceparentsSentToPeers(traceId), "traceparent sent to the peers");
+		} finally {
+			deleteTransactions();
+		}
+	}
+
+	// The caller decided not to record: nothing is recorded here either, but the peers still get the trace context.
+	@Test
+	void unsampledCallerIsFollowed() throws Exception {
+		String traceId = randomHex(16);
+		try {
+			post("00-" + traceId + "-" + randomHex(8) + "-00");
+
+			assertTrue(spans(traceId).isEmpty(), "no spans recorded");
+			assertEquals(2, traceparentsSentToPeers(traceId), "traceparent sent to the peers");
+		} finally {
+			deleteTransactions();
+		}
+	}
+
+	private void post(String traceparent) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/transactions"))
+			.header("Authorization", "Bearer " + token())
+			.header("X-User-ID", String.valueOf(USER_ID))
+			.header("X-Account-ID", String.valueOf(USER_ID))
+			.header("Content-Type", "application/json")
+			.header("traceparent", traceparent)
+			.POST(HttpRequest.BodyPublishers.ofString(String.format(
+				"{\"description\":\"Trace test\",\"amount\":12.50,\"type\":\"EXPENSE\",\"date\":\"%s\"}", LocalDate.now())))
+			.build();
+		HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+		assertEquals(201, response.statusCode(), response.body());
+	}
+
+	private List<JsonNode> spans(String traceId) throws IOException {
+		tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+		List<JsonNode> trace = new ArrayList<>();
+		for (String line : Files.readAllLines(spans)) {
+			JsonNode span = objectMapper.readTree(line);
+			if (traceId.equals(span.get("traceId").asText())) {
+				trace.add(span);
+			}
+		}
+		return trace;
+	}
+
+	private static long traceparentsSentToPeers(String traceId) {
+		return stub.traceparents.stream().filter(header -> header.startsWith("00-" + traceId + "-")).count();
+	}
+
+	private void deleteTransactions() {
+		jdbcTemplate.update("DELETE FROM transactions WHERE account_id = ?", USER_ID);
+		jdbcTemplate.update("DELETE FROM monthly_summaries WHERE account_id = ?", USER_ID);
+	}
+
+	private static String randomHex(int bytes) {
+		byte[] random = new byte[bytes];
+		ThreadLocalRandom.current().nextBytes(random);
+		return HexFormat.of().formatHex(random);
+	}
+
+	// The same claims user-service puts in its tokens
+	private String token() {
+		Date now = new Date();
+		return Jwts.builder()
+			.claim("userId", USER_ID)
+			.claim("username", "tracetest")
+			.subject("tracetest")
+			.issuedAt(now)
+			.expiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+			.signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+			.compact();
+	}
+
+}
@@ -0,0 +1,295 @@
+package com.mahsa.transaction_service.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * End-to-end load test of transaction_service on this machine: the application runs on a random port against a
+ * local database, with StubPeerServer in place of user-service and account-service, and requests go through HTTP
+ * with a JWT like in production (PostgreSQL required; use a scratch database):
+ *
+ *   mvn test -Dtest=TransactionServiceLoadTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=... \
+ *       [-Dloadtest.rate=500] [-Dloadtest.duration=30s] [-Dloadtest.warmup=10s] [-Dloadtest.write-ratio=0.2] \
+ *       [-Dloadtest.users=100] [-Dloadtest.seed-rows=50] [-Dloadtest.max-in-flight=500] \
+ *       [-Dloadtest.stub.latency=5ms] [-Dloadtest.stub.slow-latency=200ms] [-Dloadtest.stub.slow-rate=0.01] \
+ *       [-Dloadtest.stub.failure-rate=0] [-Dloadtest.stub.failure-status=500]
+ *
+ * Every user gets one account (same id), seeded with seed-rows transactions through POST /api/transactions/batch.
+ * Then requests are sent at a fixed rate, each one a write (POST /api/transactions) with probability write-ratio,
+ * otherwise a read (GET /api/transactions?limit=50), for a random user. Latency counts from the time a request was
+ * due, not from when it was sent, so time spent queued behind a slow service (or the max-in-flight limit) is
+ * included. Prints throughput and p50/p99/p999 of writes, reads and both, measured after the warm-up.
+ * Validation answers are cached as in production; to put the stubs on every request, add -Dvalidation.cache.ttl=0s.
+ * The HTTP client retries a 503 once, after a second, so with failure-status 503 a failure shows up as latency
+ * and only becomes an error when the retry fails too.
+ * Metrics and tracing run as in production (sampling of application.properties); to measure their cost, compare with
+ * -Dmanagement.tracing.enabled=false or -Dmanagement.tracing.sampling.probability=1.0.
+ * The rows of the load test accounts are deleted at the end.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class TransactionServiceLoadTest {
+
+	// User ids (and account ids) of the load test, away from real ones
+	private static final long FIRST_USER_ID = 900_000_001L;
+
+	private static StubPeerServer stub;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		try {
+			stub = new StubPeerServer(duration("loadtest.stub.latency", "5ms"), duration("loadtest.stub.slow-latency", "200ms"),
+				rate("loadtest.stub.slow-rate", "0.01"), rate("loadtest.stub.failure-rate", "0"),
+				Integer.getInteger("loadtest.stub.failure-status", 500));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		registry.add("spring.datasource.url", () -> System.getProperty("benchmark.jdbc.url"));
+		registry.add("spring.datasource.username", () -> System.getProperty("benchmark.jdbc.user", "postgres"));
+		registry.add("spring.datasource.password", () -> System.getProperty("benchmark.jdbc.password", ""));
+		registry.add("spring.jpa.show-sql", () -> "false");
+		registry.add("user.service.url", stub::userServiceUrl);
+		registry.add("account.service.url", stub::accountServiceUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) {
+			stub.close();
+		}
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${jwt.secret}")
+	private String jwtSecret;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final HttpClient client = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	private String[] tokens;
+
+	@Test
+	void load() throws Exception {
+		int rate = Integer.getInteger("loadtest.rate", 500);
+		Duration duration = duration("loadtest.duration", "30s");
+		Duration warmup = duration("loadtest.warmup", "10s");
+		double writeRatio = rate("loadtest.write-ratio", "0.2");
+		int users = Integer.getInteger("loadtest.users", 100);
+		int seedRows = Integer.getInteger("loadtest.seed-rows", 50);
+		int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 500);
+
+		tokens = new String[users];
+		for (int user = 0; user < users; user++) {
+			tokens[user] = token(FIRST_USER_ID + user);
+		}
+		try {
+			seed(users, seedRows);
+			Latencies writes = new Latencies();
+			Latencies reads = new Latencies();
+			run(rate, warmup, duration, writeRatio, users, maxInFlight, writes, reads);
+
+			Latencies all = Latencies.merge(writes, reads);
+			System.out.printf("%n%d requests/s for %d s after %d s of warm-up, %.0f%% writes, %d users%n",
+				rate, duration.toSeconds(), warmup.toSeconds(), writeRatio * 100, users);
+			System.out.printf("%-6s %9s %7s %10s %9s %9s %9s %9s%n", "", "requests", "errors", "ok/s", "p50", "p99", "p999", "max");
+			writes.print("write", duration);
+			reads.print("read", duration);
+			all.print("all", duration);
+			System.out.printf("stub calls: %d user validations, %d account validations, %d balance delta posts, %d failed on purpose%n",
+				stub.userValidations.get(), stub.accountValidations.get(), stub.balanceDeltaPosts.get(), stub.failures.get());
+			assertTrue(all.count() > 0);
+		} finally {
+			long lastUserId = FIRST_USER_ID + users - 1;
+			jdbcTemplate.update("DELETE FROM transactions WHERE account_id BETWEEN ? AND ?", FIRST_USER_ID, lastUserId);
+			jdbcTemplate.update("DELETE FROM monthly_summaries WHERE account_id BETWEEN ? AND ?", FIRST_USER_ID, lastUserId);
+		}
+	}
+
+	private void seed(int users, int seedRows) throws IOException, InterruptedException {
+		if (seedRows == 0) {
+			return;
+		}
+		long start = System.nanoTime();
+		for (int user = 0; user < users; user++) {
+			StringJoiner rows = new StringJoiner(",", "[", "]");
+			for (int row = 0; row < seedRows; row++) {
+				rows.add(transactionJson());
+			}
+			// Injected failures also hit seeding, so a batch is retried a few times.
+			int status = 0;
+			for (int attempt = 0; attempt < 5 && status != 200 && status != 201; attempt++) {
+				status = client.send(request(user, "/batch").POST(HttpRequest.BodyPublishers.ofString(rows.toString())).build(),
+					HttpResponse.BodyHandlers.discarding()).statusCode();
+			}
+			if (status != 200 && status != 201) {
+				throw new IllegalStateException("Seeding the account of user " + (FIRST_USER_ID + user) + " failed with " + status);
+			}
+		}
+		System.out.printf("Seeded %d transactions in each of %d accounts in %.1f s%n", seedRows, users, (System.nanoTime() - start) / 1e9);
+	}
+
+	// Open model: request i is due at start + i / rate, whether or not earlier requests have finished.
+	private void run(int rate, Duration warmup, Duration duration, double writeRatio, int users, int maxInFlight,
+		Latencies writes, Latencies reads) throws Exception {
+		Semaphore inFlight = new Semaphore(maxInFlight);
+		List<CompletableFuture<?>> pending = new ArrayList<>();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+		for (long due = start; due < end; due += interval) {
+			for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+				LockSupport.parkNanos(wait);
+			}
+			int user = random.nextInt(users);
+			boolean write = random.nextDouble() < writeRatio;
+			HttpRequest request = write
+				? request(user, "").POST(HttpRequest.BodyPublishers.ofString(transactionJson())).build()
+				: request(user, "?limit=50").GET().build();
+			Latencies latencies = due >= measureFrom ? (write ? writes : reads) : null;
+			long dueAt = due;
+			inFlight.acquire();
+			pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+				inFlight.release();
+				if (latencies != null) {
+					latencies.record(System.nanoTime() - dueAt, e == null && response.statusCode() < 300);
+				}
+			}));
+		}
+		CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).get(2, TimeUnit.MINUTES);
+	}
+
+	private HttpRequest.Builder request(int user, String path) {
+		long userId = FIRST_USER_ID + user;
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/transactions" + path))
+			.timeout(Duration.ofSeconds(30))
+			.header("Authorization", "Bearer " + tokens[user])
+			.header("X-User-ID", String.valueOf(userId))
+			.header("X-Account-ID", String.valueOf(userId))
+			.header("Content-Type", "application/json");
+	}
+
+	private static String transactionJson() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return String.format("{\"description\":\"Load test %d\",\"amount\":%d.%02d,\"type\":\"%s\",\"date\":\"%s\"}",
+			random.nextInt(1_000_000), 1 + random.nextInt(500), random.nextInt(100),
+			random.nextInt(5) == 0 ? "INCOME" : "EXPENSE", LocalDate.now().minusDays(random.nextInt(365)));
+	}
+
+	// The same claims user-service puts in its tokens
+	private String token(long userId) {
+		Date now = new Date();
+		return Jwts.builder()
+			.claim("userId", userId)
+			.claim("username", "loadtest" + userId)
+			.subject("loadtest" + userId)
+			.issuedAt(now)
+			.expiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(2)))
+			.signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+			.compact();
+	}
+
+	private static Duration duration(String property, String defaultValue) {
+		return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+	}
+
+	private static double rate(String property, String defaultValue) {
+		return Double.parseDouble(System.getProperty(property, defaultValue));
+	}
+
+	// Latencies of completed requests (errors included) in nanoseconds.
+	private static final class Latencies {
+		private long[] nanos = new long[1024];
+		private int count;
+		private long errors;
+
+		synchronized void record(long latency, boolean ok) {
+			if (count == nanos.length) {
+				nanos = Arrays.copyOf(nanos, count * 2);
+			}
+			nanos[count++] = latency;
+			if (!ok) {
+				errors++;
+			}
+		}
+
+		synchronized int count() {
+			return count;
+		}
+
+		static Latencies merge(Latencies first, Latencies second) {
+			Latencies merged = new Latencies();
+			for (Latencies latencies : List.of(first, second)) {
+				synchronized (latencies) {
+					for (int i = 0; i < latencies.count; i++) {
+						merged.record(latencies.nanos[i], true);
+					}
+					merged.errors += latencies.errors;
+				}
+			}
+			return merged;
+		}
+
+		synchronized void print(String label, Duration duration) {
+			long[] sorted = Arrays.copyOf(nanos, count);
+			Arrays.sort(sorted);
+			System.out.printf("%-6s %9d %7d %10.1f %9s %9s %9s %9s%n", label, count, errors,
+				(count - errors) / (duration.toNanos() / 1e9),
+				millis(sorted, 50), millis(sorted, 99), millis(sorted, 99.9), millis(sorted, 100));
+		}
+
+		// Nearest-rank percentile
+		private static String millis(long[] sorted, double percentile) {
+			if (sorted.length == 0) {
+				return "-";
+			}
+			int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+			return String.format("%.1f ms", sorted[Math.max(rank, 1) - 1] / 1e6);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.mahsa.transaction_service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Runs schema.sql, as Spring Boot does after ddl-auto on every start, in the scratch schema schema_script_test
+ * (dropped afterwards) on a table whose ids came from the old IDENTITY column.
+ *
+ *   mvn test -Dtest=SchemaScriptTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class SchemaScriptTest {
+
+	private static final String SCHEMA = "schema_script_test";
+
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createTable() {
+		dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.jdbc.url"),
+			System.getProperty("benchmark.jdbc.user", "postgres"), System.getProperty("benchmark.jdbc.password", ""), true);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+		jdbcTemplate.execute("SET search_path TO " + SCHEMA + ", public");
+		jdbcTemplate.execute("CREATE TABLE transactions (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+			+ " amount numeric(38,2) NOT NULL, account_id bigint NOT NULL, date date, description varchar(255), type varchar(255))");
+		jdbcTemplate.execute("INSERT INTO transactions (amount, account_id) SELECT 1, 1 FROM generate_series(1, 120)");
+		// What ddl-auto=update adds once Transaction.id uses the pooled sequence
+		jdbcTemplate.execute("CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50");
+	}
+
+	@AfterEach
+	void dropSchema() {
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		dataSource.destroy();
+	}
+
+	@Test
+	void movesTheSequencePastIdentityIdsOnceAndThenLeavesItAlone() throws IOException {
+		runSchemaScript();
+		long lastValue = lastValue();
+		assertEquals(170, lastValue);
+
+		runSchemaScript();
+		assertEquals(lastValue, lastValue(), "second start");
+
+		// Hibernate's pooled optimizer uses the block ending at the value nextval returns.
+		long next = jdbcTemplate.queryForObject("SELECT nextval('transactions_seq')", Long.class);
+		assertTrue(next - 49 > 120, "first id of the next block: " + (next - 49));
+		runSchemaScript();
+		assertEquals(next, lastValue(), "a sequence ahead of the table is never moved back");
+	}
+
+	private long lastValue() {
+		return jdbcTemplate.queryForObject("SELECT last_value FROM transactions_seq", Long.class);
+	}
+
+	private void runSchemaScript() throws IOException {
+		for (String sql : schemaStatements()) {
+			jdbcTemplate.execute(sql);
+		}
+	}
+
+	private static List<String> schemaStatements() throws IOException {
+		try (InputStream in = SchemaScriptTest.class.getResourceAsStream("/schema.sql")) {
+			String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+			return Arrays.stream(script.split(";")).map(String::trim).filter(sql -> !sql.isEmpty()).toList();
+		}
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.mahsa.transaction_service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Seeds a scratch copy of the transactions table in PostgreSQL and prints the plan and execution time of the
+ * filtered and unfiltered listing queries, first with the indexes declared on Transaction and then without them.
+ * It needs a database, so it only runs when asked for:
+ *
+ *   mvn test -Dtest=TransactionFilterIndexBenchmark -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=... [-Dbenchmark.rows=2000000 -Dbenchmark.accounts=2000]
+ *
+ * Everything happens in the schema filter_benchmark, which is dropped at the end.
+ * The queries are the SQL that TransactionQueryService's filtered JPQL and TransactionRepository's listing queries
+ * translate to.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionFilterIndexBenchmark {
+
+	// An account far above the average, whose full export would be an expensive sort without the right index.
+	private static final long LARGE_ACCOUNT = -1;
+
+	private static final String SELECT = "SELECT id, amount, account_id, date, description, type FROM transactions WHERE account_id = 42";
+
+	private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+	static {
+		QUERIES.put("date range", SELECT + " AND date >= DATE '2024-03-01' AND date <= DATE '2024-03-31' ORDER BY date, id LIMIT 51");
+		QUERIES.put("date range, next page", SELECT + " AND date >= DATE '2024-01-01' AND date <= DATE '2024-12-31'"
+			+ " AND date >= DATE '2024-06-15' AND (date > DATE '2024-06-15' OR id > 1000) ORDER BY date, id LIMIT 51");
+		QUERIES.put("type + date range", SELECT + " AND date >= DATE '2024-01-01' AND date <= DATE '2024-06-30' AND type = 'EXPENSE'"
+			+ " ORDER BY date, id LIMIT 51");
+		QUERIES.put("amount range", SELECT + " AND amount >= 500 AND amount <= 510 ORDER BY date NULLS FIRST, id LIMIT 51");
+		QUERIES.put("all filters", SELECT + " AND date >= DATE '2023-01-01' AND date <= DATE '2024-12-31' AND type = 'INCOME'"
+			+ " AND amount >= 100 AND amount <= 200 ORDER BY date, id LIMIT 51");
+		// Unfiltered listing (TransactionRepository): undated rows first, read in index order without a sort.
+		QUERIES.put("first page", SELECT + " ORDER BY date NULLS FIRST, id LIMIT 51");
+		QUERIES.put("next page, undated", SELECT + " AND ((date IS NULL AND id > 1000) OR date IS NOT NULL)"
+			+ " ORDER BY date NULLS FIRST, id LIMIT 51");
+		// Whole-account reads (TransactionQueryService.forEachByAccountId) go through the same queries, 500 rows at a time.
+		QUERIES.put("stream, large account", "SELECT id, amount, account_id, date, description, type FROM transactions"
+			+ " WHERE account_id = " + LARGE_ACCOUNT + " ORDER BY date NULLS FIRST, id LIMIT 500");
+		QUERIES.put("stream, large account, next page", "SELECT id, amount, account_id, date, description, type FROM transactions"
+			+ " WHERE account_id = " + LARGE_ACCOUNT + " AND date >= DATE '2023-06-15' AND (date > DATE '2023-06-15' OR id > 1000)"
+			+ " ORDER BY date, id LIMIT 500");
+	}
+
+	private static final Set<String> READ_IN_INDEX_ORDER = Set.of("first page", "next page, undated",
+		"stream, large account", "stream, large account, next page");
+
+	// Same definitions as the @Index annotations on Transaction and the NULLS FIRST index in schema.sql.
+	private static final List<String> INDEXES = List.of(
+		"CREATE INDEX idx_transactions_account_id_date ON transactions (account_id, date, id)",
+		"CREATE INDEX idx_transactions_account_id_date_nulls_first ON transactions (account_id, date ASC NULLS FIRST, id)",
+		"CREATE INDEX idx_transactions_account_id_type_date ON transactions (account_id, type, date, id)",
+		"CREATE INDEX idx_transactions_account_id_amount ON transactions (account_id, amount)");
+
+	private Connection connection;
+
+	@BeforeAll
+	void seed() throws SQLException {
+		connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url"),
+			System.getProperty("benchmark.jdbc.user", "postgres"), System.getProperty("benchmark.jdbc.password", ""));
+		long rows = Long.getLong("benchmark.rows", 1_000_000);
+		long accounts = Long.getLong("benchmark.accounts", 1_000);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP SCHEMA IF EXISTS filter_benchmark CASCADE");
+			statement.execute("CREATE SCHEMA filter_benchmark");
+			statement.execute("SET search_path TO filter_benchmark");
+			statement.execute("CREATE TABLE transactions (id bigint PRIMARY KEY, amount numeric(38,2) NOT NULL,"
+				+ " account_id bigint NOT NULL, date date, description varchar(255), type varchar(255))");
+			// Three years of dates written roughly in date order, 2% undated, amounts 0.01..1000.00, 30% income.
+			// Every fifth row belongs to the large account.
+			statement.execute("INSERT INTO transactions SELECT g, round((random() * 1000)::numeric, 2) + 0.01,"
+				+ " CASE WHEN g % 5 = 0 THEN " + LARGE_ACCOUNT + " ELSE g % " + accounts + " END,"
+				+ " CASE WHEN random() < 0.02 THEN NULL ELSE DATE '2022-01-01' + (g * 1095 / " + rows + " + random() * 10)::int END,"
+				+ " 'transaction ' || g, CASE WHEN random() < 0.3 THEN 'INCOME' ELSE 'EXPENSE' END"
+				+ " FROM generate_series(1, " + rows + ") g");
+			statement.execute("ANALYZE transactions");
+		}
+		System.out.printf("Seeded %d transactions over %d accounts and one large account%n", rows, accounts);
+	}
+
+	@AfterAll
+	void dropSchema() throws SQLException {
+		if (connection != null) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("DROP SCHEMA IF EXISTS filter_benchmark CASCADE");
+			}
+			connection.close();
+		}
+	}
+
+	@Test
+	void filteredQueriesUseIndexRangeScans() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			for (String index : INDEXES) {
+				statement.execute(index);
+			}
+			statement.execute("ANALYZE transactions");
+		}
+		Map<String, List<String>> indexedPlans = explainAll("with indexes");
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP INDEX idx_transactions_account_id_date, idx_transactions_account_id_date_nulls_first,"
+				+ " idx_transactions_account_id_type_date, idx_transactions_account_id_amount");
+		}
+		explainAll("without indexes (primary key only)");
+
+		for (Map.Entry<String, List<String>> plan : indexedPlans.entrySet()) {
+			assertFalse(plan.getValue().stream().anyMatch(line -> line.contains("Seq Scan on transactions")),
+				plan.getKey() + " should not scan the whole table:\n" + String.join("\n", plan.getValue()));
+			if (READ_IN_INDEX_ORDER.contains(plan.getKey())) {
+				assertFalse(plan.getValue().stream().anyMatch(line -> line.contains("Sort")),
+					plan.getKey() + " should not sort the account's rows:\n" + String.join("\n", plan.getValue()));
+			}
+		}
+	}
+
+	private Map<String, List<String>> explainAll(String label) throws SQLException {
+		System.out.println("=== " + label + " ===");
+		Map<String, List<String>> plans = new LinkedHashMap<>();
+		for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+			explain(query.getValue()); // warm the cache so both runs read from memory
+			List<String> plan = explain(query.getValue());
+			plans.put(query.getKey(), plan);
+			System.out.println("--- " + query.getKey());
+			plan.forEach(System.out::println);
+		}
+		return plans;
+	}
+
+	private List<String> explain(String sql) throws SQLException {
+		List<String> plan = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+			ResultSet resultSet = statement.executeQuery("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+			while (resultSet.next()) {
+				plan.add(resultSet.getString(1));
+			}
+		}
+		return plan;
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.mahsa.transaction_service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Measures the description search on one account with a million transactions (PostgreSQL required):
+ *
+ *   mvn test -Dtest=TransactionSearchBenchmark -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=... [-Dbenchmark.rows=1000000]
+ *
+ * The search column and indexes are created by running the application's schema.sql in the scratch schema
+ * search_benchmark, and the queries are the ones TransactionSearchService sends. Prints p50/p95 per term.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionSearchBenchmark {
+
+	private static final String FULL_TEXT = "SELECT t.id, t.amount, t.account_id, t.date, t.description, t.type FROM transactions t"
+		+ " WHERE t.account_id = 1 AND t.description_tsv @@ to_tsquery('simple', ?)"
+		+ " ORDER BY ts_rank(t.description_tsv, to_tsquery('simple', ?)) DESC, t.id DESC LIMIT 21";
+
+	private static final String FUZZY = "SELECT t.id, t.amount, t.account_id, t.date, t.description, t.type FROM transactions t"
+		+ " WHERE t.account_id = 1 AND t.description % ? ORDER BY similarity(t.description, ?) DESC, t.id DESC LIMIT 20";
+
+	// From rare to common: each merchant name appears with a different frequency in the seeded data.
+	private static final List<String> TERMS = List.of("netflix:*", "rent:*", "amaz:*", "amazon:* & prime:*", "coffee:*");
+
+	private static final int RUNS = 200;
+
+	private Connection connection;
+
+	@BeforeAll
+	void seed() throws SQLException, IOException {
+		connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url"),
+			System.getProperty("benchmark.jdbc.user", "postgres"), System.getProperty("benchmark.jdbc.password", ""));
+		long rows = Long.getLong("benchmark.rows", 1_000_000);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+			statement.execute("CREATE SCHEMA search_benchmark");
+			statement.execute("SET search_path TO search_benchmark, public");
+			statement.execute("CREATE TABLE transactions (id bigint PRIMARY KEY, amount numeric(38,2) NOT NULL,"
+				+ " account_id bigint NOT NULL, date date, description varchar(255), type varchar(255))");
+			// As ddl-auto creates it for Transaction.id
+			statement.execute("CREATE SEQUENCE transactions_seq INCREMENT BY 50");
+			// Account 1 gets every row; merchants are drawn with skewed frequencies, plus a random reference number.
+			statement.execute("INSERT INTO transactions SELECT g, 1 + (g % 500), 1, DATE '2022-01-01' + (g % 1000),"
+				+ " (ARRAY['COFFEE HOUSE','COFFEE HOUSE','COFFEE HOUSE','COFFEE HOUSE','AMAZON Marketplace','AMAZON Prime Video',"
+				+ "'Grocery Store','Grocery Store','Fuel Station','Monthly rent','NETFLIX.COM'])[1 + (g * 7 % 11)]"
+				+ " || ' ref ' || (random() * 1000000)::int, 'EXPENSE' FROM generate_series(1, " + rows + ") g");
+			for (String sql : schemaStatements()) {
+				statement.execute(sql);
+			}
+			statement.execute("ANALYZE transactions");
+		}
+		System.out.printf("Seeded %d transactions in one account%n", rows);
+	}
+
+	@AfterAll
+	void dropSchema() throws SQLException {
+		if (connection != null) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+			}
+			connection.close();
+		}
+	}
+
+	@Test
+	void searchLatency() throws SQLException {
+		long worstP95 = 0;
+		for (String term : TERMS) {
+			worstP95 = Math.max(worstP95, measure("fulltext " + term, FULL_TEXT, term));
+		}
+		measure("fuzzy amazn", FUZZY, "amazn");
+		System.out.printf("Worst full-text p95: %.1f ms (target 50 ms)%n", worstP95 / 1e6);
+		assertTrue(worstP95 > 0);
+	}
+
+	private long measure(String label, String sql, String parameter) throws SQLException {
+		long[] nanos = new long[RUNS];
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setString(1, parameter);
+			statement.setString(2, parameter);
+			for (int i = 0; i < RUNS; i++) {
+				long start = System.nanoTime();
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while (resultSet.next()) {
+						// read every row like the service does
+					}
+				}
+				nanos[i] = System.nanoTime() - start;
+			}
+		}
+		Arrays.sort(nanos);
+		long p50 = nanos[RUNS / 2];
+		long p95 = nanos[RUNS * 95 / 100];
+		System.out.printf("%-30s p50 %6.1f ms   p95 %6.1f ms%n", label, p50 / 1e6, p95 / 1e6);
+		return p95;
+	}
+
+	private static List<String> schemaStatements() throws IOException {
+		try (InputStream in = TransactionSearchBenchmark.class.getResourceAsStream("/schema.sql")) {
+			String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+			return Arrays.stream(script.split(";")).map(String::trim).filter(sql -> !sql.isEmpty()).toList();
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.mahsa.transaction_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+class JwtUtilTest {
+
+	private static final String SECRET = "ThisIsASecretKeyItShouldBeLongerThan32CharsAndMoreComplexThanThis";
+
+	private JwtUtil jwtUtil;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtil = new JwtUtil(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+		ReflectionTestUtils.setField(jwtUtil, "secretString", SECRET);
+		ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 100L);
+		jwtUtil.init();
+	}
+
+	private static String token(long expiresInMs) {
+		Date now = new Date();
+		return Jwts.builder()
+				.claim("userId", 5L)
+				.subject("mahsa")
+				.issuedAt(now)
+				.expiration(new Date(now.getTime() + expiresInMs))
+				.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+				.compact();
+	}
+
+	@Test
+	void verifiesOnceAndServesRepeatsFromCache() {
+		String token = token(60_000);
+		VerifiedToken first = jwtUtil.verifyToken(token);
+		assertEquals(5L, first.getUserId());
+		assertEquals("mahsa", first.getUsername());
+		assertSame(first, jwtUtil.verifyToken(token));
+	}
+
+	@Test
+	void rejectsTamperedAndExpiredTokens() {
+		String token = token(60_000);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+		assertNull(jwtUtil.verifyToken(tampered));
+		assertNull(jwtUtil.verifyToken(token(-1_000)));
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.mahsa.transaction_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.mahsa.common.security.ServiceTokens;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class ServiceTokenFilterTest {
+
+	private static final String SECRET = "ThisIsTheServiceToServiceSecretItMustDifferFromJwtSecretAndBeLongerThan32Chars";
+	private static final String USER_SECRET = "ThisIsASecretKeyItShouldBeLongerThan32CharsAndMoreComplexThanThis";
+
+	private final ServiceTokenFilter filter = new ServiceTokenFilter(
+		new ServiceTokens(SECRET, "transaction_service", Duration.ofMinutes(1)));
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	// Same claims as ServiceTokens.issue in account-service
+	private static JwtBuilder token(String secret, long expiresInMs) {
+		Date now = new Date();
+		return Jwts.builder()
+				.subject("account_service")
+				.audience().add("transaction_service").and()
+				.issuedAt(now)
+				.expiration(new Date(now.getTime() + expiresInMs))
+				.signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static Authentication filter(ServiceTokenFilter filter, String uri, String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+		if (token != null) {
+			request.addHeader(ServiceTokens.HEADER, token);
+		}
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertNotNull(chain.getRequest(), "request continues down the chain");
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+	@Test
+	void validTokenGetsTheServiceRole() throws Exception {
+		Authentication authentication = filter(filter, "/api/transactions/balance-sums", token(SECRET, 60_000).compact());
+		assertEquals("account_service", authentication.getName());
+		assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_SERVICE")));
+	}
+
+	@Test
+	void rejectsMissingForeignExpiredAndMisaddressedTokens() throws Exception {
+		String path = "/api/transactions/balance-sums";
+		assertNull(filter(filter, path, null));
+		assertNull(filter(filter, path, "not-a-jwt"));
+		// A user JWT is signed with jwt.secret, not the service secret
+		assertNull(filter(filter, path, token(USER_SECRET, 60_000).compact()));
+		assertNull(filter(filter, path, token(SECRET, -1_000).compact()));
+		assertNull(filter(filter, path, token(SECRET, 60_000).audience().single("user-service").compact()));
+		Date now = new Date();
+		String withoutExpiry = Jwts.builder().subject("account_service").audience().add("transaction_service").and()
+				.issuedAt(now).signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).compact();
+		assertNull(filter(filter, path, withoutExpiry));
+	}
+
+	@Test
+	void onlyRunsOnServicePaths() throws Exception {
+		assertNull(filter(filter, "/api/transactions", token(SECRET, 60_000).compact()));
+	}
+
+}
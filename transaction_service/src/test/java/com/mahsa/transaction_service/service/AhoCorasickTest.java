@@ -0,0 +1,45 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AhoCorasickTest {
+
+	@Test
+	void reportsOverlappingAndNestedMatches() {
+		AhoCorasick matcher = AhoCorasick.build(List.of("he", "she", "his", "hers"));
+		List<Integer> found = new ArrayList<>();
+		matcher.match("ushers", found::add);
+		// "she" and "he" end at the same position, "hers" ends at the last one.
+		assertEquals(List.of(1, 0, 3), found);
+	}
+
+	@Test
+	void ignoresCase() {
+		AhoCorasick matcher = AhoCorasick.build(List.of("Netflix", "UBER"));
+		List<Integer> found = new ArrayList<>();
+		matcher.match("uber *trip / NETFLIX.COM", found::add);
+		assertEquals(List.of(1, 0), found);
+	}
+
+	@Test
+	void followsFailureLinksAfterPartialMatches() {
+		AhoCorasick matcher = AhoCorasick.build(List.of("abcd", "bce"));
+		List<Integer> found = new ArrayList<>();
+		matcher.match("xabcex", found::add);
+		assertEquals(List.of(1), found);
+	}
+
+	@Test
+	void reportsEveryOccurrenceAndSkipsEmptyPatterns() {
+		AhoCorasick matcher = AhoCorasick.build(List.of("", "aa"));
+		List<Integer> found = new ArrayList<>();
+		matcher.match("aaaa", found::add);
+		assertEquals(List.of(1, 1, 1), found);
+	}
+
+}
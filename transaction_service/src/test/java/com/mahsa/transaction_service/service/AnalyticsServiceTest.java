@@ -0,0 +1,125 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mahsa.transaction_service.dto.AmountPercentilesDTO;
+import com.mahsa.transaction_service.dto.AnalyticsBucketDTO;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.AnalyticsPeriod;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AnalyticsServiceTest {
+
+	private final TransactionQueryService queryService = mock(TransactionQueryService.class);
+	private final AnalyticsService analyticsService = new AnalyticsService(queryService, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void twoAccounts() {
+		doAnswer(invocation -> {
+			Consumer<Transaction> action = invocation.getArgument(2);
+			action.accept(transaction(null, "7.00", TransactionType.EXPENSE));
+			action.accept(transaction("2023-12-31", "1000.00", TransactionType.INCOME));
+			action.accept(transaction("2024-01-05", "12.50", TransactionType.EXPENSE));
+			action.accept(transaction("2024-01-20", "30.00", TransactionType.EXPENSE));
+			action.accept(transaction("2024-03-01", "0.01", TransactionType.EXPENSE));
+			return null;
+		}).when(queryService).forEachByAccountId(eq(1L), eq(TransactionFilter.NONE), any(Consumer.class));
+		doAnswer(invocation -> {
+			Consumer<Transaction> action = invocation.getArgument(2);
+			action.accept(transaction("2024-01-31", "2000.00", TransactionType.INCOME));
+			action.accept(transaction("2024-03-15", "100.00", TransactionType.EXPENSE));
+			return null;
+		}).when(queryService).forEachByAccountId(eq(2L), eq(TransactionFilter.NONE), any(Consumer.class));
+	}
+
+	@Test
+	void sumsPerMonthOverAccountsSkippingEmptyMonths() {
+		List<AnalyticsBucketDTO> months = analyticsService.totals(List.of(1L, 2L), AnalyticsPeriod.MONTH, null, null, "period", 100);
+
+		assertEquals(List.of("2023-12", "2024-01", "2024-03"), months.stream().map(AnalyticsBucketDTO::getPeriod).toList());
+		AnalyticsBucketDTO january = months.get(1);
+		assertEquals(new BigDecimal("2000.00"), january.getIncome());
+		assertEquals(new BigDecimal("42.50"), january.getExpense());
+		assertEquals(2, january.getExpenseCount());
+		assertEquals(new BigDecimal("1957.50"), january.getNet());
+		assertEquals(new BigDecimal("100.01"), months.get(2).getExpense());
+	}
+
+	@Test
+	void ordersAndLimitsBuckets() {
+		List<AnalyticsBucketDTO> top = analyticsService.totals(List.of(1L, 2L), AnalyticsPeriod.MONTH, null, null, "expense", 1);
+		assertEquals(List.of("2024-03"), top.stream().map(AnalyticsBucketDTO::getPeriod).toList());
+
+		List<AnalyticsBucketDTO> years = analyticsService.totals(List.of(1L), AnalyticsPeriod.YEAR,
+			LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "period", 10);
+		assertEquals(1, years.size());
+		assertEquals("2024", years.get(0).getPeriod());
+		assertEquals(new BigDecimal("42.50"), years.get(0).getExpense());
+	}
+
+	@Test
+	void nearestRankPercentilesIncludeUndatedOnlyWithoutBounds() {
+		AmountPercentilesDTO all = analyticsService.percentiles(List.of(1L), TransactionType.EXPENSE, null, null, new double[] {50, 100});
+		assertEquals(4, all.getCount());
+		assertEquals(new BigDecimal("7.00"), all.getPercentiles().get("50"));
+		assertEquals(new BigDecimal("30.00"), all.getPercentiles().get("100"));
+
+		AmountPercentilesDTO dated = analyticsService.percentiles(List.of(1L), TransactionType.EXPENSE,
+			LocalDate.of(2024, 1, 1), null, new double[] {99.9});
+		assertEquals(3, dated.getCount());
+		assertEquals(new BigDecimal("30.00"), dated.getPercentiles().get("99.9"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void cachesColumnsUntilInvalidated() {
+		analyticsService.totals(List.of(1L), AnalyticsPeriod.MONTH, null, null, "period", 10);
+		analyticsService.totals(List.of(1L), AnalyticsPeriod.MONTH, null, null, "period", 10);
+		verify(queryService, times(1)).forEachByAccountId(eq(1L), eq(TransactionFilter.NONE), any(Consumer.class));
+
+		analyticsService.invalidateAfterCommit(List.of(1L));
+		analyticsService.totals(List.of(1L), AnalyticsPeriod.MONTH, null, null, "period", 10);
+		verify(queryService, times(2)).forEachByAccountId(eq(1L), eq(TransactionFilter.NONE), any(Consumer.class));
+	}
+
+	@Test
+	void columnsKeepDateOrderAndExactMinorUnits() {
+		ColumnarTransactions columns = new ColumnarTransactions.Builder()
+			.add(transaction(null, "1.10", null))
+			.add(transaction("2024-02-29", "123456789.99", TransactionType.INCOME))
+			.build();
+		assertEquals(ColumnarTransactions.UNDATED, columns.epochDay(0));
+		assertEquals(12345678999L, columns.amount(1));
+		assertEquals(ColumnarTransactions.UNTYPED, columns.type(0));
+		assertArrayEquals(new long[] {110L, 12345678999L},
+			AnalyticsService.amounts(List.of(columns), ColumnarTransactions.UNTYPED, ColumnarTransactions.UNDATED, Integer.MAX_VALUE));
+		assertThrows(IllegalArgumentException.class, () -> new ColumnarTransactions.Builder()
+			.add(transaction("2024-02-29", "1", null))
+			.add(transaction("2024-02-28", "1", null)));
+	}
+
+	private static Transaction transaction(String date, String amount, TransactionType type) {
+		return new Transaction("t", new BigDecimal(amount), type, date == null ? null : LocalDate.parse(date), 1L);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mahsa.transaction_service.entity.CategoryRule;
+
+class CategorizationEngineTest {
+
+	@Test
+	void firstMatchingRuleInPriorityOrderWins() {
+		CategorizationEngine engine = CategorizationEngine.compile(List.of(
+			rule("Transport", "uber trip", false),
+			rule("Food", "uber", false),
+			rule("Streaming", "netflix", false)));
+
+		assertEquals("Transport", engine.categorize("UBER TRIP 1234 AMSTERDAM"));
+		assertEquals("Food", engine.categorize("Uber Eats order"));
+		assertEquals("Streaming", engine.categorize("netflix.com"));
+		assertNull(engine.categorize("Rent March"));
+		assertNull(engine.categorize(null));
+	}
+
+	@Test
+	void regexRulesAreCheckedOnlyAgainstBetterRankedMatches() {
+		CategorizationEngine engine = CategorizationEngine.compile(List.of(
+			rule("Salary", "salary \\d{4}-\\d{2}", true),
+			rule("Income", "salary", false),
+			rule("Groceries", "^(albert heijn|jumbo)\\b", true)));
+
+		assertEquals("Salary", engine.categorize("SALARY 2024-05 ACME"));
+		assertEquals("Income", engine.categorize("salary bonus"));
+		assertEquals("Groceries", engine.categorize("Jumbo Utrecht"));
+		assertNull(engine.categorize("paid to jumbo"));
+	}
+
+	@Test
+	void extractsOnlyLiteralsEveryMatchMustContain() {
+		assertEquals("salary ", CategorizationEngine.requiredLiteral("salary \\d{4}"));
+		assertEquals("coffe", CategorizationEngine.requiredLiteral("coffee?"));
+		assertEquals("shop", CategorizationEngine.requiredLiteral("(online )?shop[0-9]+"));
+		assertEquals("a.b", CategorizationEngine.requiredLiteral("x*a\\.b"));
+		assertNull(CategorizationEngine.requiredLiteral("tram|bus"));
+		assertNull(CategorizationEngine.requiredLiteral("\\x41bc"));
+		assertNull(CategorizationEngine.requiredLiteral("[a-z]+\\d"));
+	}
+
+	@Test
+	void backtrackingRegexGivesUpAndLowerRulesStillMatch() {
+		// No nested repetition, but each .* backtracks over all the others: without the step limit this takes far longer.
+		CategorizationEngine engine = CategorizationEngine.compile(List.of(
+			rule("Never", "=.*.*.*.*.*.*.*.*;", true),
+			rule("Fallback", "aaaa", false)));
+
+		assertTimeoutPreemptively(Duration.ofSeconds(1),
+			() -> assertEquals("Fallback", engine.categorize("=" + "a".repeat(250))));
+		assertEquals("Never", engine.categorize("=aaaa;"));
+	}
+
+	@Test
+	void findsNestedRepetition() {
+		assertTrue(CategorizationEngine.hasNestedRepetition("(a+)+"));
+		assertTrue(CategorizationEngine.hasNestedRepetition("^(\\w*\\s)*$"));
+		assertTrue(CategorizationEngine.hasNestedRepetition("((ab)*c)+"));
+		assertTrue(CategorizationEngine.hasNestedRepetition("(a{1,3}){2,}"));
+		assertTrue(CategorizationEngine.hasNestedRepetition("(?:x[a-z]+)*"));
+		assertFalse(CategorizationEngine.hasNestedRepetition("salary \\d{4}-\\d{2}"));
+		assertFalse(CategorizationEngine.hasNestedRepetition("(\\d{1,3}\\.){3}\\d{1,3}"));
+		assertFalse(CategorizationEngine.hasNestedRepetition("(ab)+c*"));
+		assertFalse(CategorizationEngine.hasNestedRepetition("(online )?shop[0-9]+"));
+		assertFalse(CategorizationEngine.hasNestedRepetition("\\(a+\\)+"));
+		assertFalse(CategorizationEngine.hasNestedRepetition("([(+]x)+"));
+	}
+
+	private static CategoryRule rule(String category, String pattern, boolean regex) {
+		return new CategoryRule(1L, category, pattern, regex, 0);
+	}
+
+}
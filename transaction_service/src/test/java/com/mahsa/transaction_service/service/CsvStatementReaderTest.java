@@ -0,0 +1,74 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.mahsa.transaction_service.enums.TransactionType;
+
+class CsvStatementReaderTest {
+
+	@Test
+	void readsRowsByHeaderNameWithQuotedFields() throws IOException {
+		CsvStatementReader reader = new CsvStatementReader(new StringReader(
+			"Amount,Type,Description,Date\r\n"
+			+ "12.50,expense,\"Coffee, \"\"large\"\"\",2024-01-31\r\n"
+			+ "\r\n"
+			+ "3000,INCOME,\"Salary\nJanuary\",2024-02-01\n"
+			+ "5,INCOME,,\n"));
+
+		StatementRow first = reader.next();
+		assertEquals(2, first.getLineNumber());
+		assertEquals(new BigDecimal("12.50"), first.getRequest().getAmount());
+		assertEquals(TransactionType.EXPENSE, first.getRequest().getType());
+		assertEquals("Coffee, \"large\"", first.getRequest().getDescription());
+		assertEquals(LocalDate.of(2024, 1, 31), first.getRequest().getDate());
+
+		StatementRow second = reader.next();
+		assertEquals(4, second.getLineNumber());
+		assertEquals("Salary\nJanuary", second.getRequest().getDescription());
+
+		StatementRow third = reader.next();
+		assertEquals(6, third.getLineNumber());
+		assertNull(third.getRequest().getDate());
+		assertNull(third.getRequest().getDescription());
+
+		assertNull(reader.next());
+	}
+
+	@Test
+	void derivesTypeFromSignWithoutTypeColumn() throws IOException {
+		CsvStatementReader reader = new CsvStatementReader(new StringReader("date,memo,amount\n2024-03-01,Rent,-900.00\n2024-03-02,Refund,20\n"));
+
+		StatementRow rent = reader.next();
+		assertEquals(TransactionType.EXPENSE, rent.getRequest().getType());
+		assertEquals(new BigDecimal("900.00"), rent.getRequest().getAmount());
+		assertEquals("Rent", rent.getRequest().getDescription());
+		assertEquals(TransactionType.INCOME, reader.next().getRequest().getType());
+	}
+
+	@Test
+	void reportsBadLinesAndContinues() throws IOException {
+		CsvStatementReader reader = new CsvStatementReader(new StringReader(
+			"date,amount,type\n2024-13-01,1,INCOME\n2024-01-01,abc,INCOME\n2024-01-01,1,TRANSFER\n2024-01-01,1,INCOME\n"));
+
+		assertEquals("date is not in yyyy-MM-dd format: 2024-13-01", reader.next().getError());
+		assertEquals(3, reader.next().getLineNumber());
+		assertEquals("type must be INCOME or EXPENSE: TRANSFER", reader.next().getError());
+		assertNull(reader.next().getError());
+	}
+
+	@Test
+	void rejectsFilesWithoutAmountColumnOrWithUnterminatedQuote() {
+		assertThrows(IOException.class, () -> new CsvStatementReader(new StringReader("date,description\n")).next());
+		assertThrows(IOException.class, () -> new CsvStatementReader(new StringReader("amount,description\n1,\"open")).next());
+	}
+
+}
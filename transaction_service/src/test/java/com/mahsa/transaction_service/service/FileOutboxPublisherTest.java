@@ -0,0 +1,46 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mahsa.transaction_service.entity.OutboxEvent;
+
+class FileOutboxPublisherTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void appendsOneJsonLinePerEvent(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("events/outbox.ndjson");
+		FileOutboxPublisher publisher = new FileOutboxPublisher(objectMapper, file);
+
+		publisher.publish(List.of(event(1L, 10L), event(2L, 11L)));
+		publisher.publish(List.of(event(1L, 10L))); // redelivery after a failed batch
+
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(3, lines.size());
+		JsonNode first = objectMapper.readTree(lines.get(0));
+		assertEquals(1L, first.get("id").asLong());
+		assertEquals(OutboxEvent.TRANSACTION_CREATED, first.get("eventType").asText());
+		assertEquals(10L, first.get("transactionId").asLong());
+		assertEquals("12.50", first.get("payload").get("amount").asText());
+		assertEquals(1L, objectMapper.readTree(lines.get(2)).get("id").asLong());
+	}
+
+	private static OutboxEvent event(Long id, Long transactionId) {
+		OutboxEvent event = new OutboxEvent(OutboxEvent.TRANSACTION_CREATED, 5L, transactionId,
+			"{\"id\":" + transactionId + ",\"amount\":\"12.50\"}", Instant.parse("2024-01-31T10:00:00Z"));
+		event.setId(id);
+		return event;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyServiceTest {
+
+	private final IdempotencyService service = new IdempotencyService(new SimpleMeterRegistry(),
+		Duration.ofHours(1), 1000, Duration.ofSeconds(5));
+
+	@Test
+	void replaysTheFirstResponse() {
+		AtomicInteger runs = new AtomicInteger();
+		ResponseEntity<?> first = service.execute("1:2:key", "body", () -> ResponseEntity.status(HttpStatus.CREATED).body(runs.incrementAndGet()));
+		ResponseEntity<?> retry = service.execute("1:2:key", "body", () -> ResponseEntity.status(HttpStatus.CREATED).body(runs.incrementAndGet()));
+
+		assertEquals(1, runs.get());
+		assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+		assertEquals(first.getBody(), retry.getBody());
+		assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+		assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+	}
+
+	@Test
+	void rejectsKeyReuseForDifferentRequest() {
+		service.execute("1:2:key", "body", () -> ResponseEntity.ok("first"));
+
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, service.execute("1:2:key", "other body", () -> ResponseEntity.ok("second")).getStatusCode());
+	}
+
+	@Test
+	void doesNotKeepServerErrors() {
+		service.execute("1:2:key", "body", () -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+
+		assertEquals(HttpStatus.OK, service.execute("1:2:key", "body", () -> ResponseEntity.ok("retried")).getStatusCode());
+	}
+
+	@Test
+	void collapsesConcurrentRequests() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() -> service.execute("1:2:key", "body", () -> {
+			runs.incrementAndGet();
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return ResponseEntity.status(HttpStatus.CREATED).body("created");
+		}));
+		started.await(5, TimeUnit.SECONDS);
+		CompletableFuture<ResponseEntity<?>> retry = CompletableFuture.supplyAsync(
+			() -> service.execute("1:2:key", "body", () -> ResponseEntity.ok(runs.incrementAndGet())));
+		Thread.sleep(100); // the retry is now waiting for the first request
+		release.countDown();
+
+		assertEquals("created", retry.get(5, TimeUnit.SECONDS).getBody());
+		assertEquals("created", first.get(5, TimeUnit.SECONDS).getBody());
+		assertEquals(1, runs.get());
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mahsa.transaction_service.dto.MonthlySummaryDTO;
+import com.mahsa.transaction_service.entity.MonthlySummary;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+import com.mahsa.transaction_service.repository.MonthlySummaryRepository;
+
+class MonthlySummaryServiceTest {
+
+	private final MonthlySummaryRepository repository = mock(MonthlySummaryRepository.class);
+	private final MonthlySummaryService service = new MonthlySummaryService(repository, mock(TransactionTemplate.class),
+		mock(TransactionArchive.class));
+
+	@Test
+	void addsOneUpsertPerMonthAndTypeInKeyOrder() {
+		service.addAll(List.of(
+			new Transaction("rent", new BigDecimal("900.00"), TransactionType.EXPENSE, LocalDate.of(2024, 2, 1), 1L),
+			new Transaction("salary", new BigDecimal("3000.00"), TransactionType.INCOME, LocalDate.of(2024, 1, 25), 1L),
+			new Transaction("food", new BigDecimal("50.25"), TransactionType.EXPENSE, LocalDate.of(2024, 2, 14), 1L),
+			new Transaction("undated", new BigDecimal("1.00"), TransactionType.EXPENSE, null, 1L)));
+
+		InOrder inOrder = Mockito.inOrder(repository);
+		inOrder.verify(repository).lockAccountForUpdate(1L);
+		inOrder.verify(repository).addToMonth(1L, LocalDate.of(2024, 1, 1), "INCOME", new BigDecimal("3000.00"), 1);
+		inOrder.verify(repository).addToMonth(1L, LocalDate.of(2024, 2, 1), "EXPENSE", new BigDecimal("950.25"), 2);
+		inOrder.verifyNoMoreInteractions();
+	}
+
+	@Test
+	void locksEachAccountOnceBeforeItsUpserts() {
+		service.addAll(List.of(
+			new Transaction("b", new BigDecimal("2.00"), TransactionType.EXPENSE, LocalDate.of(2024, 3, 1), 2L),
+			new Transaction("a", new BigDecimal("1.00"), TransactionType.EXPENSE, LocalDate.of(2024, 3, 1), 1L),
+			new Transaction("a", new BigDecimal("1.00"), TransactionType.INCOME, LocalDate.of(2024, 3, 2), 1L)));
+
+		InOrder inOrder = Mockito.inOrder(repository);
+		inOrder.verify(repository).lockAccountForUpdate(1L);
+		inOrder.verify(repository).addToMonth(1L, LocalDate.of(2024, 3, 1), "INCOME", new BigDecimal("1.00"), 1);
+		inOrder.verify(repository).addToMonth(1L, LocalDate.of(2024, 3, 1), "EXPENSE", new BigDecimal("1.00"), 1);
+		inOrder.verify(repository).lockAccountForUpdate(2L);
+		inOrder.verify(repository).addToMonth(2L, LocalDate.of(2024, 3, 1), "EXPENSE", new BigDecimal("2.00"), 1);
+		inOrder.verifyNoMoreInteractions();
+	}
+
+	@Test
+	void ignoresUndatedTransactions() {
+		service.addAll(List.of(new Transaction("undated", BigDecimal.TEN, TransactionType.INCOME, null, 1L)));
+
+		verify(repository, never()).addToMonth(anyLong(), any(), anyString(), any(), anyLong());
+	}
+
+	@Test
+	void fillsMonthsWithoutTransactions() {
+		when(repository.findByAccountIdAndMonthBetweenOrderByMonthAsc(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1)))
+			.thenReturn(List.of(summary(LocalDate.of(2024, 2, 1), TransactionType.INCOME, "100.00", 2),
+				summary(LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, "30.00", 1)));
+
+		List<MonthlySummaryDTO> months = service.findSummary(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+
+		assertEquals(3, months.size());
+		assertEquals("2024-01", months.get(0).getMonth());
+		assertEquals(0, months.get(0).getNet().signum());
+		assertEquals(new BigDecimal("70.00"), months.get(1).getNet());
+		assertEquals(2, months.get(1).getIncomeCount());
+		assertEquals(1, months.get(1).getExpenseCount());
+		assertEquals("2024-03", months.get(2).getMonth());
+	}
+
+	private static MonthlySummary summary(LocalDate month, TransactionType type, String total, long count) {
+		MonthlySummary summary = new MonthlySummary();
+		summary.setAccountId(1L);
+		summary.setMonth(month);
+		summary.setType(type);
+		summary.setTotal(new BigDecimal(total));
+		summary.setTransactionCount(count);
+		return summary;
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.mahsa.transaction_service.enums.TransactionType;
+
+class OfxStatementReaderTest {
+
+	@Test
+	void readsSgmlStatementWithoutClosingTags() throws IOException {
+		OfxStatementReader reader = new OfxStatementReader(new StringReader(
+			"OFXHEADER:100\nDATA:OFXSGML\n\n<OFX>\n<BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+			+ "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20240131120000[0:GMT]\n<TRNAMT>-42.10\n<NAME>Grocer &amp; Co\n<MEMO>Card\n"
+			+ "<STMTTRN>\n<TRNTYPE>CREDIT\n<DTPOSTED>20240201\n<TRNAMT>1500.00\n<MEMO>Salary\n"
+			+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n"));
+
+		StatementRow first = reader.next();
+		assertEquals(6, first.getLineNumber());
+		assertEquals(TransactionType.EXPENSE, first.getRequest().getType());
+		assertEquals(new BigDecimal("42.10"), first.getRequest().getAmount());
+		assertEquals(LocalDate.of(2024, 1, 31), first.getRequest().getDate());
+		assertEquals("Grocer & Co", first.getRequest().getDescription());
+
+		StatementRow second = reader.next();
+		assertEquals(TransactionType.INCOME, second.getRequest().getType());
+		assertEquals("Salary", second.getRequest().getDescription());
+
+		assertNull(reader.next());
+	}
+
+	@Test
+	void readsXmlStatementAndReportsBrokenTransactions() throws IOException {
+		OfxStatementReader reader = new OfxStatementReader(new StringReader(
+			"<?xml version=\"1.0\"?><OFX><BANKTRANLIST>"
+			+ "<STMTTRN><DTPOSTED>20240305</DTPOSTED><TRNAMT>7.5</TRNAMT><NAME>Bus</NAME></STMTTRN>\n"
+			+ "<STMTTRN><DTPOSTED>20240306</DTPOSTED><NAME>No amount</NAME></STMTTRN>"
+			+ "</BANKTRANLIST></OFX>"));
+
+		assertEquals(new BigDecimal("7.5"), reader.next().getRequest().getAmount());
+		StatementRow broken = reader.next();
+		assertEquals(2, broken.getLineNumber());
+		assertEquals("TRNAMT is missing", broken.getError());
+		assertNull(reader.next());
+	}
+
+}
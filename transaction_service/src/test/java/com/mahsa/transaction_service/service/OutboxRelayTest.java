@@ -0,0 +1,57 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mahsa.transaction_service.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxRelayTest {
+
+	private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final OutboxRelay relay = new OutboxRelay(repository, List.of(),
+		new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 100, 1000);
+
+	@Test
+	void purgesPublishedEventsInBatchesUntilNoneAreLeft() {
+		ReflectionTestUtils.setField(relay, "retentionDays", 7);
+		ReflectionTestUtils.setField(relay, "purgeBatchSize", 1000);
+		when(repository.deletePublishedBefore(any(), eq(1000))).thenReturn(1000, 1000, 3);
+
+		assertEquals(2003, relay.purgePublished());
+
+		ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+		verify(repository, times(3)).deletePublishedBefore(cutoff.capture(), eq(1000));
+		Duration age = Duration.between(cutoff.getValue(), Instant.now());
+		assertTrue(age.compareTo(Duration.ofDays(7)) >= 0 && age.compareTo(Duration.ofDays(7).plusMinutes(1)) < 0, age.toString());
+		assertEquals(2003, meterRegistry.counter("outbox.events.purged").count());
+	}
+
+	@Test
+	void failedPurgeIsLeftForTheNextRun() {
+		ReflectionTestUtils.setField(relay, "retentionDays", 7);
+		ReflectionTestUtils.setField(relay, "purgeBatchSize", 1000);
+		when(repository.deletePublishedBefore(any(), eq(1000))).thenReturn(1000).thenThrow(new IllegalStateException("down"));
+
+		assertEquals(1000, relay.purgePublished());
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mahsa.transaction_service.entity.Transaction;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Archives the old months of a partitioned scratch transactions table in PostgreSQL (schema archive_test, dropped
+ * afterwards) and checks that rows added to an archived month later are swept into its archive.
+ *
+ *   mvn test -Dtest=TransactionArchiveServiceTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class TransactionArchiveServiceTest {
+
+	private static final String SCHEMA = "archive_test";
+	private static final YearMonth OLD = YearMonth.now().minusMonths(14);
+
+	@TempDir
+	Path directory;
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionArchive archive;
+	private TransactionArchiveService archiveService;
+
+	@BeforeEach
+	void createTable() {
+		String url = System.getProperty("benchmark.jdbc.url");
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA + ",public",
+			System.getProperty("benchmark.jdbc.user", "postgres"), System.getProperty("benchmark.jdbc.password", ""));
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		TransactionPartitionService partitionService = new TransactionPartitionService(jdbcTemplate, transactionTemplate);
+		ReflectionTestUtils.setField(partitionService, "monthsAhead", 1);
+		archive = new TransactionArchive(new ObjectMapper().registerModule(new JavaTimeModule()), directory, 10);
+		archiveService = new TransactionArchiveService(dataSource, transactionTemplate, partitionService, archive,
+			new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(archiveService, "afterMonths", 12);
+
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+		jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+		jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gin");
+		jdbcTemplate.execute("CREATE TABLE transactions (id bigint PRIMARY KEY, description varchar(255),"
+			+ " amount numeric(38,2) NOT NULL, type varchar(255), \"date\" date, account_id bigint NOT NULL,"
+			+ " category varchar(50), description_tsv tsvector"
+			+ " GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED)");
+		insert(1, 7, OLD.atDay(10).toString(), "10.00");
+		insert(2, 7, OLD.atDay(20).toString(), "20.00");
+		insert(3, 7, YearMonth.now().atDay(1).toString(), "30.00");
+		partitionService.convertToPartitioned();
+	}
+
+	@AfterEach
+	void dropSchema() {
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+	}
+
+	@Test
+	void sweepsRowsAddedToAnArchivedMonthIntoItsArchive() throws IOException {
+		assertEquals(2, archiveService.archiveOldPartitions(), "the old month and the one after it");
+		assertTrue(archive.months().contains(OLD));
+
+		// Added after the archival: the month has no partition any more.
+		insert(4, 7, OLD.atDay(15).toString(), "40.00");
+		insert(5, 8, OLD.atDay(1).toString(), "50.00");
+		insert(6, 7, null, "60.00");
+		assertEquals(3, count(TransactionPartitionService.DEFAULT_PARTITION));
+
+		assertEquals(0, archiveService.archiveOldPartitions());
+		assertEquals(List.of(1L, 4L, 2L), ids(7));
+		assertEquals(List.of(5L), ids(8));
+		assertEquals(-7000L, archive.signedSums(List.of(7L)).get(7L));
+		assertEquals(1, count(TransactionPartitionService.DEFAULT_PARTITION), "only the undated row is left");
+		assertTrue(archive.pendingMonths().isEmpty());
+
+		assertEquals(0, archiveService.archiveOldPartitions());
+		assertEquals(List.of(1L, 4L, 2L), ids(7), "nothing is swept twice");
+	}
+
+	@Test
+	void discardsASweepThatStoppedBeforeItsCommit() throws IOException {
+		archiveService.archiveOldPartitions();
+		insert(4, 7, OLD.atDay(15).toString(), "40.00");
+		// What a run that stopped between writing the month again and deleting the row leaves behind
+		archive.markSweep(OLD, 4);
+		try (TransactionArchive.MonthWriter writer = archive.writer(OLD)) {
+			for (long id : new long[] {1, 4, 2}) {
+				Transaction transaction = new Transaction("word", BigDecimal.TEN, null, OLD.atDay(1), 7L);
+				transaction.setId(id);
+				writer.add(transaction);
+			}
+			writer.finish();
+		}
+
+		archiveService.archiveOldPartitions();
+		assertEquals(List.of(1L, 4L, 2L), ids(7), "row 4 once, from the database");
+		assertEquals(0, count(TransactionPartitionService.DEFAULT_PARTITION));
+		assertFalse(archive.pendingMonths().contains(OLD));
+	}
+
+	private List<Long> ids(long accountId) {
+		return archive.read(OLD, accountId).stream().map(Transaction::getId).toList();
+	}
+
+	private void insert(long id, long accountId, String date, String amount) {
+		jdbcTemplate.update("INSERT INTO transactions (id, description, amount, type, \"date\", account_id)"
+			+ " VALUES (?, 'word', ?::numeric, 'EXPENSE', ?::date, ?)", id, amount, date, accountId);
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+	}
+
+}
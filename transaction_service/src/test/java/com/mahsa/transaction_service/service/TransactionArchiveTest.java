@@ -0,0 +1,125 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+class TransactionArchiveTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackOneAccountOfAMonth() throws IOException {
+		TransactionArchive archive = archiveWithTwoMonths();
+
+		List<Transaction> rows = archive.read(YearMonth.of(2023, 1), 2L);
+		assertEquals(List.of(3L, 4L), rows.stream().map(Transaction::getId).toList());
+		assertEquals("Rent", rows.get(0).getDescription());
+		assertEquals("Housing", rows.get(0).getCategory());
+		assertEquals(0, new BigDecimal("800.00").compareTo(rows.get(0).getAmount()));
+		assertTrue(archive.read(YearMonth.of(2023, 1), 99L).isEmpty());
+	}
+
+	@Test
+	void publishesOnlyFinishedMonths() throws IOException {
+		TransactionArchive archive = archiveWithTwoMonths();
+		try (TransactionArchive.MonthWriter writer = archive.writer(YearMonth.of(2023, 3))) {
+			writer.add(transaction(9L, 1L, "2023-03-01", "5", TransactionType.EXPENSE));
+		}
+
+		assertEquals(List.of(YearMonth.of(2023, 1), YearMonth.of(2023, 2)), new ArrayList<>(archive.months()));
+		assertTrue(archive.pendingMonths().isEmpty());
+	}
+
+	@Test
+	void iteratesAcrossMonthsAfterCursorAndFilter() throws IOException {
+		TransactionArchive archive = archiveWithTwoMonths();
+
+		List<Long> all = new ArrayList<>();
+		archive.iterator(1L, TransactionFilter.NONE, null).forEachRemaining(t -> all.add(t.getId()));
+		assertEquals(List.of(1L, 2L, 5L), all);
+
+		List<Long> afterCursor = new ArrayList<>();
+		archive.iterator(1L, TransactionFilter.NONE, new TransactionCursor(LocalDate.of(2023, 1, 20), 2L))
+			.forEachRemaining(t -> afterCursor.add(t.getId()));
+		assertEquals(List.of(5L), afterCursor);
+
+		List<Long> incomeOnly = new ArrayList<>();
+		archive.iterator(1L, new TransactionFilter(null, null, TransactionType.INCOME, null, null), null)
+			.forEachRemaining(t -> incomeOnly.add(t.getId()));
+		assertEquals(List.of(2L), incomeOnly);
+
+		assertFalse(archive.iterator(1L, new TransactionFilter(LocalDate.of(2024, 1, 1), null, null, null, null), null).hasNext());
+	}
+
+	@Test
+	void sumsSignedAmountsOverAllMonths() throws IOException {
+		TransactionArchive archive = archiveWithTwoMonths();
+
+		Map<Long, Long> sums = archive.signedSums(List.of(1L, 2L, 3L));
+		assertEquals(9000L, sums.get(1L));
+		assertEquals(-85000L, sums.get(2L));
+		assertFalse(sums.containsKey(3L));
+	}
+
+	@Test
+	void dataFileIsPlainGzip() throws IOException {
+		archiveWithTwoMonths();
+
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve("2023-01.ndjson.gz")))) {
+			in.transferTo(content);
+		}
+		assertEquals(4, content.toString(StandardCharsets.UTF_8).split("\n").length);
+	}
+
+	private TransactionArchive archiveWithTwoMonths() throws IOException {
+		TransactionArchive archive = new TransactionArchive(new ObjectMapper().registerModule(new JavaTimeModule()), directory, 10);
+		try (TransactionArchive.MonthWriter writer = archive.writer(YearMonth.of(2023, 1))) {
+			writer.add(transaction(1L, 1L, "2023-01-05", "10.00", TransactionType.EXPENSE));
+			writer.add(transaction(2L, 1L, "2023-01-20", "200.00", TransactionType.INCOME));
+			Transaction rent = transaction(3L, 2L, "2023-01-01", "800.00", TransactionType.EXPENSE);
+			rent.setCategory("Housing");
+			writer.add(rent);
+			writer.add(transaction(4L, 2L, "2023-01-31", "50.00", TransactionType.EXPENSE));
+			writer.finish();
+		}
+		archive.publish(YearMonth.of(2023, 1));
+		try (TransactionArchive.MonthWriter writer = archive.writer(YearMonth.of(2023, 2))) {
+			writer.add(transaction(5L, 1L, "2023-02-02", "100.00", TransactionType.EXPENSE));
+			writer.finish();
+		}
+		archive.publish(YearMonth.of(2023, 2));
+		return archive;
+	}
+
+	private static Transaction transaction(Long id, Long accountId, String date, String amount, TransactionType type) {
+		Transaction transaction = new Transaction("Rent", new BigDecimal(amount), type, LocalDate.parse(date), accountId);
+		transaction.setId(id);
+		return transaction;
+	}
+
+}
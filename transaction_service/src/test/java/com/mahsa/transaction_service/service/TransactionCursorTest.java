@@ -0,0 +1,33 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+class TransactionCursorTest {
+
+	@Test
+	void roundTripsDatedCursor() {
+		TransactionCursor cursor = TransactionCursor.decode(new TransactionCursor(LocalDate.of(2024, 2, 29), 42L).encode());
+		assertEquals(LocalDate.of(2024, 2, 29), cursor.getDate());
+		assertEquals(42L, cursor.getId());
+	}
+
+	@Test
+	void roundTripsUndatedCursor() {
+		TransactionCursor cursor = TransactionCursor.decode(new TransactionCursor(null, 7L).encode());
+		assertNull(cursor.getDate());
+		assertEquals(7L, cursor.getId());
+	}
+
+	@Test
+	void rejectsForeignTokens() {
+		assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not a cursor"));
+		assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("bm9zZXBhcmF0b3I"));
+	}
+
+}
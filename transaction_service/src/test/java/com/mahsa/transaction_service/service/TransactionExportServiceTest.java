@@ -0,0 +1,79 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.ExportFormat;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+class TransactionExportServiceTest {
+
+	private final TransactionQueryService queryService = mock(TransactionQueryService.class);
+	private final TransactionExportService exportService = new TransactionExportService(queryService,
+		// Configured like Spring Boot's ObjectMapper
+		new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void twoTransactions() {
+		doAnswer(invocation -> {
+			Consumer<Transaction> action = invocation.getArgument(2);
+			Transaction coffee = transaction(1L, "Coffee, \"large\"", "3.50", TransactionType.EXPENSE, LocalDate.of(2024, 1, 31));
+			coffee.setCategory("Food");
+			action.accept(coffee);
+			action.accept(transaction(2L, null, "100", TransactionType.INCOME, null));
+			return null;
+		}).when(queryService).forEachByAccountId(eq(7L), eq(TransactionFilter.NONE), any(Consumer.class));
+	}
+
+	@Test
+	void writesCsvWithQuotedDescriptions() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.export(7L, TransactionFilter.NONE, ExportFormat.CSV, false, out);
+
+		assertEquals("id,date,type,amount,description,accountId,category\n"
+			+ "1,2024-01-31,EXPENSE,3.50,\"Coffee, \"\"large\"\"\",7,Food\n"
+			+ "2,,INCOME,100,,7,\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void writesGzippedNdjsonOneObjectPerLine() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.export(7L, TransactionFilter.NONE, ExportFormat.NDJSON, true, out);
+
+		String ndjson;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		// Exactly one object per line: no separator before a line, a '\n' after each one
+		assertEquals("{\"id\":1,\"description\":\"Coffee, \\\"large\\\"\",\"amount\":3.50,\"type\":\"EXPENSE\","
+			+ "\"date\":\"2024-01-31\",\"accountId\":7,\"category\":\"Food\"}\n"
+			+ "{\"id\":2,\"description\":null,\"amount\":100,\"type\":\"INCOME\",\"date\":null,\"accountId\":7,"
+			+ "\"category\":null}\n", ndjson);
+	}
+
+	private static Transaction transaction(Long id, String description, String amount, TransactionType type, LocalDate date) {
+		Transaction transaction = new Transaction(description, new BigDecimal(amount), type, date, 7L);
+		transaction.setId(id);
+		return transaction;
+	}
+
+}
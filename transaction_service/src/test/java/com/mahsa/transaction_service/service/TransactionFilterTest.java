@@ -0,0 +1,55 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.mahsa.transaction_service.entity.Transaction;
+import com.mahsa.transaction_service.enums.TransactionType;
+
+class TransactionFilterTest {
+
+	@Test
+	void blankParametersMeanNoFilter() {
+		TransactionFilter filter = TransactionFilter.parse(null, "", " ", null, null);
+		assertTrue(filter.isEmpty());
+		assertFalse(filter.isDateBounded());
+	}
+
+	@Test
+	void parsesAllFilters() {
+		TransactionFilter filter = TransactionFilter.parse("2024-01-01", "2024-01-31", "expense", "10", "99.99");
+		assertEquals(LocalDate.of(2024, 1, 1), filter.getFrom());
+		assertEquals(LocalDate.of(2024, 1, 31), filter.getTo());
+		assertEquals(TransactionType.EXPENSE, filter.getType());
+		assertEquals(new BigDecimal("10"), filter.getMinAmount());
+		assertEquals(new BigDecimal("99.99"), filter.getMaxAmount());
+		assertTrue(filter.isDateBounded());
+	}
+
+	@Test
+	void rejectsInvalidValuesAndEmptyRanges() {
+		assertThrows(IllegalArgumentException.class, () -> TransactionFilter.parse("31/01/2024", null, null, null, null));
+		assertThrows(IllegalArgumentException.class, () -> TransactionFilter.parse(null, null, "TRANSFER", null, null));
+		assertThrows(IllegalArgumentException.class, () -> TransactionFilter.parse(null, null, null, "ten", null));
+		assertThrows(IllegalArgumentException.class, () -> TransactionFilter.parse("2024-02-01", "2024-01-01", null, null, null));
+		assertThrows(IllegalArgumentException.class, () -> TransactionFilter.parse(null, null, null, "5", "1"));
+	}
+
+	@Test
+	void matchesInMemoryLikeTheQuery() {
+		TransactionFilter filter = TransactionFilter.parse("2024-01-01", "2024-01-31", "EXPENSE", "10", null);
+		assertTrue(filter.matches(new Transaction("a", new BigDecimal("10.00"), TransactionType.EXPENSE, LocalDate.of(2024, 1, 31), 1L)));
+		assertFalse(filter.matches(new Transaction("b", new BigDecimal("9.99"), TransactionType.EXPENSE, LocalDate.of(2024, 1, 2), 1L)));
+		assertFalse(filter.matches(new Transaction("c", new BigDecimal("50"), TransactionType.INCOME, LocalDate.of(2024, 1, 2), 1L)));
+		assertFalse(filter.matches(new Transaction("d", new BigDecimal("50"), TransactionType.EXPENSE, null, 1L)));
+		assertTrue(TransactionFilter.NONE.matches(new Transaction("e", new BigDecimal("1"), null, null, 1L)));
+	}
+
+}
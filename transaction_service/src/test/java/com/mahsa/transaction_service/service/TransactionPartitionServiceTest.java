@@ -0,0 +1,103 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Partitions a scratch transactions table in PostgreSQL (schema partition_test, dropped afterwards) and checks that
+ * createPartitionsAhead moves rows that were waiting in the default partition and keeps going after a failed month.
+ *
+ *   mvn test -Dtest=TransactionPartitionServiceTest -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/postgres \
+ *       -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=...
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class TransactionPartitionServiceTest {
+
+	private static final String SCHEMA = "partition_test";
+	private static final String INDEXES_OF = "SELECT count(*) FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ?";
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionPartitionService partitionService;
+
+	@BeforeEach
+	void createTable() {
+		String url = System.getProperty("benchmark.jdbc.url");
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+			url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA + ",public",
+			System.getProperty("benchmark.jdbc.user", "postgres"), System.getProperty("benchmark.jdbc.password", ""));
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		partitionService = new TransactionPartitionService(jdbcTemplate,
+			new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+		jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+		jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+		jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gin");
+		// The table Hibernate and schema.sql create
+		jdbcTemplate.execute("CREATE TABLE transactions (id bigint PRIMARY KEY, description varchar(255),"
+			+ " amount numeric(38,2) NOT NULL, type varchar(255), \"date\" date, account_id bigint NOT NULL,"
+			+ " category varchar(50), description_tsv tsvector"
+			+ " GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED)");
+	}
+
+	@AfterEach
+	void dropSchema() {
+		jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+	}
+
+	@Test
+	void createsLaterMonthsMovingTheirRowsOutOfTheDefaultPartition() {
+		YearMonth current = YearMonth.now();
+		insert(1, current);
+		ReflectionTestUtils.setField(partitionService, "monthsAhead", 1);
+		assertEquals(1, partitionService.convertToPartitioned());
+
+		// Written while months-ahead did not reach them yet: they sit in the default partition.
+		insert(2, current.plusMonths(3));
+		insert(3, current.plusMonths(3));
+		insert(4, null);
+		// A leftover table with the name of the next month's partition makes that month fail.
+		jdbcTemplate.execute("CREATE TABLE " + TransactionPartitionService.partitionName(current.plusMonths(2)) + " (id bigint)");
+
+		ReflectionTestUtils.setField(partitionService, "monthsAhead", 4);
+		partitionService.createPartitionsAhead();
+
+		Map<YearMonth, String> partitions = partitionService.attachedPartitions();
+		assertFalse(partitions.containsKey(current.plusMonths(2)), "failed month");
+		assertTrue(partitions.containsKey(current.plusMonths(3)), "month after the failed one");
+		assertTrue(partitions.containsKey(current.plusMonths(4)), "last month");
+		String moved = TransactionPartitionService.partitionName(current.plusMonths(3));
+		assertEquals(2, count(moved));
+		assertEquals(1, count(TransactionPartitionService.DEFAULT_PARTITION), "only the undated row is left");
+		assertEquals(4, count("transactions"));
+		assertEquals("'word':1", jdbcTemplate.queryForObject(
+			"SELECT description_tsv::text FROM " + moved + " WHERE id = 2", String.class));
+		// ATTACH gave the partition its part of every index on transactions, and it has its own primary key.
+		assertEquals(jdbcTemplate.queryForObject(INDEXES_OF, Integer.class,
+				TransactionPartitionService.partitionName(current)),
+			jdbcTemplate.queryForObject(INDEXES_OF, Integer.class, moved));
+	}
+
+	private void insert(long id, YearMonth month) {
+		jdbcTemplate.update("INSERT INTO transactions (id, description, amount, type, \"date\", account_id)"
+			+ " VALUES (?, 'word', 1.00, 'EXPENSE', ?, 7)", id, month == null ? null : month.atDay(15));
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+	}
+
+}
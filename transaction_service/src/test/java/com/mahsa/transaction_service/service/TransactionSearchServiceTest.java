@@ -0,0 +1,27 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TransactionSearchServiceTest {
+
+	@Test
+	void buildsPrefixQueryFromWords() {
+		assertEquals("amazon:* & de:* & prime:*", TransactionSearchService.toTsQuery("Amazon.de  prime!"));
+		assertEquals("café:*", TransactionSearchService.toTsQuery("Café"));
+	}
+
+	@Test
+	void dropsTsQuerySyntax() {
+		assertEquals("rent:* & x:*", TransactionSearchService.toTsQuery("rent') | !x:*"));
+		assertEquals("", TransactionSearchService.toTsQuery(" & | ! "));
+		assertEquals("", TransactionSearchService.toTsQuery(null));
+	}
+
+	@Test
+	void limitsNumberOfTerms() {
+		assertEquals("a:* & b:* & c:* & d:* & e:* & f:* & g:* & h:*", TransactionSearchService.toTsQuery("a b c d e f g h i j"));
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.mahsa.transaction_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.mahsa.transaction_service.enums.ValidationOutcome;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ValidationServiceTest {
+
+	private RestTemplate restTemplate;
+	private MockRestServiceServer server;
+	private ValidationService validationService;
+
+	@BeforeEach
+	void setUp() {
+		RestTemplate restTemplate = new RestTemplate();
+		server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+		this.restTemplate = restTemplate;
+		validationService = newValidationService(4, 10, Duration.ofSeconds(2));
+	}
+
+	private ValidationService newValidationService(int poolSize, int queueCapacity, Duration timeout) {
+		return new ValidationService(restTemplate, new SimpleMeterRegistry(),
+			"http://users/api/users", "http://accounts/api/accounts",
+			Duration.ofMinutes(5), Duration.ofSeconds(30), 100, poolSize, queueCapacity, timeout, Duration.ofSeconds(30));
+	}
+
+	// A peer that answers only once the test releases it
+	private static ResponseCreator after(CountDownLatch release, String body) {
+		return request -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return withSuccess(body, MediaType.APPLICATION_JSON).createResponse(request);
+		};
+	}
+
+	@Test
+	void cachesPositiveAndNegativeAnswers() {
+		server.expect(once(), requestTo("http://users/api/users/validate/1"))
+			.andRespond(withSuccess("true", MediaType.APPLICATION_JSON));
+		server.expect(once(), requestTo("http://accounts/api/accounts/validate/9?userId=1"))
+			.andRespond(withSuccess("false", MediaType.APPLICATION_JSON));
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(validationService.userExists(1L));
+			assertFalse(validationService.accountBelongsToUser(9L, 1L));
+		}
+		server.verify();
+	}
+
+	@Test
+	void reportsWhichCheckFailed() {
+		server.expect(once(), requestTo("http://users/api/users/validate/3"))
+			.andRespond(withSuccess("true", MediaType.APPLICATION_JSON));
+		server.expect(once(), requestTo("http://accounts/api/accounts/validate/8?userId=3"))
+			.andRespond(withSuccess("false", MediaType.APPLICATION_JSON));
+
+		assertEquals(ValidationOutcome.ACCOUNT_NOT_OWNED, validationService.validateUserAndAccount(3L, 8L));
+		// The negative account answer is cached now, so no further calls are made.
+		assertEquals(ValidationOutcome.ACCOUNT_NOT_OWNED, validationService.validateUserAndAccount(3L, 8L));
+		// The user call may still be in flight after the fail-fast return.
+		server.verify(Duration.ofSeconds(2));
+	}
+
+	@Test
+	void slowPeerFailsAfterTheTimeout() {
+		CountDownLatch release = new CountDownLatch(1);
+		ValidationService validationService = newValidationService(4, 10, Duration.ofMillis(200));
+		server.expect(once(), requestTo("http://users/api/users/validate/4")).andRespond(after(release, "true"));
+		server.expect(once(), requestTo("http://accounts/api/accounts/validate/6?userId=4"))
+			.andRespond(withSuccess("true", MediaType.APPLICATION_JSON));
+		try {
+			long start = System.nanoTime();
+			ValidationUnavailableException e = assertThrows(ValidationUnavailableException.class,
+				() -> validationService.validateUserAndAccount(4L, 6L));
+			assertTrue(e.getCause() instanceof TimeoutException, e.toString());
+			assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000, "returned at the deadline");
+		} finally {
+			release.countDown();
+			validationService.shutdown();
+		}
+	}
+
+	// Trusted-claims mode only checks the account, and is bound by the same deadline.
+	@Test
+	void accountOnlyCheckFailsAfterTheTimeout() {
+		CountDownLatch release = new CountDownLatch(1);
+		ValidationService validationService = newValidationService(4, 10, Duration.ofMillis(200));
+		server.expect(once(), requestTo("http://accounts/api/accounts/validate/6?userId=5")).andRespond(after(release, "true"));
+		try {
+			long start = System.nanoTime();
+			assertThrows(ValidationUnavailableException.class, () -> validationService.validateAccount(5L, 6L));
+			assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000, "returned at the deadline");
+		} finally {
+			release.countDown();
+			validationService.shutdown();
+		}
+	}
+
+	@Test
+	void fullQueueFailsWithoutCallingThePeers() {
+		CountDownLatch release = new CountDownLatch(1);
+		// One thread and one queue slot: the user call of the first validation runs, its account call waits.
+		ValidationService validationService = newValidationService(1, 1, Duration.ofMillis(200));
+		server.expect(once(), requestTo("http://users/api/users/validate/7")).andRespond(after(release, "true"));
+		try {
+			assertThrows(ValidationUnavailableException.class, () -> validationService.validateUserAndAccount(7L, 8L));
+			ValidationUnavailableException e = assertThrows(ValidationUnavailableException.class,
+				() -> validationService.validateAccount(9L, 10L));
+			assertTrue(e.getCause() instanceof RejectedExecutionException, e.toString());
+		} finally {
+			release.countDown();
+			validationService.shutdown();
+		}
+	}
+
+	@Test
+	void doesNotCacheFailures() {
+		server.expect(once(), requestTo("http://users/api/users/validate/2")).andRespond(withServerError());
+		server.expect(once(), requestTo("http://users/api/users/validate/2"))
+			.andRespond(withSuccess("true", MediaType.APPLICATION_JSON));
+
+		assertThrows(RestClientException.class, () -> validationService.userExists(2L));
+		assertTrue(validationService.userExists(2L));
+		server.verify();
+	}
+
+}
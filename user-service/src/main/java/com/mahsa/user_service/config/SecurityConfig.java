@@ -34,6 +34,8 @@ public class SecurityConfig {
                     .requestMatchers(HttpMethod.POST, "/api/users/register").permitAll()
                     .requestMatchers("/api/users/login").permitAll()
                     .requestMatchers("/api/users/validate/**").permitAll()
+                    // Actuator is only served on management.server.port (internal address); these paths do not exist on server.port
+                    .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                     .requestMatchers("/error").permitAll() // Ensure /error is permitted
                     .anyRequest().authenticated(); // All other requests need authentication
                 }
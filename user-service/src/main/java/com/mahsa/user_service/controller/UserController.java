@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.mahsa.common.config.ReadYourWrites;
 import com.mahsa.user_service.dto.LoginRequestDTO;
 import com.mahsa.user_service.dto.LoginResponseDTO;
 import com.mahsa.user_service.dto.UserRegistrationRequestDTO;
@@ -34,10 +35,13 @@ public class UserController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
-    public UserController(PasswordEncoder passwordEncoder, UserRepository userRepository, JwtUtil jwtUtil) {
+    private final ReadYourWrites readYourWrites;
+    public UserController(PasswordEncoder passwordEncoder, UserRepository userRepository, JwtUtil jwtUtil,
+        ReadYourWrites readYourWrites) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.readYourWrites = readYourWrites;
     }
 
 
@@ -102,6 +106,10 @@ public class UserController {
     @GetMapping("/validate/{userId}")
     public ResponseEntity<Boolean> validateUserExists(@PathVariable Long userId) {
         boolean exists = userRepository.existsById(userId);
+        if (!exists) {
+            // A replica may not have a user registered a moment ago yet
+            exists = readYourWrites.onPrimary(() -> userRepository.existsById(userId));
+        }
         if (exists) {
         return ResponseEntity.ok(true);
         }